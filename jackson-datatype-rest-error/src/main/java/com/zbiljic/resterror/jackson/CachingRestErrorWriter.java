@@ -0,0 +1,153 @@
+package com.zbiljic.resterror.jackson;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.zbiljic.resterror.DefaultRestError;
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.TemplatedRestError;
+
+/**
+ * Writes {@link RestError} instances using the given {@link ObjectWriter}, caching the serialized
+ * form of the errors which are known to be immutable.
+ *
+ * Error responses are usually produced from a small set of templates, so the serialized form of
+ * equal errors is kept and written as-is to the output, instead of being serialized again. Only
+ * {@link DefaultRestError} instances without a throwable, and {@link TemplatedRestError} instances
+ * with the messages of their template (i.e. not rendered from the exception or the request) are
+ * cached, keyed by value. Other errors may be serialized with properties which are not part of the
+ * key, or have messages which differ for each occurrence, and are always serialized. Once the cache
+ * holds {@code maxEntries} entries, additional errors are serialized without being cached.
+ *
+ * @author Nemanja Zbiljic
+ */
+public final class CachingRestErrorWriter {
+
+  public static final int DEFAULT_MAX_ENTRIES = 512;
+
+  private final ObjectWriter writer;
+  private final int maxEntries;
+  private final ConcurrentMap<Key, byte[]> cache = new ConcurrentHashMap<>();
+
+  public CachingRestErrorWriter(ObjectMapper mapper) {
+    this(mapper.writerFor(RestError.class), DEFAULT_MAX_ENTRIES);
+  }
+
+  public CachingRestErrorWriter(ObjectWriter writer, int maxEntries) {
+    if (writer == null) {
+      throw new NullPointerException("ObjectWriter argument cannot be null.");
+    }
+    if (maxEntries < 0) {
+      throw new IllegalArgumentException("Maximum number of cached entries cannot be negative.");
+    }
+    this.writer = writer;
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Writes the JSON form of the given error to the output stream. The stream is not closed.
+   *
+   * @param out   the stream to write to
+   * @param error the error to write
+   */
+  public void writeValue(OutputStream out, RestError error) throws IOException {
+    out.write(serialize(error));
+  }
+
+  /**
+   * Returns the number of errors currently cached.
+   */
+  public int size() {
+    return cache.size();
+  }
+
+  private byte[] serialize(RestError error) throws JsonProcessingException {
+    if (!isCacheable(error)) {
+      return writer.writeValueAsBytes(error);
+    }
+    Key key = new Key(error);
+    byte[] bytes = cache.get(key);
+    if (bytes == null) {
+      bytes = writer.writeValueAsBytes(error);
+      if (cache.size() < maxEntries) {
+        byte[] previous = cache.putIfAbsent(key, bytes);
+        if (previous != null) {
+          bytes = previous;
+        }
+      }
+    }
+    return bytes;
+  }
+
+  private static boolean isCacheable(RestError error) {
+    if (error == null) {
+      return false;
+    }
+    if (error.getClass() == DefaultRestError.class) {
+      // the throwable is written by the mix-in binding, and is not part of the key
+      return ((DefaultRestError) error).getThrowable() == null;
+    }
+    if (error.getClass() == TemplatedRestError.class) {
+      RestError template = ((TemplatedRestError) error).getTemplate();
+      return Objects.equals(error.getMessage(), template.getMessage())
+          && Objects.equals(error.getDeveloperMessage(), template.getDeveloperMessage());
+    }
+    return false;
+  }
+
+  /**
+   * Value of the serialized properties of a {@code RestError}.
+   */
+  private static final class Key {
+
+    private final int status;
+    private final int code;
+    private final String message;
+    private final String developerMessage;
+    private final String moreInfo;
+    private final int hash;
+
+    Key(RestError error) {
+      this.status = error.getStatus();
+      this.code = error.getCode();
+      this.message = error.getMessage();
+      this.developerMessage = error.getDeveloperMessage();
+      this.moreInfo = error.getMoreInfo();
+
+      int result = status;
+      result = 31 * result + code;
+      result = 31 * result + (message != null ? message.hashCode() : 0);
+      result = 31 * result + (developerMessage != null ? developerMessage.hashCode() : 0);
+      result = 31 * result + (moreInfo != null ? moreInfo.hashCode() : 0);
+      this.hash = result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      Key key = (Key) o;
+
+      if (status != key.status) return false;
+      if (code != key.code) return false;
+      if (message != null ? !message.equals(key.message) : key.message != null) return false;
+      if (developerMessage != null ? !developerMessage.equals(key.developerMessage) : key.developerMessage != null)
+        return false;
+      return moreInfo != null ? moreInfo.equals(key.moreInfo) : key.moreInfo == null;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+}
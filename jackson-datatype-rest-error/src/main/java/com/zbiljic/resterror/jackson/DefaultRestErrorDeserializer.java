@@ -0,0 +1,97 @@
+package com.zbiljic.resterror.jackson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+import com.zbiljic.resterror.DefaultRestError;
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static com.zbiljic.resterror.RestErrorConstants.CODE;
+import static com.zbiljic.resterror.RestErrorConstants.DEVELOPER_MESSAGE;
+import static com.zbiljic.resterror.RestErrorConstants.MESSAGE;
+import static com.zbiljic.resterror.RestErrorConstants.MORE_INFO;
+import static com.zbiljic.resterror.RestErrorConstants.STATUS;
+
+/**
+ * Streaming deserializer for {@link DefaultRestError}, reading the same properties as {@link
+ * DefaultRestErrorMixIn} without bean introspection.
+ *
+ * @author Nemanja Zbiljic
+ */
+final class DefaultRestErrorDeserializer extends StdDeserializer<DefaultRestError> {
+
+  private static final long serialVersionUID = 1L;
+
+  DefaultRestErrorDeserializer() {
+    super(DefaultRestError.class);
+  }
+
+  @Override
+  public DefaultRestError deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.START_OBJECT) {
+      token = parser.nextToken();
+    } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+      throw context.mappingException(DefaultRestError.class, token);
+    }
+
+    HttpStatus status = null;
+    boolean codeSet = false;
+    int code = 0;
+    String message = null;
+    String developerMessage = null;
+    String moreInfoUrl = null;
+
+    for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+      String name = parser.getCurrentName();
+      parser.nextToken();
+      switch (name) {
+        case STATUS:
+          status = parseStatus(parser, context);
+          break;
+        case CODE:
+          code = _parseIntPrimitive(parser, context);
+          codeSet = true;
+          break;
+        case MESSAGE:
+          message = parseString(parser, context);
+          break;
+        case DEVELOPER_MESSAGE:
+          developerMessage = parseString(parser, context);
+          break;
+        case MORE_INFO:
+          moreInfoUrl = parseString(parser, context);
+          break;
+        default:
+          handleUnknownProperty(parser, context, DefaultRestError.class, name);
+      }
+    }
+
+    if (status == null) {
+      throw context.mappingException("Missing or unknown '%s' property of RestError", STATUS);
+    }
+    if (!codeSet) {
+      // required, same as with the mix-in binding
+      throw context.mappingException("Missing required '%s' property of RestError", CODE);
+    }
+    return new DefaultRestError(status, code, message, developerMessage, moreInfoUrl);
+  }
+
+  private HttpStatus parseStatus(JsonParser parser, DeserializationContext context) throws IOException {
+    if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    return HttpStatus.resolve(_parseIntPrimitive(parser, context));
+  }
+
+  private String parseString(JsonParser parser, DeserializationContext context) throws IOException {
+    if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    return _parseString(parser, context);
+  }
+}
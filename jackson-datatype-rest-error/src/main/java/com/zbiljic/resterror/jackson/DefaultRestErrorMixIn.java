@@ -1,8 +1,11 @@
 package com.zbiljic.resterror.jackson;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Map;
+
 import com.zbiljic.resterror.http.HttpStatus;
 
 import static com.zbiljic.resterror.RestErrorConstants.CODE;
@@ -25,4 +28,7 @@ abstract class DefaultRestErrorMixIn {
       @JsonProperty(MORE_INFO) final String moreInfoUrl) {
   }
 
+  @JsonIgnore
+  abstract Map<String, String> getHeaders();
+
 }
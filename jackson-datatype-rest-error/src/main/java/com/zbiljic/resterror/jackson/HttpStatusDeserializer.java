@@ -16,10 +16,6 @@ final class HttpStatusDeserializer extends JsonDeserializer<HttpStatus> {
 
   @Override
   public HttpStatus deserialize(JsonParser parser, DeserializationContext context) throws IOException, JsonProcessingException {
-    try {
-      return HttpStatus.valueOf(parser.getIntValue());
-    } catch (IllegalArgumentException e) {
-      return null;
-    }
+    return HttpStatus.resolve(parser.getIntValue());
   }
 }
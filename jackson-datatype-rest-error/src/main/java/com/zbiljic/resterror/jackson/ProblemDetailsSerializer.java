@@ -0,0 +1,79 @@
+package com.zbiljic.resterror.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorConstants;
+import com.zbiljic.resterror.http.HttpStatus;
+
+/**
+ * Serializer writing {@link RestError} as RFC 7807 problem details.
+ *
+ * The more info URL is written as the problem {@code type} (or {@code about:blank} if there is
+ * none), the reason phrase of the status as its {@code title}, and the message as its {@code
+ * detail}. The code and the developer message are written as extension members. {@code RestError}
+ * does not identify the occurrence of the problem, so {@code instance} is never written.
+ *
+ * @author Nemanja Zbiljic
+ */
+final class ProblemDetailsSerializer extends StdSerializer<RestError> {
+
+  private static final long serialVersionUID = 1L;
+
+  static final String ABOUT_BLANK = "about:blank";
+
+  static final SerializableString TYPE = new SerializedString("type");
+  static final SerializableString TITLE = new SerializedString("title");
+  static final SerializableString STATUS = new SerializedString("status");
+  static final SerializableString DETAIL = new SerializedString("detail");
+  static final SerializableString CODE = new SerializedString(RestErrorConstants.CODE);
+  static final SerializableString DEVELOPER_MESSAGE = new SerializedString(RestErrorConstants.DEVELOPER_MESSAGE);
+
+  ProblemDetailsSerializer() {
+    super(RestError.class);
+  }
+
+  @Override
+  public void serialize(RestError value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+    generator.writeStartObject();
+    serializeContents(value, generator);
+    generator.writeEndObject();
+  }
+
+  @Override
+  public void serializeWithType(RestError value, JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+    typeSer.writeTypePrefixForObject(value, generator);
+    serializeContents(value, generator);
+    typeSer.writeTypeSuffixForObject(value, generator);
+  }
+
+  private static void serializeContents(RestError value, JsonGenerator generator) throws IOException {
+    generator.writeFieldName(TYPE);
+    generator.writeString(value.getMoreInfo() != null ? value.getMoreInfo() : ABOUT_BLANK);
+    HttpStatus status = HttpStatus.resolve(value.getStatus());
+    if (status != null) {
+      generator.writeFieldName(TITLE);
+      generator.writeString(status.getReasonPhrase());
+    }
+    generator.writeFieldName(STATUS);
+    generator.writeNumber(value.getStatus());
+    writeStringField(generator, DETAIL, value.getMessage());
+    generator.writeFieldName(CODE);
+    generator.writeNumber(value.getCode());
+    writeStringField(generator, DEVELOPER_MESSAGE, value.getDeveloperMessage());
+  }
+
+  private static void writeStringField(JsonGenerator generator, SerializableString name, String value) throws IOException {
+    if (value != null) {
+      generator.writeFieldName(name);
+      generator.writeString(value);
+    }
+  }
+}
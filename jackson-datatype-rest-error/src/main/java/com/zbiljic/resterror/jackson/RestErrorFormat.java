@@ -0,0 +1,35 @@
+package com.zbiljic.resterror.jackson;
+
+import com.zbiljic.resterror.RestError;
+
+/**
+ * Wire formats in which {@link RestError} instances can be written.
+ *
+ * @author Nemanja Zbiljic
+ */
+public enum RestErrorFormat {
+
+  /**
+   * The flat format with the {@code RestError} properties, see {@link RestErrorMixIn}.
+   */
+  REST_ERROR("application/json"),
+
+  /**
+   * Problem Details for HTTP APIs, as defined by <a href="https://tools.ietf.org/html/rfc7807">RFC
+   * 7807</a>.
+   */
+  PROBLEM_DETAILS("application/problem+json");
+
+  private final String mediaType;
+
+  RestErrorFormat(String mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  /**
+   * Returns the media type of this format.
+   */
+  public String getMediaType() {
+    return mediaType;
+  }
+}
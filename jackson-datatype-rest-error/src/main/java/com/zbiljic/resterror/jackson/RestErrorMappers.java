@@ -0,0 +1,87 @@
+package com.zbiljic.resterror.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import com.zbiljic.resterror.RestError;
+
+/**
+ * Factory methods for {@link ObjectMapper}s reading and writing {@link RestError} in the binary
+ * formats supported by Jackson.
+ *
+ * The mappers use the {@link RestErrorModule.Binding#STREAMING streaming} binding, which writes
+ * the field names from pre-encoded UTF-8 bytes, so with binary backends the only per-error
+ * encoding work left is for the string values.
+ *
+ * Requires {@code jackson-dataformat-smile} or {@code jackson-dataformat-cbor} on the classpath,
+ * for the respective format.
+ *
+ * @author Nemanja Zbiljic
+ */
+public final class RestErrorMappers {
+
+  private RestErrorMappers() {}
+
+  /**
+   * Creates mapper for the Smile format.
+   *
+   * Field names are written with back-references to the names already written in the same
+   * document (the Smile shared-name table), which pays off when multiple errors are written
+   * together. Shared string values are not enabled, since the values of a single error rarely
+   * repeat.
+   */
+  public static ObjectMapper smile() {
+    return withStreamingBinding(new ObjectMapper(smileFactory()));
+  }
+
+  /**
+   * Creates mapper for the Smile format, same as {@link #smile()}, with the configuration of the
+   * given mapper.
+   *
+   * @param configuration the mapper whose serialization and deserialization configuration (e.g.
+   *                      features, mix-ins) is used; the modules registered with it are not
+   */
+  public static ObjectMapper smile(ObjectMapper configuration) {
+    return withStreamingBinding(configuredCopy(new ObjectMapper(smileFactory()), configuration));
+  }
+
+  /**
+   * Creates mapper for the CBOR format.
+   */
+  public static ObjectMapper cbor() {
+    return withStreamingBinding(new ObjectMapper(new CBORFactory()));
+  }
+
+  /**
+   * Creates mapper for the CBOR format, with the configuration of the given mapper.
+   *
+   * @param configuration the mapper whose serialization and deserialization configuration (e.g.
+   *                      features, mix-ins) is used; the modules registered with it are not
+   */
+  public static ObjectMapper cbor(ObjectMapper configuration) {
+    return withStreamingBinding(configuredCopy(new ObjectMapper(new CBORFactory()), configuration));
+  }
+
+  private static SmileFactory smileFactory() {
+    SmileFactory factory = new SmileFactory();
+    factory.enable(SmileGenerator.Feature.CHECK_SHARED_NAMES);
+    factory.disable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+    return factory;
+  }
+
+  private static ObjectMapper configuredCopy(ObjectMapper mapper, ObjectMapper configuration) {
+    if (configuration == null) {
+      throw new NullPointerException("ObjectMapper argument cannot be null.");
+    }
+    mapper.setConfig(configuration.getSerializationConfig());
+    mapper.setConfig(configuration.getDeserializationConfig());
+    return mapper;
+  }
+
+  private static ObjectMapper withStreamingBinding(ObjectMapper mapper) {
+    return mapper.registerModule(new RestErrorModule(RestErrorModule.Binding.STREAMING));
+  }
+
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 
 import com.zbiljic.resterror.DefaultRestError;
 import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.TemplatedRestError;
 import com.zbiljic.resterror.http.HttpStatus;
 
 /**
@@ -11,11 +12,61 @@ import com.zbiljic.resterror.http.HttpStatus;
  */
 public final class RestErrorModule extends SimpleModule {
 
+  /**
+   * Defines how {@link RestError} instances are bound to JSON.
+   */
+  public enum Binding {
+
+    /**
+     * Mix-in annotations on {@link RestError} and {@link DefaultRestError}, handled by the regular
+     * bean (de)serializers. Properties of custom {@code RestError} implementations are included.
+     */
+    MIX_IN,
+
+    /**
+     * Dedicated token streaming (de)serializers. Faster, but only the {@code RestError} properties
+     * are written, and {@link DefaultRestError} is always read.
+     */
+    STREAMING
+  }
+
   public RestErrorModule() {
+    this(Binding.MIX_IN);
+  }
+
+  public RestErrorModule(Binding binding) {
+    this(binding, RestErrorFormat.REST_ERROR);
+  }
+
+  public RestErrorModule(RestErrorFormat format) {
+    this(Binding.MIX_IN, format);
+  }
+
+  /**
+   * @param binding how {@code RestError} instances are bound to JSON
+   * @param format  the format in which {@code RestError} instances are written. With {@link
+   *                RestErrorFormat#PROBLEM_DETAILS}, the binding only applies to reading.
+   */
+  public RestErrorModule(Binding binding, RestErrorFormat format) {
     super(RestErrorModule.class.getSimpleName(), PackageVersion.VERSION);
 
-    setMixInAnnotation(RestError.class, RestErrorMixIn.class);
-    setMixInAnnotation(DefaultRestError.class, DefaultRestErrorMixIn.class);
+    switch (binding) {
+      case STREAMING:
+        DefaultRestErrorDeserializer deserializer = new DefaultRestErrorDeserializer();
+        addSerializer(RestError.class, new RestErrorSerializer());
+        addDeserializer(RestError.class, deserializer);
+        addDeserializer(DefaultRestError.class, deserializer);
+        break;
+      case MIX_IN:
+      default:
+        setMixInAnnotation(RestError.class, RestErrorMixIn.class);
+        setMixInAnnotation(DefaultRestError.class, DefaultRestErrorMixIn.class);
+        setMixInAnnotation(TemplatedRestError.class, TemplatedRestErrorMixIn.class);
+    }
+
+    if (format == RestErrorFormat.PROBLEM_DETAILS) {
+      addSerializer(RestError.class, new ProblemDetailsSerializer());
+    }
 
     addSerializer(HttpStatus.class, new HttpStatusSerializer());
     addDeserializer(HttpStatus.class, new HttpStatusDeserializer());
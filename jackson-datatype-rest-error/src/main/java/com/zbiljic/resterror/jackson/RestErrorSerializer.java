@@ -0,0 +1,65 @@
+package com.zbiljic.resterror.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorConstants;
+
+/**
+ * Streaming serializer for {@link RestError}, writing the same properties as {@link
+ * RestErrorMixIn} without bean introspection.
+ *
+ * @author Nemanja Zbiljic
+ */
+final class RestErrorSerializer extends StdSerializer<RestError> {
+
+  private static final long serialVersionUID = 1L;
+
+  static final SerializableString STATUS = new SerializedString(RestErrorConstants.STATUS);
+  static final SerializableString CODE = new SerializedString(RestErrorConstants.CODE);
+  static final SerializableString MESSAGE = new SerializedString(RestErrorConstants.MESSAGE);
+  static final SerializableString DEVELOPER_MESSAGE = new SerializedString(RestErrorConstants.DEVELOPER_MESSAGE);
+  static final SerializableString MORE_INFO = new SerializedString(RestErrorConstants.MORE_INFO);
+
+  RestErrorSerializer() {
+    super(RestError.class);
+  }
+
+  @Override
+  public void serialize(RestError value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+    generator.writeStartObject();
+    serializeContents(value, generator);
+    generator.writeEndObject();
+  }
+
+  @Override
+  public void serializeWithType(RestError value, JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+    typeSer.writeTypePrefixForObject(value, generator);
+    serializeContents(value, generator);
+    typeSer.writeTypeSuffixForObject(value, generator);
+  }
+
+  private static void serializeContents(RestError value, JsonGenerator generator) throws IOException {
+    generator.writeFieldName(STATUS);
+    generator.writeNumber(value.getStatus());
+    generator.writeFieldName(CODE);
+    generator.writeNumber(value.getCode());
+    writeStringField(generator, MESSAGE, value.getMessage());
+    writeStringField(generator, DEVELOPER_MESSAGE, value.getDeveloperMessage());
+    writeStringField(generator, MORE_INFO, value.getMoreInfo());
+  }
+
+  private static void writeStringField(JsonGenerator generator, SerializableString name, String value) throws IOException {
+    if (value != null) {
+      generator.writeFieldName(name);
+      generator.writeString(value);
+    }
+  }
+}
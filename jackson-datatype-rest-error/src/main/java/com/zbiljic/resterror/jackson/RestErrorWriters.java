@@ -0,0 +1,73 @@
+package com.zbiljic.resterror.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import com.zbiljic.resterror.RestError;
+
+/**
+ * Pre-built {@link ObjectWriter}s for {@link RestError}, one per {@link RestErrorFormat}.
+ *
+ * The writers are built once, from the configuration of the given {@link ObjectMapper}, so that
+ * writing in any of the formats does not construct writers per request. The mapper is expected to
+ * have {@link RestErrorModule} registered for the {@link RestErrorFormat#REST_ERROR} format; the
+ * writer for {@link RestErrorFormat#PROBLEM_DETAILS} is built from a copy of it. Writers for the
+ * binary formats, see {@link RestErrorMappers}, are built from its configuration as well.
+ *
+ * @author Nemanja Zbiljic
+ */
+public final class RestErrorWriters {
+
+  private final ObjectMapper mapper;
+  private final ObjectWriter[] writers;
+
+  public RestErrorWriters(ObjectMapper mapper) {
+    if (mapper == null) {
+      throw new NullPointerException("ObjectMapper argument cannot be null.");
+    }
+    this.mapper = mapper;
+    RestErrorFormat[] formats = RestErrorFormat.values();
+    this.writers = new ObjectWriter[formats.length];
+    for (RestErrorFormat format : formats) {
+      writers[format.ordinal()] = createWriter(mapper, format);
+    }
+  }
+
+  private static ObjectWriter createWriter(ObjectMapper mapper, RestErrorFormat format) {
+    switch (format) {
+      case PROBLEM_DETAILS:
+        // plain SimpleModule, so that it is not ignored as a duplicate registration
+        SimpleModule module = new SimpleModule(RestErrorFormat.PROBLEM_DETAILS.name(), PackageVersion.VERSION);
+        module.addSerializer(RestError.class, new ProblemDetailsSerializer());
+        return mapper.copy().registerModule(module).writerFor(RestError.class);
+      case REST_ERROR:
+      default:
+        return mapper.writerFor(RestError.class);
+    }
+  }
+
+  /**
+   * Returns the writer for the given format.
+   */
+  public ObjectWriter writerFor(RestErrorFormat format) {
+    return writers[format.ordinal()];
+  }
+
+  /**
+   * Creates writer for the Smile format, with the configuration of the mapper. Requires {@code
+   * jackson-dataformat-smile} on the classpath.
+   */
+  public ObjectWriter createSmileWriter() {
+    return RestErrorMappers.smile(mapper).writerFor(RestError.class);
+  }
+
+  /**
+   * Creates writer for the CBOR format, with the configuration of the mapper. Requires {@code
+   * jackson-dataformat-cbor} on the classpath.
+   */
+  public ObjectWriter createCborWriter() {
+    return RestErrorMappers.cbor(mapper).writerFor(RestError.class);
+  }
+
+}
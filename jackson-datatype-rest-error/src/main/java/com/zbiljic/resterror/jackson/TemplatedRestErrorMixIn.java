@@ -0,0 +1,34 @@
+package com.zbiljic.resterror.jackson;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.Map;
+
+import com.zbiljic.resterror.RestError;
+
+import static com.zbiljic.resterror.RestErrorConstants.CODE;
+import static com.zbiljic.resterror.RestErrorConstants.DEVELOPER_MESSAGE;
+import static com.zbiljic.resterror.RestErrorConstants.MESSAGE;
+import static com.zbiljic.resterror.RestErrorConstants.MORE_INFO;
+import static com.zbiljic.resterror.RestErrorConstants.STATUS;
+
+/**
+ * Writes {@link com.zbiljic.resterror.TemplatedRestError} the same as the template it is based on,
+ * without the template itself, the throwable and the headers.
+ *
+ * @author Nemanja Zbiljic
+ */
+@JsonPropertyOrder({STATUS, CODE, MESSAGE, DEVELOPER_MESSAGE, MORE_INFO})
+abstract class TemplatedRestErrorMixIn {
+
+  @JsonIgnore
+  abstract RestError getTemplate();
+
+  @JsonIgnore
+  abstract Throwable getThrowable();
+
+  @JsonIgnore
+  abstract Map<String, String> getHeaders();
+
+}
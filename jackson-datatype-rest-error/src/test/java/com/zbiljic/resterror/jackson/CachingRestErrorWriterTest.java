@@ -0,0 +1,100 @@
+package com.zbiljic.resterror.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.zbiljic.resterror.DefaultRestError;
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.TemplatedRestError;
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class CachingRestErrorWriterTest {
+
+  private final ObjectMapper mapper = new ObjectMapper()
+      .registerModule(new RestErrorModule());
+
+  @Test
+  public void shouldWriteSameJsonAsObjectMapper() throws IOException {
+    final CachingRestErrorWriter writer = new CachingRestErrorWriter(mapper);
+    final RestError error = RestErrorFactory.valueOf(HttpStatus.SERVICE_UNAVAILABLE);
+
+    assertThat(write(writer, error), equalTo(mapper.writeValueAsString(error)));
+    assertThat(write(writer, error), equalTo(mapper.writeValueAsString(error)));
+    assertThat(writer.size(), equalTo(1));
+  }
+
+  @Test
+  public void shouldCacheEqualErrors() throws IOException {
+    final CachingRestErrorWriter writer = new CachingRestErrorWriter(mapper);
+
+    write(writer, RestErrorFactory.valueOf(HttpStatus.TOO_MANY_REQUESTS, "Slow down"));
+    write(writer, RestErrorFactory.valueOf(HttpStatus.TOO_MANY_REQUESTS, "Slow down"));
+    assertThat(writer.size(), equalTo(1));
+
+    write(writer, RestErrorFactory.valueOf(HttpStatus.TOO_MANY_REQUESTS, "Really slow down"));
+    assertThat(writer.size(), equalTo(2));
+  }
+
+  @Test
+  public void shouldCacheTemplatedErrors() throws IOException {
+    final CachingRestErrorWriter writer = new CachingRestErrorWriter(mapper);
+    final RestError template = RestErrorFactory.valueOf(HttpStatus.NOT_FOUND, "Order not found");
+    final RestError error = new TemplatedRestError(template, "Order not found", null, new IllegalStateException());
+
+    assertThat(write(writer, error), equalTo(mapper.writeValueAsString(error)));
+    write(writer, new TemplatedRestError(template, "Order not found", null, new IllegalArgumentException()));
+    assertThat(writer.size(), equalTo(1));
+  }
+
+  @Test
+  public void shouldNotCacheRenderedMessages() throws IOException {
+    final CachingRestErrorWriter writer = new CachingRestErrorWriter(mapper);
+    final RestError template = RestErrorFactory.valueOf(HttpStatus.NOT_FOUND, "Order {orderId} not found");
+    final RestError error = new TemplatedRestError(template, "Order 42 not found", null, null);
+
+    assertThat(write(writer, error), equalTo(mapper.writeValueAsString(error)));
+    assertThat(writer.size(), equalTo(0));
+  }
+
+  @Test
+  public void shouldNotShareThrowableOfErrors() throws IOException {
+    final CachingRestErrorWriter writer = new CachingRestErrorWriter(mapper);
+    final RestError first = new DefaultRestError(HttpStatus.CONFLICT, 409, "Conflict", null, null,
+        new IllegalStateException("first"));
+    final RestError second = new DefaultRestError(HttpStatus.CONFLICT, 409, "Conflict", null, null,
+        new IllegalStateException("second"));
+
+    assertThat(write(writer, first), equalTo(mapper.writeValueAsString(first)));
+    assertThat(write(writer, second), equalTo(mapper.writeValueAsString(second)));
+    assertThat(writer.size(), equalTo(0));
+  }
+
+  @Test
+  public void shouldNotCacheOverLimit() throws IOException {
+    final CachingRestErrorWriter writer = new CachingRestErrorWriter(mapper.writerFor(RestError.class), 1);
+    final RestError error = RestErrorFactory.valueOf(HttpStatus.NOT_FOUND, "Order 2 not found");
+
+    write(writer, RestErrorFactory.valueOf(HttpStatus.NOT_FOUND, "Order 1 not found"));
+    assertThat(write(writer, error), equalTo(mapper.writeValueAsString(error)));
+    assertThat(writer.size(), equalTo(1));
+  }
+
+  private static String write(CachingRestErrorWriter writer, RestError error) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.writeValue(out, error);
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,80 @@
+package com.zbiljic.resterror.jackson;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import com.zbiljic.resterror.DefaultRestError;
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorBinaryFormatsTest {
+
+  private final RestError error = RestErrorFactory.builder()
+      .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+      .withCode(50301)
+      .withMessage("The service is temporarily unavailable.")
+      .withDeveloperMessage("Downstream dependency did not respond in time.")
+      .withMoreInfoUrl("https://example.org/errors/50301")
+      .build();
+
+  @DataProvider
+  public Object[][] mappers() {
+    return new Object[][]{
+        {RestErrorMappers.smile()},
+        {RestErrorMappers.cbor()},
+        {new ObjectMapper(new SmileFactory()).registerModule(new RestErrorModule())},
+        {new ObjectMapper(new CBORFactory()).registerModule(new RestErrorModule())},
+    };
+  }
+
+  @Test(dataProvider = "mappers")
+  public void shouldRoundTrip(ObjectMapper mapper) throws IOException {
+    final RestError read = mapper.readValue(mapper.writeValueAsBytes(error), RestError.class);
+
+    assertThat(read, instanceOf(DefaultRestError.class));
+    assertThat(read, equalTo(error));
+  }
+
+  @Test(dataProvider = "mappers")
+  public void shouldBeSmallerThanJson(ObjectMapper mapper) throws IOException {
+    final byte[] json = new ObjectMapper().registerModule(new RestErrorModule()).writeValueAsBytes(error);
+
+    assertThat(mapper.writeValueAsBytes(error).length, lessThan(json.length));
+  }
+
+  @Test
+  public void shouldReadWhatMixInBindingWrites() throws IOException {
+    final ObjectMapper mixIn = new ObjectMapper(new SmileFactory()).registerModule(new RestErrorModule());
+
+    assertThat(RestErrorMappers.smile().readValue(mixIn.writeValueAsBytes(error), RestError.class), equalTo(error));
+  }
+
+  @Test
+  public void shouldUseConfigurationOfGivenMapper() throws IOException {
+    final ObjectMapper configuration = new ObjectMapper().enable(SerializationFeature.WRAP_ROOT_VALUE);
+
+    for (ObjectMapper mapper : new ObjectMapper[]{RestErrorMappers.smile(configuration), RestErrorMappers.cbor(configuration)}) {
+      final JsonNode tree = mapper.readTree(mapper.writeValueAsBytes(error));
+      assertThat(tree.size(), equalTo(1));
+      assertThat(tree.elements().next().get("code").asInt(), equalTo(50301));
+    }
+  }
+
+}
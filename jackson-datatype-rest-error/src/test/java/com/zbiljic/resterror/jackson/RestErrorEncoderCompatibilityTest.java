@@ -0,0 +1,89 @@
+package com.zbiljic.resterror.jackson;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+import com.zbiljic.resterror.json.RestErrorDecoder;
+import com.zbiljic.resterror.json.RestErrorEncoder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.testng.Assert.fail;
+
+/**
+ * Verifies that {@link RestErrorEncoder} and {@link RestErrorDecoder} are interchangeable with
+ * this module.
+ *
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorEncoderCompatibilityTest {
+
+  private final ObjectMapper mapper = new ObjectMapper()
+      .registerModule(new RestErrorModule());
+
+  @DataProvider
+  public Object[][] errors() {
+    return new Object[][]{
+        {RestErrorFactory.valueOf(HttpStatus.NOT_FOUND)},
+        {RestErrorFactory.builder().withStatus(HttpStatus.CONFLICT).withCode(-1).build()},
+        {RestErrorFactory.builder()
+            .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+            .withCode(50301)
+            .withMessage("\"quoted\" \\ tab\t new\nline \u0001 \u001f \u007f /")
+            .withDeveloperMessage("café € 😀")
+            .withMoreInfoUrl("http://example.org/errors/50301")
+            .build()},
+    };
+  }
+
+  @Test(dataProvider = "errors")
+  public void shouldEncodeSameAsJackson(RestError error) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(RestErrorEncoder.encodedLength(error));
+    RestErrorEncoder.encode(error, buffer);
+
+    assertThat(Arrays.toString(buffer.array()), equalTo(Arrays.toString(mapper.writeValueAsBytes(error))));
+  }
+
+  @Test(dataProvider = "errors")
+  public void shouldDecodeJacksonOutput(RestError error) throws IOException {
+    assertThat(RestErrorDecoder.decode(ByteBuffer.wrap(mapper.writeValueAsBytes(error))), equalTo(error));
+  }
+
+  @DataProvider
+  public Object[][] bindings() {
+    return new Object[][]{
+        {RestErrorModule.Binding.MIX_IN},
+        {RestErrorModule.Binding.STREAMING},
+    };
+  }
+
+  @Test(dataProvider = "bindings")
+  public void shouldRejectMissingCodeSameAsJackson(RestErrorModule.Binding binding) throws IOException {
+    final String json = "{\"status\":404,\"message\":\"Not Found\"}";
+
+    try {
+      new ObjectMapper().registerModule(new RestErrorModule(binding)).readValue(json, RestError.class);
+      fail("Jackson must reject missing code");
+    } catch (JsonMappingException expected) {
+      // required property
+    }
+    try {
+      RestErrorDecoder.decode(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+      fail("RestErrorDecoder must reject missing code");
+    } catch (IllegalArgumentException expected) {
+      // required property
+    }
+  }
+
+}
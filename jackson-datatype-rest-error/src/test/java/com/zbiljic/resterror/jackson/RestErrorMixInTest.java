@@ -11,6 +11,7 @@ import java.net.URL;
 import com.zbiljic.resterror.DefaultRestError;
 import com.zbiljic.resterror.RestError;
 import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.TemplatedRestError;
 import com.zbiljic.resterror.http.HttpStatus;
 
 import static com.jayway.jsonassert.JsonAssert.with;
@@ -36,6 +37,19 @@ public class RestErrorMixInTest {
     return getClass().getClassLoader().getResource(name);
   }
 
+  @Test
+  public void shouldNotSerializeHeaders() throws JsonProcessingException {
+    final RestError error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.TOO_MANY_REQUESTS)
+        .withCode(429)
+        .withRetryAfter(30)
+        .build();
+
+    assertThat(mapper.writeValueAsString(error), equalTo("{\"status\":429,\"code\":429}"));
+    assertThat(mapper.writeValueAsString(new TemplatedRestError(error, "Slow down", null, null)),
+        equalTo("{\"status\":429,\"code\":429,\"message\":\"Slow down\"}"));
+  }
+
   @Test
   public void shouldSerializeDefaultRestError() throws JsonProcessingException {
     final RestError error = RestErrorFactory.valueOf(HttpStatus.NOT_FOUND);
@@ -49,6 +63,15 @@ public class RestErrorMixInTest {
         .assertThat("$.moreInfo", hasToString("http://httpstatus.es/404"));
   }
 
+  @Test
+  public void shouldSerializeTemplatedRestError() throws JsonProcessingException {
+    final RestError template = RestErrorFactory.valueOf(HttpStatus.NOT_FOUND);
+    final RestError error = new TemplatedRestError(template, "Order not found", null, new IllegalStateException());
+
+    assertThat(mapper.writeValueAsString(error),
+        equalTo(mapper.writeValueAsString(RestErrorFactory.valueOf(HttpStatus.NOT_FOUND, "Order not found"))));
+  }
+
   @Test
   public void shouldSerializeCustomRestError() throws JsonProcessingException {
     final RestError error = RestErrorFactory.builder()
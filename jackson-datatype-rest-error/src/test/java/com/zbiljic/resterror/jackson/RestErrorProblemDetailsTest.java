@@ -0,0 +1,68 @@
+package com.zbiljic.resterror.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorProblemDetailsTest {
+
+  private final ObjectMapper mapper = new ObjectMapper()
+      .registerModule(new RestErrorModule());
+
+  private final RestError custom = RestErrorFactory.builder()
+      .withStatus(HttpStatus.CONFLICT)
+      .withCode(40901)
+      .withMessage("Order 42 was already shipped")
+      .withDeveloperMessage("Order state is SHIPPED")
+      .withMoreInfoUrl("http://example.org/problems/order-shipped")
+      .build();
+
+  @Test
+  public void shouldSerializeProblemDetails() throws IOException {
+    final ObjectMapper problemMapper = new ObjectMapper()
+        .registerModule(new RestErrorModule(RestErrorFormat.PROBLEM_DETAILS));
+
+    assertThat(problemMapper.writeValueAsString(custom), equalTo("{"
+        + "\"type\":\"http://example.org/problems/order-shipped\","
+        + "\"title\":\"Conflict\","
+        + "\"status\":409,"
+        + "\"detail\":\"Order 42 was already shipped\","
+        + "\"code\":40901,"
+        + "\"developerMessage\":\"Order state is SHIPPED\"}"));
+  }
+
+  @Test
+  public void shouldDefaultTypeToAboutBlank() throws IOException {
+    final RestError error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.NOT_FOUND)
+        .build();
+
+    assertThat(new RestErrorWriters(mapper).writerFor(RestErrorFormat.PROBLEM_DETAILS).writeValueAsString(error),
+        equalTo("{\"type\":\"about:blank\",\"title\":\"Not Found\",\"status\":404,\"code\":0}"));
+  }
+
+  @Test
+  public void shouldBuildWriterPerFormat() throws IOException {
+    final RestErrorWriters writers = new RestErrorWriters(mapper);
+
+    assertThat(writers.writerFor(RestErrorFormat.REST_ERROR).writeValueAsString(custom),
+        equalTo(mapper.writeValueAsString(custom)));
+    assertThat(writers.writerFor(RestErrorFormat.PROBLEM_DETAILS), sameInstance(writers.writerFor(RestErrorFormat.PROBLEM_DETAILS)));
+    // the mapper itself is not changed
+    assertThat(mapper.writeValueAsString(custom), equalTo(new ObjectMapper().registerModule(new RestErrorModule()).writeValueAsString(custom)));
+  }
+
+}
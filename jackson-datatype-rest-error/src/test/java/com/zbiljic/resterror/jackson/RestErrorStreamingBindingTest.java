@@ -0,0 +1,103 @@
+package com.zbiljic.resterror.jackson;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URL;
+
+import com.zbiljic.resterror.DefaultRestError;
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorStreamingBindingTest {
+
+  private final ObjectMapper mixInMapper = new ObjectMapper()
+      .registerModule(new RestErrorModule());
+
+  private final ObjectMapper mapper = new ObjectMapper()
+      .registerModule(new RestErrorModule(RestErrorModule.Binding.STREAMING));
+
+  private URL getResource(String name) {
+    return getClass().getClassLoader().getResource(name);
+  }
+
+  @Test
+  public void shouldSerializeSameAsMixIn() throws IOException {
+    final RestError generic = RestErrorFactory.valueOf(HttpStatus.NOT_FOUND);
+    final RestError custom = RestErrorFactory.builder()
+        .withStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+        .withCode(9999)
+        .withMessage("Unknown \"error\"")
+        .withDeveloperMessage("Unknown error has occurred")
+        .withMoreInfoUrl("http://example.org/unknown")
+        .build();
+
+    assertThat(mapper.writeValueAsString(generic), equalTo(mixInMapper.writeValueAsString(generic)));
+    assertThat(mapper.writeValueAsString(custom), equalTo(mixInMapper.writeValueAsString(custom)));
+  }
+
+  @Test
+  public void shouldDeserializeDefaultRestError() throws IOException {
+    final RestError raw = mapper.readValue(getResource("not-found.json"), RestError.class);
+
+    assertThat(raw, instanceOf(DefaultRestError.class));
+    assertThat(raw.getStatus(), equalTo(404));
+    assertThat(raw.getCode(), equalTo(404));
+    assertThat(raw.getMessage(), equalTo("Not Found"));
+    assertThat(raw.getDeveloperMessage(), nullValue());
+    assertThat(raw.getMoreInfo(), equalTo("http://httpstatus.es/404"));
+  }
+
+  @Test
+  public void shouldRoundTrip() throws IOException {
+    final RestError error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+        .withCode(50301)
+        .withMessage("The service is temporarily unavailable.")
+        .withDeveloperMessage(null)
+        .withMoreInfoUrl("https://example.org/errors/50301")
+        .build();
+
+    assertThat(mapper.readValue(mapper.writeValueAsBytes(error), DefaultRestError.class), equalTo(error));
+  }
+
+  @Test(expectedExceptions = JsonMappingException.class)
+  public void shouldFailOnUnknownStatus() throws IOException {
+    mapper.readValue("{\"status\":299,\"code\":1}", RestError.class);
+  }
+
+  @Test(expectedExceptions = JsonMappingException.class)
+  public void shouldFailOnMissingCode() throws IOException {
+    mapper.readValue("{\"status\":404,\"message\":\"Not Found\"}", RestError.class);
+  }
+
+  @Test(expectedExceptions = JsonMappingException.class)
+  public void shouldFailOnUnknownProperty() throws IOException {
+    mapper.readValue("{\"status\":404,\"code\":1,\"unknown\":[1,2]}", RestError.class);
+  }
+
+  @Test
+  public void shouldSkipUnknownPropertyWhenConfigured() throws IOException {
+    final RestError error = mapper.copy()
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .readValue("{\"status\":404,\"unknown\":{\"a\":[1,2]},\"message\":null,\"code\":7}", RestError.class);
+
+    assertThat(error.getStatus(), equalTo(404));
+    assertThat(error.getCode(), equalTo(7));
+    assertThat(error.getMessage(), nullValue());
+  }
+
+}
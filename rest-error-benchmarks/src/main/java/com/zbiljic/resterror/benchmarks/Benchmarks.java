@@ -0,0 +1,41 @@
+package com.zbiljic.resterror.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ *
+ * Accepts the regular JMH command line options, but unless told otherwise writes the results in
+ * JSON format to {@value #DEFAULT_RESULT_FILE}, so they can be tracked over time.
+ *
+ * @author Nemanja Zbiljic
+ */
+public final class Benchmarks {
+
+  public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  private Benchmarks() {}
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cmdOptions = new CommandLineOptions(args);
+    if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListProfilers()
+        || cmdOptions.shouldListResultFormats() || cmdOptions.shouldListWithParams()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+
+    OptionsBuilder options = new OptionsBuilder();
+    options.parent(cmdOptions);
+    if (!cmdOptions.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!cmdOptions.getResult().hasValue()) {
+      options.result(DEFAULT_RESULT_FILE);
+    }
+    new Runner(options.build()).run();
+  }
+
+}
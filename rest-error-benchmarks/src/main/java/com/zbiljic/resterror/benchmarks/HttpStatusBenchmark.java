@@ -0,0 +1,42 @@
+package com.zbiljic.resterror.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import com.zbiljic.resterror.http.HttpStatus;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpStatusBenchmark {
+
+  @Param({"100", "404", "511"})
+  private int statusCode;
+
+  @Benchmark
+  public HttpStatus valueOf() {
+    return HttpStatus.valueOf(statusCode);
+  }
+
+  @Benchmark
+  public HttpStatus.Series series() {
+    return HttpStatus.Series.valueOf(statusCode);
+  }
+
+}
@@ -0,0 +1,91 @@
+package com.zbiljic.resterror.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpErrorResponse;
+import com.zbiljic.resterror.http.HttpStatus;
+import com.zbiljic.resterror.jackson.RestErrorModule;
+import com.zbiljic.resterror.json.RestErrorDecoder;
+import com.zbiljic.resterror.json.RestErrorEncoder;
+
+/**
+ * Compares {@link RestErrorEncoder} and {@link RestErrorDecoder} with the Jackson streaming
+ * binding, and with writing a pre-built {@link HttpErrorResponse}.
+ *
+ * @author Nemanja Zbiljic
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RestErrorEncoderBenchmark {
+
+  private ObjectMapper mapper;
+  private RestError error;
+  private ByteBuffer buffer;
+  private byte[] json;
+  private HttpErrorResponse response;
+
+  @Setup
+  public void setup() throws IOException {
+    mapper = new ObjectMapper().registerModule(new RestErrorModule(RestErrorModule.Binding.STREAMING));
+    error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+        .withCode(50301)
+        .withMessage("The service is temporarily unavailable.")
+        .withDeveloperMessage("Downstream dependency 'inventory' did not respond in time.")
+        .withMoreInfoUrl("https://example.org/errors/50301")
+        .build();
+    buffer = ByteBuffer.allocateDirect(1024);
+    json = mapper.writeValueAsBytes(error);
+    response = HttpErrorResponse.of(error);
+  }
+
+  @Benchmark
+  public int encoder() {
+    buffer.clear();
+    return RestErrorEncoder.encode(error, buffer);
+  }
+
+  @Benchmark
+  public int prebuiltResponse() {
+    buffer.clear();
+    buffer.put(response.buffer());
+    return buffer.position();
+  }
+
+  @Benchmark
+  public byte[] jackson() throws IOException {
+    return mapper.writeValueAsBytes(error);
+  }
+
+  @Benchmark
+  public RestError decoder() {
+    return RestErrorDecoder.decode(ByteBuffer.wrap(json));
+  }
+
+  @Benchmark
+  public RestError jacksonDecode() throws IOException {
+    return mapper.readValue(json, RestError.class);
+  }
+
+}
@@ -0,0 +1,98 @@
+package com.zbiljic.resterror.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+import com.zbiljic.resterror.jackson.RestErrorMappers;
+import com.zbiljic.resterror.jackson.RestErrorModule;
+
+/**
+ * Compares encoding and decoding of {@link RestError} in JSON, Smile and CBOR. The payload size of
+ * each encoding is reported as the {@code payloadBytes} secondary result.
+ *
+ * @author Nemanja Zbiljic
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestErrorEncodingBenchmark {
+
+  @Param({"JSON", "SMILE", "CBOR"})
+  private String encoding;
+
+  private ObjectMapper mapper;
+  private RestError error;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() throws IOException {
+    switch (encoding) {
+      case "SMILE":
+        mapper = RestErrorMappers.smile();
+        break;
+      case "CBOR":
+        mapper = RestErrorMappers.cbor();
+        break;
+      default:
+        mapper = new ObjectMapper().registerModule(new RestErrorModule(RestErrorModule.Binding.STREAMING));
+    }
+    error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+        .withCode(50301)
+        .withMessage("The service is temporarily unavailable.")
+        .withDeveloperMessage("Downstream dependency 'inventory' did not respond in time.")
+        .withMoreInfoUrl("https://example.org/errors/50301")
+        .build();
+    encoded = mapper.writeValueAsBytes(error);
+  }
+
+  @Benchmark
+  public byte[] encode(PayloadSize size) throws IOException {
+    byte[] bytes = mapper.writeValueAsBytes(error);
+    size.payloadBytes = bytes.length;
+    return bytes;
+  }
+
+  @Benchmark
+  public RestError decode() throws IOException {
+    return mapper.readValue(encoded, RestError.class);
+  }
+
+  /**
+   * Reports the size of the encoded error.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class PayloadSize {
+
+    public long payloadBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      payloadBytes = 0;
+    }
+  }
+
+}
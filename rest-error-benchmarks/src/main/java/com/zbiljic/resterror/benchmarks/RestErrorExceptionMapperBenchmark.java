@@ -0,0 +1,124 @@
+package com.zbiljic.resterror.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.Response;
+
+import com.zbiljic.resterror.mapping.OverloadShedding;
+import com.zbiljic.resterror.ws.rs.RestErrorExceptionMapper;
+
+/**
+ * Measures {@link RestErrorExceptionMapper#toResponse(Throwable)} for exceptions which are mapped
+ * exactly, mapped through one of their superclasses, mapped to a message with placeholders, or not
+ * mapped at all.
+ *
+ * @author Nemanja Zbiljic
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestErrorExceptionMapperBenchmark {
+
+  private static final int[] GENERATED_STATUSES = {400, 403, 404, 409, 422};
+
+  @Param({"10", "100", "1000"})
+  private int mappings;
+
+  private RestErrorExceptionMapper mapper;
+  private RestErrorExceptionMapper degradedMapper;
+
+  private Throwable exactException;
+  private Throwable inheritedException;
+  private Throwable unmappedException;
+  private Throwable interpolatedException;
+
+  @Setup
+  public void setup() {
+    mapper = new RestErrorExceptionMapper(new ByteArrayInputStream(configuration(mappings)));
+    degradedMapper = new RestErrorExceptionMapper(new ByteArrayInputStream(configuration(mappings)));
+    OverloadShedding overloadShedding = OverloadShedding.manual();
+    overloadShedding.setForced(true);
+    degradedMapper.setOverloadShedding(overloadShedding);
+
+    exactException = new IllegalStateException("Order 42 is already shipped");
+    inheritedException = new SocketTimeoutException("Read timed out");
+    unmappedException = new UnsupportedOperationException("Not implemented");
+    interpolatedException = new OrderNotFoundException(42, new IllegalStateException("Order archived"));
+  }
+
+  /**
+   * Builds mapping configuration with the given number of entries, three of which are actually
+   * matched by the benchmarked exceptions.
+   */
+  static byte[] configuration(int mappings) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("restError.baseMoreInfoUrl = https://example.org/errors/\n");
+    for (int i = 0; i < mappings - 3; i++) {
+      sb.append("com.zbiljic.resterror.benchmarks.GeneratedMapping").append(i).append("Exception = ")
+          .append(GENERATED_STATUSES[i % GENERATED_STATUSES.length]).append(" | ").append(10000 + i).append(" | Generated error ").append(i)
+          .append('\n');
+    }
+    sb.append("java.lang.IllegalStateException = 409 | _exmsg\n");
+    sb.append("java.io.IOException = 503 | The service is temporarily unavailable. | _exmsg\n");
+    sb.append(OrderNotFoundException.class.getName()).append(" = 404 | Order {orderId} not found. | {cause.message}\n");
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public Response exact() {
+    return mapper.toResponse(exactException);
+  }
+
+  @Benchmark
+  public Response inherited() {
+    return mapper.toResponse(inheritedException);
+  }
+
+  @Benchmark
+  public Response unmapped() {
+    return mapper.toResponse(unmappedException);
+  }
+
+  @Benchmark
+  public Response interpolated() {
+    return mapper.toResponse(interpolatedException);
+  }
+
+  @Benchmark
+  public Response interpolatedDegraded() {
+    return degradedMapper.toResponse(interpolatedException);
+  }
+
+  public static class OrderNotFoundException extends RuntimeException {
+
+    private final long orderId;
+
+    public OrderNotFoundException(long orderId, Throwable cause) {
+      super(cause);
+      this.orderId = orderId;
+    }
+
+    public long getOrderId() {
+      return orderId;
+    }
+  }
+
+}
@@ -0,0 +1,61 @@
+package com.zbiljic.resterror.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestErrorFactoryBenchmark {
+
+  private HttpStatus status = HttpStatus.NOT_FOUND;
+  private String message = "Resource could not be found";
+
+  @Benchmark
+  public RestError builder() {
+    return RestErrorFactory.builder()
+        .withStatus(status)
+        .withCode(40401)
+        .withMessage(message)
+        .withDeveloperMessage(message)
+        .withMoreInfoUrl("https://example.org/errors/40401")
+        .build();
+  }
+
+  @Benchmark
+  public RestError builderWithStatusCode() {
+    return RestErrorFactory.builder()
+        .withStatus(404)
+        .build();
+  }
+
+  @Benchmark
+  public RestError valueOf() {
+    return RestErrorFactory.valueOf(status);
+  }
+
+  @Benchmark
+  public RestError valueOfWithMessage() {
+    return RestErrorFactory.valueOf(status, message);
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.zbiljic.resterror.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+import com.zbiljic.resterror.jackson.RestErrorModule;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestErrorModuleBenchmark {
+
+  @Param({"MIX_IN", "STREAMING"})
+  private RestErrorModule.Binding binding;
+
+  private ObjectMapper mapper;
+  private RestError error;
+  private byte[] json;
+
+  @Setup
+  public void setup() throws IOException {
+    mapper = new ObjectMapper().registerModule(new RestErrorModule(binding));
+    error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+        .withCode(50301)
+        .withMessage("The service is temporarily unavailable.")
+        .withDeveloperMessage("Downstream dependency 'inventory' did not respond in time.")
+        .withMoreInfoUrl("https://example.org/errors/50301")
+        .build();
+    json = mapper.writeValueAsBytes(error);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    return mapper.writeValueAsBytes(error);
+  }
+
+  @Benchmark
+  public RestError deserialize() throws IOException {
+    return mapper.readValue(json, RestError.class);
+  }
+
+  @Benchmark
+  public RestError roundTrip() throws IOException {
+    return mapper.readValue(mapper.writeValueAsBytes(error), RestError.class);
+  }
+
+}
@@ -0,0 +1,124 @@
+package com.zbiljic.resterror.ws.rs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+
+import com.zbiljic.resterror.mapping.CauseUnwrapping;
+
+/**
+ * Maps failures of asynchronous resources with the mappings of a {@link RestErrorExceptionMapper},
+ * without waiting for them on the request thread.
+ *
+ * The values of the request needed for mapping (the acceptable media types, and the values used
+ * by {@code {request.*}} message placeholders) are captured when a stage is attached, which must
+ * be done on the thread handling the request. The failure is then mapped on the thread which
+ * completes the stage, or on the given executor. Mapping does not depend on thread-local state nor
+ * hold any locks, so any executor can be used, including one running tasks in virtual threads.
+ *
+ * Wrapper exceptions, such as the {@link java.util.concurrent.CompletionException} the failures
+ * of dependent stages are wrapped in, are unwrapped as configured in the mapper; see {@link
+ * CauseUnwrapping}.
+ *
+ * <pre>
+ * &#64;GET
+ * public void getOrder(&#64;PathParam("id") long id, &#64;Suspended AsyncResponse asyncResponse) {
+ *   asyncMapper.resume(orders.find(id), asyncResponse);
+ * }
+ * </pre>
+ *
+ * @author Nemanja Zbiljic
+ */
+public final class AsyncRestErrorMapper {
+  private static final Logger log = LoggerFactory.getLogger(AsyncRestErrorMapper.class);
+
+  private final RestErrorExceptionMapper mapper;
+
+  /**
+   * @param mapper the mapper whose mappings are used. It must be the instance registered with the
+   *               JAX-RS runtime, or otherwise have the request context injected, for the request
+   *               values to be available.
+   */
+  public AsyncRestErrorMapper(RestErrorExceptionMapper mapper) {
+    if (mapper == null) {
+      throw new IllegalArgumentException("Mapper cannot be null");
+    }
+    this.mapper = mapper;
+  }
+
+  /**
+   * Resumes the response with the result of the stage once it completes: with its value if it
+   * completes normally, and with the mapped error response if it fails.
+   *
+   * @param stage         the stage producing the response entity (or the {@link Response})
+   * @param asyncResponse the suspended response
+   */
+  public <T> void resume(CompletionStage<T> stage, AsyncResponse asyncResponse) {
+    RequestSnapshot request = mapper.snapshotRequest();
+    stage.whenComplete((value, failure) -> resume(asyncResponse, request, value, failure));
+  }
+
+  /**
+   * Same as {@link #resume(CompletionStage, AsyncResponse)}, but resumes the response on the given
+   * executor.
+   */
+  public <T> void resume(CompletionStage<T> stage, AsyncResponse asyncResponse, Executor executor) {
+    RequestSnapshot request = mapper.snapshotRequest();
+    stage.whenCompleteAsync((value, failure) -> resume(asyncResponse, request, value, failure), executor);
+  }
+
+  /**
+   * Resumes the response with the error response the given exception is mapped to.
+   */
+  public void resume(Throwable t, AsyncResponse asyncResponse) {
+    asyncResponse.resume(toResponse(t, mapper.snapshotRequest()));
+  }
+
+  /**
+   * Returns stage which completes with the response of the given stage: a {@code 200 OK} response
+   * with its value (or the value itself, if it is a {@link Response}) if it completes normally,
+   * and the mapped error response if it fails. The returned stage never fails.
+   *
+   * @param stage the stage producing the response entity (or the {@link Response})
+   */
+  public <T> CompletionStage<Response> toResponse(CompletionStage<T> stage) {
+    RequestSnapshot request = mapper.snapshotRequest();
+    return stage.handle((value, failure) -> failure == null ? toResponse(value) : toResponse(failure, request));
+  }
+
+  /**
+   * Same as {@link #toResponse(CompletionStage)}, but maps the result on the given executor.
+   */
+  public <T> CompletionStage<Response> toResponse(CompletionStage<T> stage, Executor executor) {
+    RequestSnapshot request = mapper.snapshotRequest();
+    return stage.handleAsync((value, failure) -> failure == null ? toResponse(value) : toResponse(failure, request), executor);
+  }
+
+  private void resume(AsyncResponse asyncResponse, RequestSnapshot request, Object value, Throwable failure) {
+    if (failure == null) {
+      asyncResponse.resume(value);
+    } else {
+      asyncResponse.resume(toResponse(failure, request));
+    }
+  }
+
+  private static Response toResponse(Object value) {
+    return value instanceof Response ? (Response) value : Response.ok(value).build();
+  }
+
+  private Response toResponse(Throwable t, RequestSnapshot request) {
+    try {
+      return mapper.toResponse(t, request.getAcceptableMediaTypes(), request);
+    } catch (RuntimeException e) {
+      // the response must be resumed even if the mapping fails
+      log.error("Failed to map [{}] to a response", t.getClass().getName(), e);
+      return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
+}
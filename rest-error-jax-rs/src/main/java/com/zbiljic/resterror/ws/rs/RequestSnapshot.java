@@ -0,0 +1,57 @@
+package com.zbiljic.resterror.ws.rs;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.MediaType;
+
+import com.zbiljic.resterror.mapping.RequestContext;
+
+/**
+ * Values of a request needed to map an exception to a response, captured on the request thread so
+ * that the exception can be mapped on any other thread, after the request scope is gone. Only the
+ * request headers used by the message placeholders are captured, with multiple values joined with
+ * commas.
+ *
+ * @author Nemanja Zbiljic
+ */
+final class RequestSnapshot implements RequestContext {
+
+  static final RequestSnapshot EMPTY = new RequestSnapshot(null, null, null, Collections.<MediaType>emptyList());
+
+  private final String method;
+  private final String path;
+  private final Map<String, String> headers;
+  private final List<MediaType> acceptableMediaTypes;
+
+  RequestSnapshot(String method,
+                  String path,
+                  Map<String, String> headers,
+                  List<MediaType> acceptableMediaTypes) {
+    this.method = method;
+    this.path = path;
+    this.headers = headers;
+    this.acceptableMediaTypes = acceptableMediaTypes;
+  }
+
+  @Override
+  public String getMethod() {
+    return method;
+  }
+
+  @Override
+  public String getPath() {
+    return path;
+  }
+
+  @Override
+  public String getHeader(String name) {
+    return headers == null ? null : headers.get(name);
+  }
+
+  List<MediaType> getAcceptableMediaTypes() {
+    return acceptableMediaTypes;
+  }
+
+}
@@ -1,42 +1,125 @@
 package com.zbiljic.resterror.ws.rs;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
 
 import com.zbiljic.resterror.RestError;
-import com.zbiljic.resterror.RestErrorBuilder;
 import com.zbiljic.resterror.RestErrorFactory;
-import com.zbiljic.resterror.ws.rs.lang.Classes;
-import com.zbiljic.resterror.ws.rs.lang.OrderPreservingProperties;
-import com.zbiljic.resterror.ws.rs.lang.Strings;
+import com.zbiljic.resterror.RestErrorRegistry;
+import com.zbiljic.resterror.RestErrorWithHeaders;
+import com.zbiljic.resterror.mapping.CauseUnwrapping;
+import com.zbiljic.resterror.mapping.ExceptionMappingIndex;
+import com.zbiljic.resterror.mapping.OverloadShedding;
+import com.zbiljic.resterror.mapping.RequestContext;
+import com.zbiljic.resterror.mapping.RestErrorMetrics;
+import com.zbiljic.resterror.mapping.RestErrorResolver;
+import com.zbiljic.resterror.mapping.SampledExceptionLogger;
+import com.zbiljic.resterror.mapping.ThrowableRetention;
+import com.zbiljic.resterror.mapping.lang.Classes;
 
 /**
+ * Maps exceptions to {@code RestError} responses, with the exception mappings of a {@link
+ * RestErrorResolver}.
+ *
  * @author Nemanja Zbiljic
  */
 @Provider
 public class RestErrorExceptionMapper implements ExceptionMapper<Throwable> {
-  private static final Logger log = LoggerFactory.getLogger(RestErrorExceptionMapper.class);
 
-  public static final String DEFAULT_CONFIGURATION_FILE = "restErrors.properties";
+  public static final String DEFAULT_CONFIGURATION_FILE = RestErrorResolver.DEFAULT_CONFIGURATION_FILE;
 
   /** The default name of the exception attribute: "exception". */
-  public static final String DEFAULT_EXCEPTION_MESSAGE_VALUE = "_exmsg";
-  public static final String EXCEPTION_CONFIG_DELIMITER = "|";
+  public static final String DEFAULT_EXCEPTION_MESSAGE_VALUE = RestErrorResolver.DEFAULT_EXCEPTION_MESSAGE_VALUE;
+  public static final String EXCEPTION_CONFIG_DELIMITER = RestErrorResolver.EXCEPTION_CONFIG_DELIMITER;
+
+  /** RFC 7807 problem details media type: "application/problem+json". */
+  public static final String APPLICATION_PROBLEM_JSON = "application/problem+json";
+  public static final MediaType APPLICATION_PROBLEM_JSON_TYPE = new MediaType("application", "problem+json");
+
+  /** Smile media type: "application/x-jackson-smile". */
+  public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+  public static final MediaType APPLICATION_SMILE_TYPE = new MediaType("application", "x-jackson-smile");
+
+  /** CBOR media type: "application/cbor". */
+  public static final String APPLICATION_CBOR = "application/cbor";
+  public static final MediaType APPLICATION_CBOR_TYPE = new MediaType("application", "cbor");
+
+  /** The media types errors can be written in, in order of preference. */
+  private static final List<MediaType> SUPPORTED_MEDIA_TYPES = supportedMediaTypes();
+
+  /** Not referenced as a class, it requires the optional Jackson dependencies. */
+  private static final String REST_ERROR_MESSAGE_BODY_WRITER = "com.zbiljic.resterror.ws.rs.RestErrorMessageBodyWriter";
+
+  /** The default number of stack frames retained with {@link ThrowableRetention#SUMMARY}. */
+  public static final int DEFAULT_RETAINED_FRAMES = RestErrorResolver.DEFAULT_RETAINED_FRAMES;
+
+  /**
+   * Unwraps the exceptions of {@link CauseUnwrapping#DEFAULT}, and the {@link ProcessingException}
+   * used for wrapping by JAX-RS.
+   */
+  public static final CauseUnwrapping DEFAULT_CAUSE_UNWRAPPING = CauseUnwrapping.DEFAULT.withWrapperTypes(
+      Collections.<Class<? extends Throwable>>singletonList(ProcessingException.class));
+
+  private final RestErrorResolver resolver;
+
+  /** Whether a subclass overrides the deprecated {@link #getMessage(String, Throwable)}. */
+  private final boolean messageHookOverridden;
+
+  /**
+   * Whether {@link RestErrorMessageBodyWriter} is registered, or {@code null} until it is detected
+   * from the providers.
+   */
+  private volatile Boolean restErrorWriterRegistered;
+
+  @Context
+  private Providers providers;
+
+  @Context
+  private HttpHeaders httpHeaders;
 
-  private static final String REST_ERROR_PROPERTY = "restError";
-  private static final String BASE_MORE_INFO_URL_PROPERTY = REST_ERROR_PROPERTY + ".baseMoreInfoUrl";
+  @Context
+  private UriInfo uriInfo;
 
-  private Map<String, RestError> exceptionMappings = Collections.emptyMap();
+  @Context
+  private Request request;
+
+  private final RequestContext requestContext = new RequestContext() {
+    @Override
+    public String getMethod() {
+      Request request = RestErrorExceptionMapper.this.request;
+      return request == null ? null : request.getMethod();
+    }
+
+    @Override
+    public String getPath() {
+      UriInfo uriInfo = RestErrorExceptionMapper.this.uriInfo;
+      return uriInfo == null ? null : uriInfo.getPath();
+    }
+
+    @Override
+    public String getHeader(String name) {
+      HttpHeaders httpHeaders = RestErrorExceptionMapper.this.httpHeaders;
+      return httpHeaders == null ? null : httpHeaders.getHeaderString(name);
+    }
+  };
 
   public RestErrorExceptionMapper() {
     this(DEFAULT_CONFIGURATION_FILE);
@@ -47,116 +130,274 @@ public class RestErrorExceptionMapper implements ExceptionMapper<Throwable> {
   }
 
   public RestErrorExceptionMapper(InputStream configurationStream) {
-    OrderPreservingProperties props = new OrderPreservingProperties();
-    props.load(configurationStream);
-    this.exceptionMappings = toRestErrors(props);
+    this(configurationStream, RestErrorFactory.getRegistry());
   }
 
-  public <T extends Throwable> void register(Class<T> clazz, RestError restError) {
-    this.register(clazz.getName(), restError);
+  /**
+   * @param configurationStream the configuration
+   * @param registry            the registry of application errors, consulted for mappings which
+   *                            configure only the {@code code} of the error
+   */
+  public RestErrorExceptionMapper(InputStream configurationStream, RestErrorRegistry registry) {
+    this.messageHookOverridden = isOverridden("getMessage", String.class, Throwable.class);
+    this.resolver = new MapperResolver(configurationStream, registry);
+    this.resolver.setCauseUnwrapping(DEFAULT_CAUSE_UNWRAPPING);
   }
 
-  public void register(String className, RestError restError) {
-    synchronized (this) {
-      if (className == null) {
-        throw new IllegalArgumentException("Class name cannot be null");
-      }
-      Map<String, RestError> map = new LinkedHashMap<>(exceptionMappings);
-      map.put(className, restError);
-      this.exceptionMappings = Collections.unmodifiableMap(map);
+  /**
+   * Creates mapper which resolves exceptions with the given resolver, e.g. one shared with other
+   * integrations. The resolver is used as-is, including its {@link CauseUnwrapping}.
+   *
+   * The hooks of the mapper, {@link #getMessage(String, Throwable)} and {@link
+   * #retainThrowable(Throwable)}, are not called, the ones of the resolver are used instead.
+   *
+   * @param resolver the resolver of exceptions
+   */
+  public RestErrorExceptionMapper(RestErrorResolver resolver) {
+    if (resolver == null) {
+      throw new IllegalArgumentException("Resolver cannot be null");
     }
+    this.messageHookOverridden = false;
+    this.resolver = resolver;
   }
 
-  @Override
-  public Response toResponse(Throwable t) {
-    RestError error = getRestError(t);
-    if (error == null) {
-      return Response
-          .status(Response.Status.INTERNAL_SERVER_ERROR)
-          .build();
+  private boolean isOverridden(String methodName, Class<?>... parameterTypes) {
+    for (Class<?> type = getClass(); type != RestErrorExceptionMapper.class; type = type.getSuperclass()) {
+      try {
+        type.getDeclaredMethod(methodName, parameterTypes);
+        return true;
+      } catch (NoSuchMethodException e) {
+        // declared by a superclass, if at all
+      }
     }
-    return Response
-        .status(error.getStatus())
-        .type(MediaType.APPLICATION_JSON_TYPE)
-        .entity(error)
-        .build();
+    return false;
   }
 
-  private RestError getRestError(Throwable t) {
+  /**
+   * Returns the resolver of exceptions used by this mapper. All the mappings and the settings of
+   * this mapper are the ones of its resolver.
+   */
+  public RestErrorResolver getResolver() {
+    return resolver;
+  }
 
-    RestError template = getRestErrorTemplate(t);
-    if (template == null) {
-      return null;
-    }
+  /**
+   * @see RestErrorResolver#load(InputStream)
+   */
+  public void load(InputStream configurationStream) {
+    resolver.load(configurationStream);
+  }
 
-    RestErrorBuilder builder = RestErrorFactory.builder()
-        .withStatus(template.getStatus())
-        .withCode(template.getCode())
-        .withMoreInfoUrl(template.getMoreInfo())
-        .withThrowable(t);
+  public <T extends Throwable> void register(Class<T> clazz, RestError restError) {
+    resolver.register(clazz, restError);
+  }
 
-    String msg = getMessage(template.getMessage(), t);
-    if (msg != null) {
-      builder.withMessage(msg);
+  /**
+   * @see RestErrorResolver#register(Class, int)
+   */
+  public <T extends Throwable> void register(Class<T> clazz, int code) {
+    resolver.register(clazz, code);
+  }
+
+  public void register(String className, RestError restError) {
+    resolver.register(className, restError);
+  }
+
+  /**
+   * @see RestErrorResolver#registerAll(Map)
+   */
+  public void registerAll(Map<String, RestError> mappings) {
+    resolver.registerAll(mappings);
+  }
+
+  public RestErrorRegistry getRegistry() {
+    return resolver.getRegistry();
+  }
+
+  public ExceptionMappingIndex getExceptionMappings() {
+    return resolver.getExceptionMappings();
+  }
+
+  public void setExceptionMappings(ExceptionMappingIndex exceptionMappings) {
+    resolver.setExceptionMappings(exceptionMappings);
+  }
+
+  public ThrowableRetention getThrowableRetention() {
+    return resolver.getThrowableRetention();
+  }
+
+  public void setThrowableRetention(ThrowableRetention throwableRetention) {
+    resolver.setThrowableRetention(throwableRetention);
+  }
+
+  public int getRetainedFrames() {
+    return resolver.getRetainedFrames();
+  }
+
+  public void setRetainedFrames(int retainedFrames) {
+    resolver.setRetainedFrames(retainedFrames);
+  }
+
+  public RestErrorMetrics getMetrics() {
+    return resolver.getMetrics();
+  }
+
+  public void setMetrics(RestErrorMetrics metrics) {
+    resolver.setMetrics(metrics);
+  }
+
+  public SampledExceptionLogger getExceptionLogger() {
+    return resolver.getExceptionLogger();
+  }
+
+  public void setExceptionLogger(SampledExceptionLogger exceptionLogger) {
+    resolver.setExceptionLogger(exceptionLogger);
+  }
+
+  public CauseUnwrapping getCauseUnwrapping() {
+    return resolver.getCauseUnwrapping();
+  }
+
+  /**
+   * Sets which wrapper exceptions are unwrapped when looking for the exception mapping. Defaults
+   * to {@link #DEFAULT_CAUSE_UNWRAPPING}, unless the mapper is created with its own resolver.
+   *
+   * @see RestErrorResolver#setCauseUnwrapping(CauseUnwrapping)
+   */
+  public void setCauseUnwrapping(CauseUnwrapping causeUnwrapping) {
+    resolver.setCauseUnwrapping(causeUnwrapping);
+  }
+
+  public OverloadShedding getOverloadShedding() {
+    return resolver.getOverloadShedding();
+  }
+
+  /**
+   * Sets the shedding which switches the mapper into degraded mode while there are too many
+   * errors, in which responses carry the generic error of the mapped status.
+   *
+   * @see RestErrorResolver#setOverloadShedding(OverloadShedding)
+   */
+  public void setOverloadShedding(OverloadShedding overloadShedding) {
+    resolver.setOverloadShedding(overloadShedding);
+  }
+
+  /**
+   * Sets whether {@link RestErrorMessageBodyWriter} is registered, which writes errors as problem
+   * details, Smile and CBOR. Unless it is, errors are always sent as {@code application/json}, as
+   * other writers would write the flat format regardless of the media type. By default it is
+   * detected from the injected {@link Providers}.
+   */
+  public void setRestErrorWriterRegistered(boolean restErrorWriterRegistered) {
+    this.restErrorWriterRegistered = restErrorWriterRegistered;
+  }
+
+  private boolean isRestErrorWriterRegistered() {
+    Boolean registered = this.restErrorWriterRegistered;
+    if (registered == null) {
+      Providers providers = this.providers;
+      if (providers == null) {
+        // outside of a JAX-RS runtime, detected once injected
+        return false;
+      }
+      MessageBodyWriter<RestError> writer = providers.getMessageBodyWriter(
+          RestError.class, RestError.class, new Annotation[0], APPLICATION_PROBLEM_JSON_TYPE);
+      registered = writer != null && isRestErrorWriter(writer.getClass());
+      this.restErrorWriterRegistered = registered;
     }
-    msg = getMessage(template.getDeveloperMessage(), t);
-    if (msg != null) {
-      builder.withDeveloperMessage(msg);
+    return registered;
+  }
+
+  private static boolean isRestErrorWriter(Class<?> writerClass) {
+    for (Class<?> type = writerClass; type != null; type = type.getSuperclass()) {
+      if (type.getName().equals(REST_ERROR_MESSAGE_BODY_WRITER)) {
+        return true;
+      }
     }
+    return false;
+  }
 
-    return builder.build();
+  /**
+   * Captures the values of the current request needed to map exceptions, so that they can be
+   * mapped outside of the request scope. Must be called on the thread handling the request.
+   */
+  RequestSnapshot snapshotRequest() {
+    HttpHeaders httpHeaders = this.httpHeaders;
+    UriInfo uriInfo = this.uriInfo;
+    Request request = this.request;
+    if (httpHeaders == null && uriInfo == null && request == null) {
+      return RequestSnapshot.EMPTY;
+    }
+    return new RequestSnapshot(
+        request == null ? null : request.getMethod(),
+        uriInfo == null ? null : uriInfo.getPath(),
+        httpHeaders == null ? null : snapshotHeaders(httpHeaders),
+        httpHeaders == null ? Collections.<MediaType>emptyList() : httpHeaders.getAcceptableMediaTypes());
   }
 
-  private RestError getRestErrorTemplate(Throwable t) {
-    if (this.exceptionMappings.isEmpty()) {
-      return null;
+  private Map<String, String> snapshotHeaders(HttpHeaders httpHeaders) {
+    Set<String> names = resolver.getExceptionMappings().getRequestHeaderNames();
+    if (names.isEmpty()) {
+      return Collections.emptyMap();
     }
-    RestError template = null;
-    String dominantMapping = t.getClass().getName();
-    // try exact match first
-    if (this.exceptionMappings.containsKey(dominantMapping)) {
-      template = this.exceptionMappings.get(dominantMapping);
-    } else {
-      // find most likely error
-      dominantMapping = null;
-      int deepest = Integer.MAX_VALUE;
-      for (Map.Entry<String, RestError> entry : this.exceptionMappings.entrySet()) {
-        String key = entry.getKey();
-        int depth = getDepth(key, t);
-        if (depth >= 0 && depth < deepest) {
-          deepest = depth;
-          dominantMapping = key;
-          template = entry.getValue();
-        }
+    Map<String, String> headers = new HashMap<>();
+    for (String name : names) {
+      String value = httpHeaders.getHeaderString(name);
+      if (value != null) {
+        headers.put(name, value);
       }
     }
-    if (template != null && log.isDebugEnabled()) {
-      log.debug("Resolving to RestError template '{}' for exception of type [{}], based on exception mapping [{}]",
-          template, t.getClass().getName(), dominantMapping);
-    }
-    return template;
+    return headers;
   }
 
   /**
-   * Return the depth to the superclass matching.
+   * Maps the exception to a response, in the format negotiated from the {@code Accept} header of
+   * the current request.
+   */
+  @Override
+  public Response toResponse(Throwable t) {
+    HttpHeaders httpHeaders = this.httpHeaders;
+    List<MediaType> acceptableMediaTypes = httpHeaders == null
+        ? Collections.<MediaType>emptyList()
+        : httpHeaders.getAcceptableMediaTypes();
+    return toResponse(t, acceptableMediaTypes);
+  }
+
+  /**
+   * Maps the exception to a response. If {@link RestErrorMessageBodyWriter} is registered, the
+   * error is written as RFC 7807 problem details if {@value #APPLICATION_PROBLEM_JSON} is
+   * preferred over {@code application/json} by the acceptable media types, and in the flat {@code
+   * RestError} format otherwise. If the Jackson Smile or CBOR data format is on the classpath, the
+   * error is written in it when {@value #APPLICATION_SMILE} or {@value #APPLICATION_CBOR} is
+   * preferred, respectively. Without the writer, the error is always written as {@code
+   * application/json}. The headers of a {@link RestErrorWithHeaders} (e.g. {@code Retry-After})
+   * are added to the response.
    *
-   * 0 means ex matches exactly. Returns -1 if there's no match. Otherwise, returns depth. Lowest
-   * depth wins.
+   * @param t                    the exception to map
+   * @param acceptableMediaTypes the media types acceptable by the client, in order of preference
+   * @return the response
    */
-  protected int getDepth(String exceptionMapping, Throwable t) {
-    return getDepth(exceptionMapping, t.getClass(), 0);
+  public Response toResponse(Throwable t, List<MediaType> acceptableMediaTypes) {
+    return toResponse(t, acceptableMediaTypes, requestContext);
   }
 
-  private int getDepth(String exceptionMapping, Class exceptionClass, int depth) {
-    if (exceptionClass.getName().contains(exceptionMapping)) {
-      // Found it!
-      return depth;
+  Response toResponse(Throwable t, List<MediaType> acceptableMediaTypes, RequestContext requestContext) {
+    RestError error = resolver.resolve(t, requestContext);
+    if (error == null) {
+      return Response
+          .status(Response.Status.INTERNAL_SERVER_ERROR)
+          .build();
     }
-    // If we've gone as far as we can go and haven't found it...
-    if (exceptionClass.equals(Throwable.class)) {
-      return -1;
+    Response.ResponseBuilder builder = Response
+        .status(error.getStatus())
+        .type(isRestErrorWriterRegistered() ? selectMediaType(acceptableMediaTypes) : MediaType.APPLICATION_JSON_TYPE)
+        .entity(error);
+    if (error instanceof RestErrorWithHeaders) {
+      for (Map.Entry<String, String> header : ((RestErrorWithHeaders) error).getHeaders().entrySet()) {
+        builder.header(header.getKey(), header.getValue());
+      }
     }
-    return getDepth(exceptionMapping, exceptionClass.getSuperclass(), depth + 1);
+    return builder.build();
   }
 
   /**
@@ -165,179 +406,112 @@ public class RestErrorExceptionMapper implements ExceptionMapper<Throwable> {
    *
    * @return the response status message to return to the client, or {@code null} if no status
    * message should be returned.
+   * @deprecated the configured messages are compiled when they are loaded, and rendered by the
+   * resolver, see {@link RestErrorResolver#getMessage(String, String, Throwable)}. This method is
+   * only called if it is overridden, with the configured message, and not at all if the mapper is
+   * created with a given resolver. It compiles the given message on every call.
    */
+  @Deprecated
   protected String getMessage(String msg, Throwable t) {
-    if (msg != null) {
-      if (msg.equalsIgnoreCase(DEFAULT_EXCEPTION_MESSAGE_VALUE)) {
-        msg = t.getMessage();
-      }
-    }
-    return msg;
+    return RestErrorResolver.renderMessage(msg, t, requestContext);
   }
 
-  private static Map<String, RestError> toRestErrors(Map<String, String> propertiesMap) {
-    if (propertiesMap == null || propertiesMap.isEmpty()) {
-      return Collections.emptyMap();
-    }
-
-    final String baseMoreInfoUrl = getAndRemoveProperty(propertiesMap, BASE_MORE_INFO_URL_PROPERTY);
-
-    Map<String, RestError> map = new LinkedHashMap<>(propertiesMap.size());
-
-    for (Map.Entry<String, String> entry : propertiesMap.entrySet()) {
-      String key = entry.getKey();
-      String value = entry.getValue();
-      RestError template = postProcessRestErrorTemplate(toRestError(value), baseMoreInfoUrl);
-      map.put(key, template);
-    }
-
-    return Collections.unmodifiableMap(map);
+  /**
+   * Returns the throwable to retain in the produced error, according to the configured {@link
+   * ThrowableRetention}. Not called if the mapper is created with a given resolver, override {@link
+   * RestErrorResolver#retainThrowable(Throwable)} of that resolver instead.
+   */
+  protected Throwable retainThrowable(Throwable t) {
+    return getThrowableRetention().retain(t, getRetainedFrames());
   }
 
-  private static RestError postProcessRestErrorTemplate(RestError error, String baseMoreInfoUrl) {
-    RestErrorBuilder builder = RestErrorFactory.builderCopyOf(error);
-
-    if (error.getCode() <= 0) {
-      builder.withCode(error.getStatus());
-    }
-    if (error.getMessage() != null) {
-      if (error.getMessage().equalsIgnoreCase("null")
-          || error.getMessage().equalsIgnoreCase("off")) {
-        builder.withMessage(null);
-      }
-    }
-    if (error.getDeveloperMessage() != null) {
-      if (error.getDeveloperMessage().equalsIgnoreCase("null")
-          || error.getDeveloperMessage().equalsIgnoreCase("off")) {
-        builder.withDeveloperMessage(null);
+  private static MediaType selectMediaType(List<MediaType> acceptableMediaTypes) {
+    for (MediaType acceptable : acceptableMediaTypes) {
+      if (acceptable.isWildcardSubtype()) {
+        if (MediaType.APPLICATION_JSON_TYPE.isCompatible(acceptable)) {
+          return MediaType.APPLICATION_JSON_TYPE;
+        }
+        continue;
       }
-    }
-    if (error.getMoreInfo() == null && baseMoreInfoUrl != null) {
-      if (error.getCode() <= 0) {
-        builder.withMoreInfoUrl(String.format("%s%d", baseMoreInfoUrl, error.getStatus()));
-      } else {
-        builder.withMoreInfoUrl(String.format("%s%d", baseMoreInfoUrl, error.getCode()));
+      for (MediaType supported : SUPPORTED_MEDIA_TYPES) {
+        if (supported.isCompatible(acceptable)) {
+          return supported;
+        }
       }
     }
-
-    return builder.build();
+    return MediaType.APPLICATION_JSON_TYPE;
   }
 
-  private static RestError toRestError(String exceptionConfig) {
-    String[] values = Strings.delimitedListToStringArray(exceptionConfig, EXCEPTION_CONFIG_DELIMITER);
-    if (values == null || values.length == 0) {
-      throw new IllegalStateException("Invalid config mapping. Exception names must map to a string configuration.");
+  private static List<MediaType> supportedMediaTypes() {
+    List<MediaType> mediaTypes = new ArrayList<>();
+    mediaTypes.add(MediaType.APPLICATION_JSON_TYPE);
+    mediaTypes.add(APPLICATION_PROBLEM_JSON_TYPE);
+    if (isSmileAvailable()) {
+      mediaTypes.add(APPLICATION_SMILE_TYPE);
     }
-    if (values.length > 5) {
-      throw new IllegalStateException("Invalid config mapping. Mapped values must not contain more than 2 values (code=w, msg=x, devMsg=y, moreInfoUrl=z)");
+    if (isCborAvailable()) {
+      mediaTypes.add(APPLICATION_CBOR_TYPE);
     }
+    return Collections.unmodifiableList(mediaTypes);
+  }
+  /**
+   * Returns whether the Jackson Smile data format is on the classpath.
+   */
+  static boolean isSmileAvailable() {
+    return Classes.loadClass("com.fasterxml.jackson.dataformat.smile.SmileFactory") != null;
+  }
 
-    RestErrorBuilder builder = RestErrorFactory.builder();
-
-    boolean statusSet = false;
-    boolean codeSet = false;
-    boolean msgSet = false;
-    boolean devMsgSet = false;
-    boolean moreInfoUrlSet = false;
+  /**
+   * Returns whether the Jackson CBOR data format is on the classpath.
+   */
+  static boolean isCborAvailable() {
+    return Classes.loadClass("com.fasterxml.jackson.dataformat.cbor.CBORFactory") != null;
+  }
 
-    for (String value : values) {
 
-      String trimmedVal = value.trim();
+  /**
+   * Return the depth to the superclass matching.
+   *
+   * 0 means ex matches exactly. Returns -1 if there's no match. Otherwise, returns depth. Lowest
+   * depth wins.
+   *
+   * @deprecated No longer used for resolving mappings, see {@link ExceptionMappingIndex}.
+   */
+  @Deprecated
+  protected int getDepth(String exceptionMapping, Throwable t) {
+    return getDepth(exceptionMapping, t.getClass(), 0);
+  }
 
-      //check to see if the value is an explicitly named key/value pair:
-      String[] pair = Strings.split(trimmedVal, "=");
-      if (pair != null) {
-        //explicit attribute set:
-        String pairKey = Strings.trimWhitespace(pair[0]);
-        if (!Strings.hasText(pairKey)) {
-          pairKey = null;
-        }
-        String pairValue = Strings.trimWhitespace(pair[1]);
-        if (!Strings.hasText(pairValue)) {
-          pairValue = null;
-        }
-        if ("status".equalsIgnoreCase(pairKey)) {
-          int statusCode = getRequiredInt(pairKey, pairValue);
-          builder.withStatus(statusCode);
-          statusSet = true;
-        } else if ("code".equalsIgnoreCase(pairKey)) {
-          int code = getRequiredInt(pairKey, pairValue);
-          builder.withCode(code);
-          codeSet = true;
-        } else if ("msg".equalsIgnoreCase(pairKey)) {
-          builder.withMessage(pairValue);
-          msgSet = true;
-        } else if ("devMsg".equalsIgnoreCase(pairKey)) {
-          builder.withDeveloperMessage(pairValue);
-          devMsgSet = true;
-        } else if ("moreInfoUrl".equalsIgnoreCase(pairKey)) {
-          builder.withMoreInfoUrl(pairValue);
-          moreInfoUrlSet = true;
-        }
-      } else {
-        //not a key/value pair - use heuristics to determine what value is being set:
-        int val;
-        if (!statusSet) {
-          val = getInt("status", trimmedVal);
-          if (val > 0) {
-            builder.withStatus(val);
-            statusSet = true;
-            continue;
-          }
-        }
-        if (!codeSet) {
-          val = getInt("code", trimmedVal);
-          if (val > 0) {
-            builder.withCode(val);
-            codeSet = true;
-            continue;
-          }
-        }
-        if (!msgSet) {
-          builder.withMessage(trimmedVal);
-          msgSet = true;
-          continue;
-        }
-        if (!devMsgSet) {
-          builder.withDeveloperMessage(trimmedVal);
-          devMsgSet = true;
-          continue;
-        }
-        if (!moreInfoUrlSet) {
-          builder.withMoreInfoUrl(trimmedVal);
-          moreInfoUrlSet = true;
-          //noinspection UnnecessaryContinue
-          continue;
-        }
-      }
+  private int getDepth(String exceptionMapping, Class exceptionClass, int depth) {
+    if (exceptionClass.getName().contains(exceptionMapping)) {
+      // Found it!
+      return depth;
     }
-
-    return builder.build();
+    // If we've gone as far as we can go and haven't found it...
+    if (exceptionClass.equals(Throwable.class)) {
+      return -1;
+    }
+    return getDepth(exceptionMapping, exceptionClass.getSuperclass(), depth + 1);
   }
 
-  private static String getAndRemoveProperty(Map<String, String> propertiesMap, String key) {
-    String value = propertiesMap.get(key);
-    if (value != null) {
-      propertiesMap.remove(key);
+  /**
+   * Resolver of a mapper which creates its own, calling the hooks of the mapper.
+   */
+  private final class MapperResolver extends RestErrorResolver {
+
+    MapperResolver(InputStream configurationStream, RestErrorRegistry registry) {
+      super(configurationStream, registry);
     }
-    return value;
-  }
 
-  private static int getRequiredInt(String key, String value) {
-    try {
-      int anInt = Integer.parseInt(value);
-      return Math.max(-1, anInt);
-    } catch (NumberFormatException e) {
-      String msg = String.format("Configuration element '%s' requires an integer value.  The value specified: %s", key, value);
-      throw new IllegalArgumentException(msg, e);
+    @Override
+    @SuppressWarnings("deprecation")
+    protected String getMessage(String message, String rendered, Throwable t) {
+      return messageHookOverridden ? RestErrorExceptionMapper.this.getMessage(message, t) : rendered;
     }
-  }
 
-  private static int getInt(String key, String value) {
-    try {
-      return getRequiredInt(key, value);
-    } catch (IllegalArgumentException iae) {
-      return 0;
+    @Override
+    protected Throwable retainThrowable(Throwable t) {
+      return RestErrorExceptionMapper.this.retainThrowable(t);
     }
   }
 
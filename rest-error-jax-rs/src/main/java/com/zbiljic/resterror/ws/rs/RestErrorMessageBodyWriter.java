@@ -0,0 +1,115 @@
+package com.zbiljic.resterror.ws.rs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.jackson.CachingRestErrorWriter;
+import com.zbiljic.resterror.jackson.RestErrorFormat;
+import com.zbiljic.resterror.jackson.RestErrorModule;
+import com.zbiljic.resterror.jackson.RestErrorWriters;
+
+/**
+ * Writes {@link RestError} entities as JSON, or as RFC 7807 problem details when the media type is
+ * {@code application/problem+json}, reusing the serialized form of errors produced from the same
+ * template. Errors are also written as Smile or CBOR, if the respective Jackson data format is on
+ * the classpath, with the configuration of the given mapper.
+ *
+ * Requires {@code jackson-datatype-rest-error} on the classpath.
+ *
+ * @author Nemanja Zbiljic
+ * @see CachingRestErrorWriter
+ */
+@Provider
+@Produces({
+    MediaType.APPLICATION_JSON,
+    RestErrorExceptionMapper.APPLICATION_PROBLEM_JSON,
+    RestErrorExceptionMapper.APPLICATION_SMILE,
+    RestErrorExceptionMapper.APPLICATION_CBOR
+})
+public class RestErrorMessageBodyWriter implements MessageBodyWriter<RestError> {
+
+  private final CachingRestErrorWriter[] writers;
+  private final CachingRestErrorWriter smileWriter;
+  private final CachingRestErrorWriter cborWriter;
+
+  public RestErrorMessageBodyWriter() {
+    this(new ObjectMapper().registerModule(new RestErrorModule()));
+  }
+
+  public RestErrorMessageBodyWriter(ObjectMapper mapper) {
+    this(new RestErrorWriters(mapper));
+  }
+
+  public RestErrorMessageBodyWriter(RestErrorWriters writers) {
+    RestErrorFormat[] formats = RestErrorFormat.values();
+    this.writers = new CachingRestErrorWriter[formats.length];
+    for (RestErrorFormat format : formats) {
+      this.writers[format.ordinal()] =
+          new CachingRestErrorWriter(writers.writerFor(format), CachingRestErrorWriter.DEFAULT_MAX_ENTRIES);
+    }
+    this.smileWriter = RestErrorExceptionMapper.isSmileAvailable()
+        ? new CachingRestErrorWriter(writers.createSmileWriter(), CachingRestErrorWriter.DEFAULT_MAX_ENTRIES)
+        : null;
+    this.cborWriter = RestErrorExceptionMapper.isCborAvailable()
+        ? new CachingRestErrorWriter(writers.createCborWriter(), CachingRestErrorWriter.DEFAULT_MAX_ENTRIES)
+        : null;
+  }
+
+  @Override
+  public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return RestError.class.isAssignableFrom(type)
+        && (mediaType == null || writerFor(mediaType) != null);
+  }
+
+  @Override
+  public long getSize(RestError error, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    // deprecated since JAX-RS 2.0
+    return -1;
+  }
+
+  @Override
+  public void writeTo(RestError error,
+                      Class<?> type,
+                      Type genericType,
+                      Annotation[] annotations,
+                      MediaType mediaType,
+                      MultivaluedMap<String, Object> httpHeaders,
+                      OutputStream entityStream) throws IOException {
+    CachingRestErrorWriter writer = mediaType == null ? null : writerFor(mediaType);
+    if (writer == null) {
+      writer = writers[RestErrorFormat.REST_ERROR.ordinal()];
+    }
+    writer.writeValue(entityStream, error);
+  }
+
+  /**
+   * Returns the writer for the given media type, or {@code null} if it is not supported.
+   */
+  private CachingRestErrorWriter writerFor(MediaType mediaType) {
+    if (MediaType.APPLICATION_JSON_TYPE.isCompatible(mediaType)) {
+      return writers[RestErrorFormat.REST_ERROR.ordinal()];
+    }
+    if (RestErrorExceptionMapper.APPLICATION_PROBLEM_JSON_TYPE.isCompatible(mediaType)) {
+      return writers[RestErrorFormat.PROBLEM_DETAILS.ordinal()];
+    }
+    if (RestErrorExceptionMapper.APPLICATION_SMILE_TYPE.isCompatible(mediaType)) {
+      return smileWriter;
+    }
+    if (RestErrorExceptionMapper.APPLICATION_CBOR_TYPE.isCompatible(mediaType)) {
+      return cborWriter;
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,221 @@
+package com.zbiljic.resterror.ws.rs;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class AsyncRestErrorMapperTest {
+
+  private static final String CONFIGURATION =
+      "java.lang.IllegalArgumentException = 400 | _exmsg | {request.method} {request.path} ({request.header.X-Request-Id})\n" +
+      "java.lang.Throwable = 500\n";
+
+  @Test
+  public void testResumeWithValue() throws Exception {
+    final AsyncRestErrorMapper asyncMapper = new AsyncRestErrorMapper(mapper());
+    final RecordingAsyncResponse asyncResponse = new RecordingAsyncResponse();
+    final CompletableFuture<String> future = new CompletableFuture<>();
+
+    asyncMapper.resume(future, asyncResponse.proxy());
+    assertThat(asyncResponse.resumed.get(), nullValue());
+
+    future.complete("order");
+    assertThat(asyncResponse.resumed.get(), equalTo((Object) "order"));
+  }
+
+  @Test
+  public void testResumeWithMappedFailureOutsideOfRequest() throws Exception {
+    final RestErrorExceptionMapper mapper = mapper();
+    mapper.setRestErrorWriterRegistered(true);
+    injectRequest(mapper, Thread.currentThread());
+    final AsyncRestErrorMapper asyncMapper = new AsyncRestErrorMapper(mapper);
+    final RecordingAsyncResponse asyncResponse = new RecordingAsyncResponse();
+    final CompletableFuture<String> future = new CompletableFuture<>();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    try {
+      asyncMapper.resume(future.thenApply(value -> value), asyncResponse.proxy());
+      // fails on another thread, wrapped in CompletionException by the dependent stage
+      executor.submit(() -> future.completeExceptionally(new IllegalArgumentException("Unknown order"))).get();
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(asyncResponse.resumed.get(), instanceOf(Response.class));
+    final Response response = (Response) asyncResponse.resumed.get();
+    assertThat(response.getStatus(), equalTo(HttpStatus.BAD_REQUEST.value()));
+    assertThat(response.getMediaType(), equalTo(RestErrorExceptionMapper.APPLICATION_PROBLEM_JSON_TYPE));
+    final RestError error = (RestError) response.getEntity();
+    assertThat(error.getMessage(), equalTo("Unknown order"));
+    assertThat(error.getDeveloperMessage(), equalTo("GET orders/42 (abc)"));
+  }
+
+  @Test
+  public void testSnapshotCopiesUsedHeaders() throws Exception {
+    final RestErrorExceptionMapper mapper = mapper();
+    final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+    headers.put("X-Request-Id", new ArrayList<>(Arrays.asList("a", "b")));
+    headers.putSingle("Authorization", "secret");
+    injectRequest(mapper, Thread.currentThread(), headers);
+
+    final RequestSnapshot snapshot = mapper.snapshotRequest();
+    headers.putSingle("X-Request-Id", "c");
+
+    assertThat(snapshot.getHeader("X-Request-Id"), equalTo("a,b"));
+    assertThat(snapshot.getHeader("Authorization"), nullValue());
+  }
+
+  @Test
+  public void testResumeWhenMappingFails() throws Exception {
+    final AsyncRestErrorMapper asyncMapper = new AsyncRestErrorMapper(
+        new RestErrorExceptionMapper(new ByteArrayInputStream(CONFIGURATION.getBytes(StandardCharsets.UTF_8))) {
+          @Override
+          protected Throwable retainThrowable(Throwable t) {
+            throw new IllegalStateException("Cannot retain");
+          }
+        });
+    final RecordingAsyncResponse asyncResponse = new RecordingAsyncResponse();
+
+    asyncMapper.resume(new IllegalArgumentException(), asyncResponse.proxy());
+
+    assertThat(((Response) asyncResponse.resumed.get()).getStatus(), equalTo(HttpStatus.INTERNAL_SERVER_ERROR.value()));
+  }
+
+  @Test
+  public void testResumeOnExecutor() throws Exception {
+    final AsyncRestErrorMapper asyncMapper = new AsyncRestErrorMapper(mapper());
+    final RecordingAsyncResponse asyncResponse = new RecordingAsyncResponse();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final CompletableFuture<String> future = new CompletableFuture<>();
+
+    try {
+      asyncMapper.resume(future, asyncResponse.proxy(), executor);
+      future.completeExceptionally(new IllegalStateException());
+      executor.shutdown();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(((Response) asyncResponse.resumed.get()).getStatus(), equalTo(HttpStatus.INTERNAL_SERVER_ERROR.value()));
+  }
+
+  @Test
+  public void testToResponse() throws Exception {
+    final AsyncRestErrorMapper asyncMapper = new AsyncRestErrorMapper(mapper());
+    final Response created = Response.status(Response.Status.CREATED).build();
+
+    assertThat(asyncMapper.toResponse(CompletableFuture.completedFuture("order")).toCompletableFuture().get().getEntity(),
+        equalTo((Object) "order"));
+    assertThat(asyncMapper.toResponse(CompletableFuture.completedFuture(created)).toCompletableFuture().get(),
+        sameInstance(created));
+
+    final CompletableFuture<String> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalArgumentException("Unknown order"));
+    final CompletionStage<Response> response = asyncMapper.toResponse(failed.thenApply(value -> value));
+    assertThat(response.toCompletableFuture().get().getStatus(), equalTo(HttpStatus.BAD_REQUEST.value()));
+  }
+
+  private static RestErrorExceptionMapper mapper() {
+    return new RestErrorExceptionMapper(new ByteArrayInputStream(CONFIGURATION.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Injects request-scoped proxies, which are only usable on the given thread, same as in a JAX-RS
+   * runtime.
+   */
+  private static void injectRequest(RestErrorExceptionMapper mapper, Thread requestThread) throws Exception {
+    final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+    headers.putSingle("X-Request-Id", "abc");
+    injectRequest(mapper, requestThread, headers);
+  }
+
+  private static void injectRequest(RestErrorExceptionMapper mapper,
+                                    Thread requestThread,
+                                    MultivaluedMap<String, String> headers) throws Exception {
+    inject(mapper, "httpHeaders", requestScoped(HttpHeaders.class, requestThread, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "getHeaderString":
+          return headers.containsKey(args[0]) ? String.join(",", headers.get(args[0])) : null;
+        case "getAcceptableMediaTypes":
+          return Collections.singletonList(RestErrorExceptionMapper.APPLICATION_PROBLEM_JSON_TYPE);
+        default:
+          throw new UnsupportedOperationException(method.getName());
+      }
+    }));
+    inject(mapper, "uriInfo", requestScoped(UriInfo.class, requestThread, (proxy, method, args) -> "orders/42"));
+    inject(mapper, "request", requestScoped(Request.class, requestThread, (proxy, method, args) -> "GET"));
+  }
+
+  private static <T> T requestScoped(Class<T> type, Thread requestThread, InvocationHandler handler) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+      if (Thread.currentThread() != requestThread) {
+        throw new IllegalStateException("Not within a request scope");
+      }
+      return handler.invoke(proxy, method, args);
+    }));
+  }
+
+  private static void inject(Object target, String fieldName, Object value) throws Exception {
+    Field field = RestErrorExceptionMapper.class.getDeclaredField(fieldName);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+
+  /**
+   * Records the value the response is resumed with.
+   */
+  private static final class RecordingAsyncResponse implements InvocationHandler {
+
+    final AtomicReference<Object> resumed = new AtomicReference<>();
+
+    AsyncResponse proxy() {
+      return (AsyncResponse) Proxy.newProxyInstance(
+          AsyncResponse.class.getClassLoader(), new Class<?>[]{AsyncResponse.class}, this);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (method.getName().equals("resume")) {
+        return resumed.compareAndSet(null, args[0]);
+      }
+      throw new UnsupportedOperationException(method.getName());
+    }
+  }
+
+}
@@ -2,18 +2,52 @@ package com.zbiljic.resterror.ws.rs;
 
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
 
-import com.zbiljic.resterror.DefaultRestError;
 import com.zbiljic.resterror.RestError;
 import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.RestErrorRegistry;
+import com.zbiljic.resterror.TemplatedRestError;
 import com.zbiljic.resterror.http.HttpStatus;
+import com.zbiljic.resterror.mapping.CauseUnwrapping;
+import com.zbiljic.resterror.mapping.ExceptionMappingIndex;
+import com.zbiljic.resterror.mapping.InMemoryRestErrorMetrics;
+import com.zbiljic.resterror.mapping.ThrowableRetention;
+import com.zbiljic.resterror.mapping.ThrowableSummary;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.arrayWithSize;
 import static org.hamcrest.Matchers.isEmptyOrNullString;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.testng.Assert.assertEquals;
 
 /**
@@ -46,12 +80,12 @@ public class RestErrorExceptionMapperTest {
   @Test
   public void testPropertiesMapping() throws Exception {
     Response response;
-    DefaultRestError error;
+    TemplatedRestError error;
 
     // IllegalArgumentException
     response = mapper.toResponse(new IllegalArgumentException("Unknown file type"));
     assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
-    error = (DefaultRestError) response.getEntity();
+    error = (TemplatedRestError) response.getEntity();
     assertThat(error.getStatus(), equalTo(HttpStatus.BAD_REQUEST.value()));
     assertThat(error.getCode(), equalTo(HttpStatus.BAD_REQUEST.value()));
     assertThat(error.getMessage(), equalTo("Unknown file type"));
@@ -62,7 +96,7 @@ public class RestErrorExceptionMapperTest {
     // UnknownResourceException
     response = mapper.toResponse(new NotFoundException());
     assertEquals(response.getStatus(), Response.Status.NOT_FOUND.getStatusCode());
-    error = (DefaultRestError) response.getEntity();
+    error = (TemplatedRestError) response.getEntity();
     assertThat(error.getStatus(), equalTo(HttpStatus.NOT_FOUND.value()));
     assertThat(error.getCode(), equalTo(HttpStatus.NOT_FOUND.value()));
     assertThat(error.getMessage(), equalTo("The specified resource does not exist."));
@@ -71,4 +105,330 @@ public class RestErrorExceptionMapperTest {
     assertThat(error.getThrowable(), instanceOf(NotFoundException.class));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testRegisterInvalidatesResolvedMappings() throws Exception {
+    final RestErrorExceptionMapper mapper = new RestErrorExceptionMapper();
+
+    // resolved through the IllegalArgumentException mapping, twice to hit the cached resolution
+    assertEquals(mapper.toResponse(new NumberFormatException()).getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
+    assertEquals(mapper.toResponse(new NumberFormatException()).getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
+
+    mapper.register(NumberFormatException.class, RestErrorFactory.valueOf(HttpStatus.CONFLICT));
+    assertEquals(mapper.toResponse(new NumberFormatException()).getStatus(), Response.Status.CONFLICT.getStatusCode());
+  }
+
+  @Test
+  public void testThrowableRetention() throws Exception {
+    final RestErrorExceptionMapper mapper = new RestErrorExceptionMapper();
+    final IllegalArgumentException exception = new IllegalArgumentException("Unknown file type");
+    TemplatedRestError error;
+
+    mapper.setThrowableRetention(ThrowableRetention.NONE);
+    error = (TemplatedRestError) mapper.toResponse(exception).getEntity();
+    assertThat(error.getMessage(), equalTo("Unknown file type"));
+    assertThat(error.getThrowable(), nullValue());
+
+    mapper.setThrowableRetention(ThrowableRetention.CLASS_NAME);
+    error = (TemplatedRestError) mapper.toResponse(exception).getEntity();
+    assertThat(error.getThrowable(), instanceOf(ThrowableSummary.class));
+    assertThat(error.getThrowable().toString(), equalTo(IllegalArgumentException.class.getName()));
+    assertThat(error.getThrowable().getStackTrace(), arrayWithSize(0));
+
+    mapper.setThrowableRetention(ThrowableRetention.SUMMARY);
+    mapper.setRetainedFrames(2);
+    error = (TemplatedRestError) mapper.toResponse(exception).getEntity();
+    assertThat(error.getThrowable(), instanceOf(ThrowableSummary.class));
+    assertThat(((ThrowableSummary) error.getThrowable()).getThrowableClassName(), equalTo(IllegalArgumentException.class.getName()));
+    assertThat(error.getThrowable().toString(), equalTo(exception.toString()));
+    assertThat(error.getThrowable().getStackTrace(), arrayWithSize(2));
+    assertThat(error.getThrowable().getStackTrace()[0], equalTo(exception.getStackTrace()[0]));
+  }
+
+  @Test
+  public void testOverriddenThrowableRetention() throws Exception {
+    final RestErrorExceptionMapper mapper = new RestErrorExceptionMapper() {
+      @Override
+      protected Throwable retainThrowable(Throwable t) {
+        return t instanceof IllegalArgumentException ? null : super.retainThrowable(t);
+      }
+    };
+    final NotFoundException exception = new NotFoundException();
+
+    TemplatedRestError error = (TemplatedRestError) mapper.toResponse(new IllegalArgumentException()).getEntity();
+    assertThat(error.getThrowable(), nullValue());
+    error = (TemplatedRestError) mapper.toResponse(exception).getEntity();
+    assertThat(error.getThrowable(), sameInstance((Throwable) exception));
+  }
+
+  @Test
+  public void testRegisterAll() throws Exception {
+    final RestErrorExceptionMapper mapper = new RestErrorExceptionMapper();
+    final Map<String, RestError> mappings = new LinkedHashMap<>();
+    mappings.put(UnsupportedOperationException.class.getName(), RestErrorFactory.valueOf(HttpStatus.NOT_IMPLEMENTED));
+    mappings.put(IllegalStateException.class.getName(), RestErrorFactory.valueOf(HttpStatus.CONFLICT));
+
+    mapper.registerAll(mappings);
+
+    assertEquals(mapper.toResponse(new UnsupportedOperationException()).getStatus(), Response.Status.NOT_IMPLEMENTED.getStatusCode());
+    assertEquals(mapper.toResponse(new IllegalStateException()).getStatus(), Response.Status.CONFLICT.getStatusCode());
+  }
+
+  @Test
+  public void testConcurrentRegister() throws Exception {
+    final RestErrorExceptionMapper mapper = new RestErrorExceptionMapper();
+    final int before = mapper.getExceptionMappings().getMappings().size();
+    final int threads = 4;
+    final int mappingsPerThread = 50;
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      Future<?>[] futures = new Future<?>[threads];
+      for (int i = 0; i < threads; i++) {
+        final int thread = i;
+        futures[i] = executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            for (int j = 0; j < mappingsPerThread; j++) {
+              mapper.register("com.example.Thread" + thread + "Mapping" + j + "Exception", RestErrorFactory.valueOf(HttpStatus.CONFLICT));
+              mapper.toResponse(new IllegalStateException());
+            }
+            return null;
+          }
+        });
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(mapper.getExceptionMappings().getMappings().size(), before + threads * mappingsPerThread);
+  }
+
+  @Test
+  public void testMetrics() throws Exception {
+    RestErrorExceptionMapper mapper = new RestErrorExceptionMapper();
+    InMemoryRestErrorMetrics metrics = new InMemoryRestErrorMetrics();
+    mapper.setMetrics(metrics);
+
+    mapper.toResponse(new IllegalArgumentException());
+    mapper.toResponse(new IllegalArgumentException());
+    mapper.toResponse(new NotFoundException());
+
+    InMemoryRestErrorMetrics.Snapshot snapshot = metrics.snapshot();
+    assertEquals(snapshot.getCountsByStatus().get(400), Long.valueOf(2));
+    assertEquals(snapshot.getCountsByStatus().get(404), Long.valueOf(1));
+    assertEquals(snapshot.getCountsByMapping().get("java.lang.IllegalArgumentException"), Long.valueOf(2));
+    assertEquals(snapshot.getCacheHits(), 1);
+    assertEquals(snapshot.getCacheMisses(), 2);
+    assertEquals(snapshot.getUnmappedCount(), 0);
+
+    mapper.setExceptionMappings(ExceptionMappingIndex.EMPTY);
+    mapper.toResponse(new IllegalStateException());
+
+    snapshot = metrics.snapshot();
+    assertEquals(snapshot.getUnmappedCount(), 1);
+    assertEquals(snapshot.getUnmappedCountsByClass().get("java.lang.IllegalStateException"), Long.valueOf(1));
+    assertEquals(snapshot.getResolutionCount(), 4);
+  }
+
+  @Test
+  public void testMediaTypeNegotiation() throws Exception {
+    final RestErrorExceptionMapper mapper = new RestErrorExceptionMapper();
+    mapper.setRestErrorWriterRegistered(true);
+    MediaType problemJson = RestErrorExceptionMapper.APPLICATION_PROBLEM_JSON_TYPE;
+
+    assertEquals(mapper.toResponse(new IllegalArgumentException()).getMediaType(), MediaType.APPLICATION_JSON_TYPE);
+    assertEquals(mapper.toResponse(new IllegalArgumentException(), Arrays.asList(MediaType.WILDCARD_TYPE)).getMediaType(), MediaType.APPLICATION_JSON_TYPE);
+    assertEquals(mapper.toResponse(new IllegalArgumentException(), Arrays.asList(problemJson)).getMediaType(), problemJson);
+    assertEquals(mapper.toResponse(new IllegalArgumentException(), Arrays.asList(MediaType.APPLICATION_JSON_TYPE, problemJson)).getMediaType(), MediaType.APPLICATION_JSON_TYPE);
+    assertEquals(mapper.toResponse(new IllegalArgumentException(), Arrays.asList(MediaType.TEXT_HTML_TYPE, problemJson, MediaType.WILDCARD_TYPE)).getMediaType(), problemJson);
+    assertEquals(mapper.toResponse(new IllegalArgumentException(), Arrays.asList(RestErrorExceptionMapper.APPLICATION_SMILE_TYPE)).getMediaType(), RestErrorExceptionMapper.APPLICATION_SMILE_TYPE);
+    assertEquals(mapper.toResponse(new IllegalArgumentException(), Arrays.asList(RestErrorExceptionMapper.APPLICATION_CBOR_TYPE, MediaType.APPLICATION_JSON_TYPE)).getMediaType(), RestErrorExceptionMapper.APPLICATION_CBOR_TYPE);
+  }
+
+  @Test
+  public void testMediaTypeNegotiationRequiresRestErrorWriter() throws Exception {
+    final List<MediaType> problemJson = Arrays.asList(RestErrorExceptionMapper.APPLICATION_PROBLEM_JSON_TYPE);
+
+    // not injected
+    assertEquals(mapper.toResponse(new IllegalArgumentException(), problemJson).getMediaType(), MediaType.APPLICATION_JSON_TYPE);
+
+    RestErrorExceptionMapper mapper = new RestErrorExceptionMapper();
+    injectProviders(mapper, new FlatWriter());
+    assertEquals(mapper.toResponse(new IllegalArgumentException(), problemJson).getMediaType(), MediaType.APPLICATION_JSON_TYPE);
+
+    mapper = new RestErrorExceptionMapper();
+    injectProviders(mapper, new RestErrorMessageBodyWriter());
+    assertEquals(mapper.toResponse(new IllegalArgumentException(), problemJson).getMediaType(),
+        RestErrorExceptionMapper.APPLICATION_PROBLEM_JSON_TYPE);
+
+    mapper.setRestErrorWriterRegistered(false);
+    assertEquals(mapper.toResponse(new IllegalArgumentException(), problemJson).getMediaType(), MediaType.APPLICATION_JSON_TYPE);
+  }
+
+  @Test
+  public void testRegistryMapping() throws Exception {
+    final RestError registered = RestErrorFactory.builder()
+        .withStatus(HttpStatus.CONFLICT)
+        .withCode(40901)
+        .withMessage("Resource already exists")
+        .withMoreInfoUrl("http://example.com/errors/40901")
+        .build();
+    final RestErrorRegistry registry = RestErrorRegistry.builder().add(registered).build();
+    final String config = "java.lang.IllegalStateException=code=40901|msg=Already exists\n";
+    final RestErrorExceptionMapper mapper = new RestErrorExceptionMapper(
+        new ByteArrayInputStream(config.getBytes(StandardCharsets.UTF_8)), registry);
+
+    Response response = mapper.toResponse(new IllegalStateException());
+    assertEquals(response.getStatus(), HttpStatus.CONFLICT.value());
+    RestError error = (RestError) response.getEntity();
+    assertThat(error.getCode(), equalTo(40901));
+    assertThat(error.getMessage(), equalTo("Already exists"));
+    assertThat(error.getMoreInfo(), equalTo("http://example.com/errors/40901"));
+
+    mapper.register(UnsupportedOperationException.class, 40901);
+    response = mapper.toResponse(new UnsupportedOperationException());
+    assertEquals(response.getStatus(), HttpStatus.CONFLICT.value());
+    assertThat(((RestError) response.getEntity()).getMessage(), equalTo("Resource already exists"));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testRegisterUnknownCode() {
+    new RestErrorExceptionMapper().register(IllegalStateException.class, 40999);
+  }
+
+  @Test
+  public void testMessageTemplates() throws Exception {
+    final String config = OrderNotFoundException.class.getName()
+        + "=404|Order {orderId} not found.|{cause.message}\n";
+    final RestErrorExceptionMapper mapper = new RestErrorExceptionMapper(
+        new ByteArrayInputStream(config.getBytes(StandardCharsets.UTF_8)));
+
+    final Response response = mapper.toResponse(
+        new OrderNotFoundException(42, new IllegalStateException("Order archived")));
+    assertEquals(response.getStatus(), HttpStatus.NOT_FOUND.value());
+    final RestError error = (RestError) response.getEntity();
+    assertThat(error.getMessage(), equalTo("Order 42 not found."));
+    assertThat(error.getDeveloperMessage(), equalTo("Order archived"));
+  }
+
+  @Test
+  public void testOverriddenMessageHook() throws Exception {
+    final String config = OrderNotFoundException.class.getName() + "=404|Order {orderId} not found.|_exmsg\n";
+    final RestErrorExceptionMapper mapper = new RestErrorExceptionMapper(
+        new ByteArrayInputStream(config.getBytes(StandardCharsets.UTF_8))) {
+      @Override
+      @SuppressWarnings("deprecation")
+      protected String getMessage(String msg, Throwable t) {
+        return msg.startsWith("Order") ? "Order not found." : super.getMessage(msg, t);
+      }
+    };
+
+    final RestError error = (RestError) mapper.toResponse(new OrderNotFoundException(42, null)).getEntity();
+    assertThat(error.getMessage(), equalTo("Order not found."));
+    assertThat(error.getDeveloperMessage(), equalTo("Order 42 not found"));
+  }
+
+  @Test
+  public void testResponseHeaders() throws Exception {
+    final String config = "java.util.concurrent.RejectedExecutionException="
+        + "429|Too many requests|retryAfter=30|header.RateLimit-Limit=100|header.RateLimit-Remaining=0\n";
+    final RestErrorExceptionMapper mapper = new RestErrorExceptionMapper(
+        new ByteArrayInputStream(config.getBytes(StandardCharsets.UTF_8)));
+
+    final Response response = mapper.toResponse(new RejectedExecutionException());
+    assertEquals(response.getStatus(), HttpStatus.TOO_MANY_REQUESTS.value());
+    assertThat(response.getHeaderString("Retry-After"), equalTo("30"));
+    assertThat(response.getHeaderString("RateLimit-Limit"), equalTo("100"));
+    assertThat(response.getHeaderString("RateLimit-Remaining"), equalTo("0"));
+    assertThat(((RestError) response.getEntity()).getMessage(), equalTo("Too many requests"));
+
+    assertThat(this.mapper.toResponse(new IllegalArgumentException()).getHeaderString("Retry-After"), nullValue());
+  }
+
+  @Test
+  public void testCauseUnwrapping() throws Exception {
+    final RestErrorExceptionMapper mapper = new RestErrorExceptionMapper();
+    final IllegalArgumentException cause = new IllegalArgumentException("Unknown file type");
+
+    Response response = mapper.toResponse(new CompletionException(new ExecutionException(cause)));
+    assertEquals(response.getStatus(), HttpStatus.BAD_REQUEST.value());
+    TemplatedRestError error = (TemplatedRestError) response.getEntity();
+    assertThat(error.getMessage(), equalTo("Unknown file type"));
+    assertThat(error.getThrowable(), sameInstance((Throwable) cause));
+
+    // the wrapper is mapped more closely than its cause
+    assertThat(mapper.getCauseUnwrapping(), sameInstance(RestErrorExceptionMapper.DEFAULT_CAUSE_UNWRAPPING));
+    response = mapper.toResponse(new ProcessingException(new IOException()));
+    assertEquals(response.getStatus(), 422);
+
+    mapper.setCauseUnwrapping(CauseUnwrapping.NONE);
+    response = mapper.toResponse(new CompletionException(cause));
+    assertEquals(response.getStatus(), HttpStatus.INTERNAL_SERVER_ERROR.value());
+  }
+
+  @Test
+  public void testCauseUnwrappingLimits() throws Exception {
+    final RestErrorExceptionMapper mapper = new RestErrorExceptionMapper();
+
+    // cycles are followed only once
+    final CompletionException first = new CompletionException("first") {
+    };
+    final ExecutionException second = new ExecutionException(first);
+    first.initCause(second);
+    assertEquals(mapper.toResponse(first).getStatus(), HttpStatus.INTERNAL_SERVER_ERROR.value());
+
+    // causes beyond the maximum depth are not mapped
+    mapper.setCauseUnwrapping(CauseUnwrapping.of(1, Arrays.<Class<? extends Throwable>>asList(CompletionException.class)));
+    assertEquals(mapper.toResponse(new CompletionException(new IllegalArgumentException())).getStatus(),
+        HttpStatus.BAD_REQUEST.value());
+    assertEquals(mapper.toResponse(new CompletionException(new CompletionException(new IllegalArgumentException()))).getStatus(),
+        HttpStatus.INTERNAL_SERVER_ERROR.value());
+  }
+
+  private static void injectProviders(RestErrorExceptionMapper mapper, MessageBodyWriter<?> writer) throws Exception {
+    final Field field = RestErrorExceptionMapper.class.getDeclaredField("providers");
+    field.setAccessible(true);
+    field.set(mapper, Proxy.newProxyInstance(Providers.class.getClassLoader(), new Class<?>[]{Providers.class},
+        (proxy, method, args) -> method.getName().equals("getMessageBodyWriter") ? writer : null));
+  }
+
+  /**
+   * Writer of the flat format only, such as the JSON provider of Jackson.
+   */
+  private static final class FlatWriter implements MessageBodyWriter<Object> {
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+      return true;
+    }
+
+    @Override
+    public long getSize(Object o, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+      return -1;
+    }
+
+    @Override
+    public void writeTo(Object o, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  public static class OrderNotFoundException extends RuntimeException {
+
+    private final long orderId;
+
+    public OrderNotFoundException(long orderId, Throwable cause) {
+      super("Order " + orderId + " not found", cause);
+      this.orderId = orderId;
+    }
+
+    public long getOrderId() {
+      return orderId;
+    }
+  }
+
+}
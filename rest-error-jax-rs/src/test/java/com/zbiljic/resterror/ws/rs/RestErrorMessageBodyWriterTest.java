@@ -0,0 +1,101 @@
+package com.zbiljic.resterror.ws.rs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+
+import javax.ws.rs.core.MediaType;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+import com.zbiljic.resterror.jackson.RestErrorMappers;
+import com.zbiljic.resterror.jackson.RestErrorModule;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorMessageBodyWriterTest {
+
+  private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+  private final RestErrorMessageBodyWriter writer = new RestErrorMessageBodyWriter();
+
+  @Test
+  public void testIsWriteable() {
+    assertTrue(writer.isWriteable(RestError.class, RestError.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE));
+    assertFalse(writer.isWriteable(String.class, String.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE));
+    assertTrue(writer.isWriteable(RestError.class, RestError.class, NO_ANNOTATIONS, RestErrorExceptionMapper.APPLICATION_PROBLEM_JSON_TYPE));
+    assertFalse(writer.isWriteable(RestError.class, RestError.class, NO_ANNOTATIONS, MediaType.APPLICATION_XML_TYPE));
+  }
+
+  @Test
+  public void testWriteTo() throws IOException {
+    final RestError error = RestErrorFactory.valueOf(HttpStatus.TOO_MANY_REQUESTS);
+
+    assertThat(write(error), equalTo("{\"status\":429,\"code\":429,\"message\":\"Too Many Requests\",\"moreInfo\":\"http://httpstatus.es/429\"}"));
+    // served from the cache
+    assertThat(write(error), equalTo("{\"status\":429,\"code\":429,\"message\":\"Too Many Requests\",\"moreInfo\":\"http://httpstatus.es/429\"}"));
+  }
+
+  @Test
+  public void testWriteToProblemDetails() throws IOException {
+    final RestError error = RestErrorFactory.valueOf(HttpStatus.TOO_MANY_REQUESTS);
+
+    assertThat(write(error, RestErrorExceptionMapper.APPLICATION_PROBLEM_JSON_TYPE),
+        equalTo("{\"type\":\"http://httpstatus.es/429\",\"title\":\"Too Many Requests\",\"status\":429,\"detail\":\"Too Many Requests\",\"code\":429}"));
+  }
+
+  @Test
+  public void testWriteToBinaryFormats() throws IOException {
+    final RestError error = RestErrorFactory.valueOf(HttpStatus.TOO_MANY_REQUESTS);
+
+    assertTrue(writer.isWriteable(RestError.class, RestError.class, NO_ANNOTATIONS, RestErrorExceptionMapper.APPLICATION_SMILE_TYPE));
+    assertTrue(writer.isWriteable(RestError.class, RestError.class, NO_ANNOTATIONS, RestErrorExceptionMapper.APPLICATION_CBOR_TYPE));
+
+    byte[] smile = writeBytes(error, RestErrorExceptionMapper.APPLICATION_SMILE_TYPE);
+    assertThat(RestErrorMappers.smile().readValue(smile, RestError.class), equalTo(error));
+    byte[] cbor = writeBytes(error, RestErrorExceptionMapper.APPLICATION_CBOR_TYPE);
+    assertThat(RestErrorMappers.cbor().readValue(cbor, RestError.class), equalTo(error));
+  }
+
+  @Test
+  public void testBinaryFormatsUseConfigurationOfMapper() throws IOException {
+    final RestErrorMessageBodyWriter writer = new RestErrorMessageBodyWriter(
+        new ObjectMapper().registerModule(new RestErrorModule()).enable(SerializationFeature.WRAP_ROOT_VALUE));
+    final RestError error = RestErrorFactory.valueOf(HttpStatus.TOO_MANY_REQUESTS);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.writeTo(error, error.getClass(), error.getClass(), NO_ANNOTATIONS, RestErrorExceptionMapper.APPLICATION_SMILE_TYPE, null, out);
+    final JsonNode tree = RestErrorMappers.smile().readTree(out.toByteArray());
+    assertThat(tree.size(), equalTo(1));
+    assertThat(tree.elements().next().get("status").asInt(), equalTo(429));
+  }
+
+  private String write(RestError error) throws IOException {
+    return write(error, MediaType.APPLICATION_JSON_TYPE);
+  }
+
+  private String write(RestError error, MediaType mediaType) throws IOException {
+    return new String(writeBytes(error, mediaType), StandardCharsets.UTF_8);
+  }
+
+  private byte[] writeBytes(RestError error, MediaType mediaType) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.writeTo(error, error.getClass(), error.getClass(), NO_ANNOTATIONS, mediaType, null, out);
+    return out.toByteArray();
+  }
+
+}
@@ -0,0 +1,140 @@
+package com.zbiljic.resterror.mapping;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Defines which exceptions are only wrappers of the actual exceptions, and are unwrapped by {@link
+ * RestErrorResolver} when looking for the exception mapping.
+ *
+ * The cause chain of a wrapper is followed through {@link Throwable#getCause()} for as long as the
+ * exceptions are wrappers, up to the maximum depth, and stops at the first exception seen
+ * before. Each exception of the chain, wrappers included, can then be mapped; see {@link
+ * ExceptionMappingIndex#findInCauseChain(List)} for which mapping wins. Instances are immutable.
+ *
+ * @author Nemanja Zbiljic
+ */
+public final class CauseUnwrapping {
+
+  /** The default maximum number of causes followed: 8. */
+  public static final int DEFAULT_MAX_DEPTH = 8;
+
+  /** Does not unwrap any exception. */
+  public static final CauseUnwrapping NONE = new CauseUnwrapping(Collections.<Class<? extends Throwable>>emptySet(), 0);
+
+  /**
+   * Unwraps the exceptions used for wrapping by the JDK: {@link ExecutionException}, {@link
+   * CompletionException} and {@link UndeclaredThrowableException}. Framework integrations add the
+   * wrappers of their framework, see {@link #withWrapperTypes(Collection)}.
+   */
+  public static final CauseUnwrapping DEFAULT = of(DEFAULT_MAX_DEPTH, Arrays.<Class<? extends Throwable>>asList(
+      ExecutionException.class,
+      CompletionException.class,
+      UndeclaredThrowableException.class));
+
+  private final Set<Class<? extends Throwable>> wrapperTypes;
+  private final Class<?>[] wrapperTypeArray;
+  private final int maxDepth;
+
+  private CauseUnwrapping(Set<Class<? extends Throwable>> wrapperTypes, int maxDepth) {
+    this.wrapperTypes = wrapperTypes;
+    this.wrapperTypeArray = wrapperTypes.toArray(new Class<?>[wrapperTypes.size()]);
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * @param maxDepth     the maximum number of causes followed
+   * @param wrapperTypes the types of the wrapper exceptions, subclasses included
+   * @return new unwrapping configuration
+   */
+  public static CauseUnwrapping of(int maxDepth, Collection<Class<? extends Throwable>> wrapperTypes) {
+    if (maxDepth < 0) {
+      throw new IllegalArgumentException("Maximum depth cannot be negative");
+    }
+    for (Class<? extends Throwable> wrapperType : wrapperTypes) {
+      if (wrapperType == null) {
+        throw new IllegalArgumentException("Wrapper type cannot be null");
+      }
+    }
+    return new CauseUnwrapping(Collections.unmodifiableSet(new LinkedHashSet<>(wrapperTypes)), maxDepth);
+  }
+
+  /**
+   * Returns new unwrapping configuration with the same maximum depth, which also unwraps the given
+   * types.
+   */
+  public CauseUnwrapping withWrapperTypes(Collection<Class<? extends Throwable>> wrapperTypes) {
+    List<Class<? extends Throwable>> types = new ArrayList<>(this.wrapperTypes);
+    types.addAll(wrapperTypes);
+    return of(maxDepth, types);
+  }
+
+  public Set<Class<? extends Throwable>> getWrapperTypes() {
+    return wrapperTypes;
+  }
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Returns whether the given exception is a wrapper with a cause, i.e. whether it has a cause
+   * chain to look into.
+   */
+  public boolean isWrapping(Throwable t) {
+    return maxDepth > 0 && isWrapper(t) && t.getCause() != null;
+  }
+
+  private boolean isWrapper(Throwable t) {
+    for (Class<?> wrapperType : wrapperTypeArray) {
+      if (wrapperType.isInstance(t)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the cause chain of the given exception, starting with the exception itself.
+   */
+  public List<Throwable> causeChain(Throwable t) {
+    List<Throwable> chain = new ArrayList<>(4);
+    chain.add(t);
+    Throwable current = t;
+    while (chain.size() <= maxDepth && isWrapper(current)) {
+      Throwable cause = current.getCause();
+      if (cause == null || containsIdentical(chain, cause)) {
+        break;
+      }
+      chain.add(cause);
+      current = cause;
+    }
+    return chain;
+  }
+
+  private static boolean containsIdentical(List<Throwable> chain, Throwable t) {
+    for (Throwable element : chain) {
+      if (element == t) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "CauseUnwrapping{" +
+        "wrapperTypes=" + wrapperTypes +
+        ", maxDepth=" + maxDepth +
+        '}';
+  }
+
+}
@@ -0,0 +1,347 @@
+package com.zbiljic.resterror.mapping;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import com.zbiljic.resterror.mapping.lang.Classes;
+
+/**
+ * Reloads the exception mappings of a {@link RestErrorResolver} whenever its configuration
+ * changes.
+ *
+ * Configuration files are watched with a {@link WatchService}, while classpath resources are
+ * polled in a fixed interval. In both cases the configuration is reloaded only if its checksum has
+ * changed, and parsed in a background thread, after which the mappings are swapped atomically, so
+ * requests being mapped at the same time are never blocked. If the new configuration is invalid,
+ * the current mappings are kept.
+ *
+ * Note that reloading replaces all mappings of the resolver, including the ones added through {@link
+ * RestErrorResolver#register(String, com.zbiljic.resterror.RestError)}.
+ *
+ * @author Nemanja Zbiljic
+ */
+public final class ConfigurationReloader implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(ConfigurationReloader.class);
+
+  /** Time to wait for further changes of a modified file, before it is reloaded. */
+  private static final long FILE_SETTLE_MILLIS = 100;
+
+  private final RestErrorResolver resolver;
+  private final Source source;
+
+  private final Object reloadLock = new Object();
+  private long checksum = -1;
+  private boolean started;
+
+  private final AtomicLong reloadCount = new AtomicLong();
+  private final AtomicLong failureCount = new AtomicLong();
+  private volatile long lastReloadNanos = -1;
+  private volatile long lastReloadTimeMillis = -1;
+
+  private ConfigurationReloader(RestErrorResolver resolver, Source source) {
+    if (resolver == null) {
+      throw new IllegalArgumentException("Resolver cannot be null");
+    }
+    this.resolver = resolver;
+    this.source = source;
+  }
+
+  /**
+   * Creates reloader for configuration in the given file. The file is watched for changes once the
+   * reloader is {@link #start() started}.
+   *
+   * @param resolver the resolver to reload
+   * @param file     the configuration file
+   * @return new reloader
+   */
+  public static ConfigurationReloader forFile(RestErrorResolver resolver, Path file) {
+    return new ConfigurationReloader(resolver, new FileSource(file.toAbsolutePath()));
+  }
+
+  /**
+   * Creates reloader for configuration in the given classpath resource. The resource is polled for
+   * changes in the given interval once the reloader is {@link #start() started}.
+   *
+   * @param resolver     the resolver to reload
+   * @param resourceName the name of the classpath resource
+   * @param interval     the polling interval
+   * @param unit         the unit of the polling interval
+   * @return new reloader
+   */
+  public static ConfigurationReloader forResource(RestErrorResolver resolver, String resourceName, long interval, TimeUnit unit) {
+    if (interval <= 0) {
+      throw new IllegalArgumentException("Polling interval must be positive");
+    }
+    return new ConfigurationReloader(resolver, new ResourceSource(resourceName, unit.toMillis(interval)));
+  }
+
+  /**
+   * Starts watching the configuration in a background daemon thread. The current content of the
+   * configuration is read first, so that an unchanged configuration is not reloaded. Has no effect
+   * if already started.
+   */
+  public void start() throws IOException {
+    synchronized (reloadLock) {
+      if (started) {
+        return;
+      }
+      checksum = checksum(read());
+      source.start(this);
+      started = true;
+    }
+  }
+
+  /**
+   * Stops watching the configuration.
+   */
+  @Override
+  public void close() throws IOException {
+    source.close();
+  }
+
+  /**
+   * Reloads the configuration, if it has changed since it was last read.
+   *
+   * @return {@code true} if the mappings have been replaced
+   */
+  public boolean reload() {
+    synchronized (reloadLock) {
+      long start = System.nanoTime();
+      try {
+        byte[] content = read();
+        long newChecksum = checksum(content);
+        if (newChecksum == checksum) {
+          return false;
+        }
+        resolver.load(new ByteArrayInputStream(content));
+        checksum = newChecksum;
+
+        lastReloadNanos = System.nanoTime() - start;
+        lastReloadTimeMillis = System.currentTimeMillis();
+        reloadCount.incrementAndGet();
+        log.info("Reloaded exception mappings from [{}] in {} ms", source, TimeUnit.NANOSECONDS.toMillis(lastReloadNanos));
+        return true;
+      } catch (IOException | RuntimeException e) {
+        failureCount.incrementAndGet();
+        log.warn("Unable to reload exception mappings from [" + source + "], keeping the current mappings", e);
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of times the mappings have been replaced.
+   */
+  public long getReloadCount() {
+    return reloadCount.get();
+  }
+
+  /**
+   * Returns the number of times the configuration could not be read or parsed.
+   */
+  public long getFailureCount() {
+    return failureCount.get();
+  }
+
+  /**
+   * Returns how long the last successful reload took, in nanoseconds, or -1 if there was none.
+   */
+  public long getLastReloadNanos() {
+    return lastReloadNanos;
+  }
+
+  /**
+   * Returns the time of the last successful reload, in milliseconds since the epoch, or -1 if there
+   * was none.
+   */
+  public long getLastReloadTimeMillis() {
+    return lastReloadTimeMillis;
+  }
+
+  private byte[] read() throws IOException {
+    InputStream is = source.open();
+    if (is == null) {
+      throw new IOException("Configuration [" + source + "] not found");
+    }
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int n;
+      while ((n = is.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    } finally {
+      is.close();
+    }
+  }
+
+  private static long checksum(byte[] content) {
+    CRC32 crc = new CRC32();
+    crc.update(content, 0, content.length);
+    return crc.getValue();
+  }
+
+  private static Thread newDaemonThread(Runnable runnable, String name) {
+    Thread thread = new Thread(runnable, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private interface Source extends Closeable {
+
+    InputStream open() throws IOException;
+
+    void start(ConfigurationReloader reloader) throws IOException;
+  }
+
+  private static final class FileSource implements Source {
+
+    private final Path file;
+    private final Path directory;
+    private final Path fileName;
+    private volatile WatchService watchService;
+
+    FileSource(Path file) {
+      this.file = file;
+      this.directory = file.getParent();
+      this.fileName = file.getFileName();
+      if (directory == null || fileName == null) {
+        throw new IllegalArgumentException("Invalid configuration file [" + file + "]");
+      }
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+      return Files.newInputStream(file);
+    }
+
+    @Override
+    public void start(final ConfigurationReloader reloader) throws IOException {
+      final WatchService watchService = FileSystems.getDefault().newWatchService();
+      directory.register(watchService,
+          StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+      this.watchService = watchService;
+
+      newDaemonThread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            while (true) {
+              WatchKey key = watchService.take();
+              boolean changed = false;
+              boolean valid = true;
+              // wait for the file to settle, so that it is not read while it is being written
+              while (key != null && valid) {
+                changed |= isChanged(key);
+                valid = key.reset();
+                key = valid ? watchService.poll(FILE_SETTLE_MILLIS, TimeUnit.MILLISECONDS) : null;
+              }
+              if (changed) {
+                reloader.reload();
+              }
+              if (!valid) {
+                // the directory is no longer accessible, e.g. it has been deleted
+                log.warn("Stopped watching [{}], its directory can no longer be watched", file);
+                return;
+              }
+            }
+          } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("Stopped watching [{}]", file);
+          }
+        }
+      }, "rest-error-reloader").start();
+    }
+
+    private boolean isChanged(WatchKey key) {
+      boolean changed = false;
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+          changed = true;
+        }
+      }
+      return changed;
+    }
+
+    @Override
+    public void close() throws IOException {
+      WatchService watchService = this.watchService;
+      if (watchService != null) {
+        watchService.close();
+      }
+    }
+
+    @Override
+    public String toString() {
+      return file.toString();
+    }
+  }
+
+  private static final class ResourceSource implements Source {
+
+    private final String resourceName;
+    private final long intervalMillis;
+    private volatile ScheduledExecutorService executor;
+
+    ResourceSource(String resourceName, long intervalMillis) {
+      this.resourceName = resourceName;
+      this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+      return Classes.getResourceAsStream(resourceName);
+    }
+
+    @Override
+    public void start(final ConfigurationReloader reloader) {
+      ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          return newDaemonThread(runnable, "rest-error-reloader");
+        }
+      });
+      executor.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          reloader.reload();
+        }
+      }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+      this.executor = executor;
+    }
+
+    @Override
+    public void close() {
+      ScheduledExecutorService executor = this.executor;
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "classpath:" + resourceName;
+    }
+  }
+
+}
@@ -0,0 +1,395 @@
+package com.zbiljic.resterror.mapping;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorBuilder;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.RestErrorWithHeaders;
+import com.zbiljic.resterror.http.HttpStatus;
+import com.zbiljic.resterror.mapping.lang.Classes;
+
+/**
+ * Immutable index of exception mappings, compiled once from the configured mappings of exception
+ * names to {@code RestError} templates.
+ *
+ * Mapping names which can be loaded as classes are matched against the names of the exception
+ * class and its superclasses. Other names (e.g. partial class names, package names or classes
+ * which are not on the classpath) are matched as substrings of those names. The mapping matching
+ * the closest class in the hierarchy wins; among mappings matching the same class, the one
+ * configured first wins.
+ *
+ * Resolved templates are cached per exception class, so that resolving the same exception type
+ * again is a single map lookup. The messages of the templates are compiled along with the index,
+ * see {@link MessageTemplate}.
+ *
+ * @author Nemanja Zbiljic
+ */
+public final class ExceptionMappingIndex {
+  private static final Logger log = LoggerFactory.getLogger(ExceptionMappingIndex.class);
+
+  /** Marker stored in the resolution cache for exception types without any matching mapping. */
+  private static final Mapping NO_MATCH = new Mapping("", RestErrorFactory.builder().build(), -1);
+
+  private static final Mapping[] NO_PATTERNS = new Mapping[0];
+
+  public static final ExceptionMappingIndex EMPTY =
+      new ExceptionMappingIndex(Collections.<String, RestError>emptyMap(), Collections.<String>emptySet());
+
+  private final Map<String, RestError> mappings;
+  private final Set<String> classNames;
+  private final Map<String, Mapping> byClassName;
+  private final Mapping[] patterns;
+  private final Set<String> requestHeaderNames;
+  private final ConcurrentMap<Class<?>, Mapping> resolved = new ConcurrentHashMap<>();
+  private final ConcurrentMap<CauseChainKey, CauseChainMatch> resolvedCauseChains = new ConcurrentHashMap<>();
+
+  private ExceptionMappingIndex(Map<String, RestError> mappings, Set<String> classNames) {
+    this.mappings = mappings;
+    this.classNames = classNames;
+
+    Map<String, Mapping> byClassName = new HashMap<>();
+    List<Mapping> patterns = new ArrayList<>();
+    Set<String> requestHeaderNames = new HashSet<>();
+    int ordinal = 0;
+    for (Map.Entry<String, RestError> entry : mappings.entrySet()) {
+      Mapping mapping = new Mapping(entry.getKey(), entry.getValue(), ordinal++);
+      mapping.message.addRequestHeaderNames(requestHeaderNames);
+      mapping.developerMessage.addRequestHeaderNames(requestHeaderNames);
+      if (classNames.contains(mapping.name)) {
+        byClassName.put(mapping.name, mapping);
+      } else {
+        patterns.add(mapping);
+      }
+    }
+    this.byClassName = byClassName;
+    this.patterns = patterns.isEmpty() ? NO_PATTERNS : patterns.toArray(new Mapping[patterns.size()]);
+    this.requestHeaderNames = requestHeaderNames.isEmpty()
+        ? Collections.<String>emptySet()
+        : Collections.unmodifiableSet(requestHeaderNames);
+  }
+
+  /**
+   * Compiles the given mappings of exception names to {@code RestError} templates.
+   *
+   * @param mappings the mappings, in order of precedence
+   * @return compiled index of the mappings
+   */
+  public static ExceptionMappingIndex compile(Map<String, RestError> mappings) {
+    if (mappings == null || mappings.isEmpty()) {
+      return EMPTY;
+    }
+    return EMPTY.withMappings(mappings);
+  }
+
+  /**
+   * Returns new index with the given mappings added to (or replacing) the mappings of this index.
+   * Names already present in this index are not resolved again.
+   *
+   * @param additionalMappings the mappings to add
+   * @return new index containing all mappings
+   */
+  public ExceptionMappingIndex withMappings(Map<String, RestError> additionalMappings) {
+    Map<String, RestError> map = new LinkedHashMap<>(mappings);
+    Set<String> names = new HashSet<>(classNames);
+    for (Map.Entry<String, RestError> entry : additionalMappings.entrySet()) {
+      String name = entry.getKey();
+      if (name == null) {
+        throw new IllegalArgumentException("Class name cannot be null");
+      }
+      if (!map.containsKey(name) && Classes.loadClass(name) != null) {
+        names.add(name);
+      }
+      map.put(name, entry.getValue());
+    }
+    return new ExceptionMappingIndex(Collections.unmodifiableMap(map), Collections.unmodifiableSet(names));
+  }
+
+  /**
+   * Returns the mappings of this index, in order of precedence.
+   */
+  public Map<String, RestError> getMappings() {
+    return mappings;
+  }
+
+  /**
+   * Returns the names of the request headers used by the {@code {request.header.*}} placeholders
+   * of the messages of the mappings, as written in the placeholders.
+   */
+  public Set<String> getRequestHeaderNames() {
+    return requestHeaderNames;
+  }
+
+  public boolean isEmpty() {
+    return mappings.isEmpty();
+  }
+
+  /**
+   * Returns the template mapped to the given exception type, or {@code null} if there is none.
+   *
+   * @param exceptionClass the type of the exception
+   * @return the mapped template, or {@code null}
+   */
+  public RestError resolve(Class<? extends Throwable> exceptionClass) {
+    Mapping mapping = find(exceptionClass);
+    return mapping == null ? null : mapping.template;
+  }
+
+  /**
+   * Returns the mapping matching the given exception type, or {@code null} if there is none.
+   *
+   * @param exceptionClass the type of the exception
+   * @return the matching mapping, or {@code null}
+   */
+  public Mapping find(Class<? extends Throwable> exceptionClass) {
+    if (mappings.isEmpty()) {
+      return null;
+    }
+    Mapping mapping = resolved.get(exceptionClass);
+    if (mapping == null) {
+      mapping = doResolve(exceptionClass);
+      Mapping previous = resolved.putIfAbsent(exceptionClass, mapping);
+      if (previous != null) {
+        mapping = previous;
+      }
+    }
+    return mapping == NO_MATCH ? null : mapping;
+  }
+
+  /**
+   * Returns whether the given exception type has already been resolved by this index, i.e. whether
+   * resolving it again is a cache hit.
+   */
+  public boolean isResolved(Class<? extends Throwable> exceptionClass) {
+    return mappings.isEmpty() || resolved.containsKey(exceptionClass);
+  }
+
+  /**
+   * Returns the best mapping of the exceptions in the given cause chain, or {@code null} if none of
+   * them is mapped.
+   *
+   * The best mapping is the one matching the closest class in the hierarchy of its exception, and
+   * among equally close ones, the one of the innermost exception. So a wrapper exception mapped
+   * exactly wins over a cause mapped only through one of its superclasses, but not over a cause
+   * mapped exactly. Results are cached per sequence of exception classes in the chain.
+   *
+   * @param causeChain the exception and its causes, from the outermost to the innermost one
+   * @return the best match, or {@code null}
+   */
+  public CauseChainMatch findInCauseChain(List<? extends Throwable> causeChain) {
+    if (mappings.isEmpty()) {
+      return null;
+    }
+    CauseChainKey key = new CauseChainKey(causeChain);
+    CauseChainMatch match = resolvedCauseChains.get(key);
+    if (match == null) {
+      match = doResolve(key.classes);
+      CauseChainMatch previous = resolvedCauseChains.putIfAbsent(key, match);
+      if (previous != null) {
+        match = previous;
+      }
+    }
+    return match == CauseChainMatch.NO_MATCH ? null : match;
+  }
+
+  /**
+   * Returns whether the given cause chain has already been resolved by this index.
+   */
+  public boolean isCauseChainResolved(List<? extends Throwable> causeChain) {
+    return mappings.isEmpty() || resolvedCauseChains.containsKey(new CauseChainKey(causeChain));
+  }
+
+  @SuppressWarnings("unchecked")
+  private CauseChainMatch doResolve(Class<?>[] causeChain) {
+    CauseChainMatch best = CauseChainMatch.NO_MATCH;
+    int bestDepth = Integer.MAX_VALUE;
+    for (int i = 0; i < causeChain.length; i++) {
+      Mapping mapping = find((Class<? extends Throwable>) causeChain[i]);
+      if (mapping != null) {
+        int depth = matchDepth(causeChain[i]);
+        if (depth <= bestDepth) {
+          best = new CauseChainMatch(mapping, i);
+          bestDepth = depth;
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Returns the distance from the given class to its closest superclass with a mapping.
+   */
+  private int matchDepth(Class<?> exceptionClass) {
+    int depth = 0;
+    for (Class<?> clazz = exceptionClass; clazz != null; clazz = clazz.getSuperclass(), depth++) {
+      if (findMapping(clazz.getName()) != null || clazz == Throwable.class) {
+        break;
+      }
+    }
+    return depth;
+  }
+
+  private Mapping doResolve(Class<? extends Throwable> exceptionClass) {
+    for (Class<?> clazz = exceptionClass; clazz != null; clazz = clazz.getSuperclass()) {
+      Mapping mapping = findMapping(clazz.getName());
+      if (mapping != null) {
+        if (log.isDebugEnabled()) {
+          log.debug("Resolving to RestError template '{}' for exception of type [{}], based on exception mapping [{}]",
+              mapping.template, exceptionClass.getName(), mapping.name);
+        }
+        return mapping;
+      }
+      if (clazz == Throwable.class) {
+        break;
+      }
+    }
+    return NO_MATCH;
+  }
+
+  private Mapping findMapping(String className) {
+    Mapping found = byClassName.get(className);
+    for (Mapping pattern : patterns) {
+      if (found != null && found.ordinal < pattern.ordinal) {
+        break;
+      }
+      if (className.contains(pattern.name)) {
+        found = pattern;
+        break;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Best mapping of an exception cause chain, and the position in the chain of the exception it
+   * maps.
+   */
+  public static final class CauseChainMatch {
+
+    static final CauseChainMatch NO_MATCH = new CauseChainMatch(null, -1);
+
+    private final Mapping mapping;
+    private final int index;
+
+    CauseChainMatch(Mapping mapping, int index) {
+      this.mapping = mapping;
+      this.index = index;
+    }
+
+    public Mapping getMapping() {
+      return mapping;
+    }
+
+    /**
+     * Returns the position of the mapped exception in the cause chain, {@code 0} being the
+     * outermost exception.
+     */
+    public int getIndex() {
+      return index;
+    }
+
+    @Override
+    public String toString() {
+      return index + ":" + mapping;
+    }
+  }
+
+  /**
+   * Sequence of the classes of the exceptions in a cause chain.
+   */
+  private static final class CauseChainKey {
+
+    final Class<?>[] classes;
+    private final int hash;
+
+    CauseChainKey(List<? extends Throwable> causeChain) {
+      this.classes = new Class<?>[causeChain.size()];
+      for (int i = 0; i < classes.length; i++) {
+        classes[i] = causeChain.get(i).getClass();
+      }
+      this.hash = Arrays.hashCode(classes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      return Arrays.equals(classes, ((CauseChainKey) o).classes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Single exception mapping of an exception name to a {@code RestError} template.
+   */
+  public static final class Mapping {
+
+    final String name;
+    final RestError template;
+    final int ordinal;
+    final MessageTemplate message;
+    final MessageTemplate developerMessage;
+    /**
+     * The minimal error of the status of the template, with the headers of the template, used in
+     * degraded mode.
+     */
+    final RestError degradedError;
+
+    Mapping(String name, RestError template, int ordinal) {
+      this.name = name;
+      this.template = template;
+      this.ordinal = ordinal;
+      this.message = MessageTemplate.compile(template.getMessage());
+      this.developerMessage = MessageTemplate.compile(template.getDeveloperMessage());
+      HttpStatus status = HttpStatus.resolve(template.getStatus());
+      this.degradedError = status == null ? template : degradedError(template, status);
+    }
+
+    private static RestError degradedError(RestError template, HttpStatus status) {
+      RestError generic = RestErrorFactory.valueOf(status);
+      if (!(template instanceof RestErrorWithHeaders) || ((RestErrorWithHeaders) template).getHeaders().isEmpty()) {
+        return generic;
+      }
+      // clients are told when to retry especially while overloaded
+      RestErrorBuilder builder = RestErrorFactory.builderCopyOf(generic);
+      for (Map.Entry<String, String> header : ((RestErrorWithHeaders) template).getHeaders().entrySet()) {
+        builder.withHeader(header.getKey(), header.getValue());
+      }
+      return builder.build();
+    }
+
+    /**
+     * Returns the exception name, as configured.
+     */
+    public String getName() {
+      return name;
+    }
+
+    public RestError getTemplate() {
+      return template;
+    }
+
+    @Override
+    public String toString() {
+      return name + "=" + template;
+    }
+  }
+
+}
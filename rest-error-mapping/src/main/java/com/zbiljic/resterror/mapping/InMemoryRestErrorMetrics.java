@@ -0,0 +1,286 @@
+package com.zbiljic.resterror.mapping;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zbiljic.resterror.RestError;
+
+/**
+ * {@link RestErrorMetrics} which keeps all metrics in memory, in striped counters, so that
+ * recording does not contend between threads. A consistent-enough view of the metrics is taken
+ * with {@link #snapshot()}.
+ *
+ * Resolution latency is recorded in a histogram with power-of-two buckets, where bucket {@code i}
+ * counts resolutions which took less than 2<sup>i+1</sup> nanoseconds (and, except for the first
+ * one, at least 2<sup>i</sup> nanoseconds).
+ *
+ * @author Nemanja Zbiljic
+ */
+public final class InMemoryRestErrorMetrics implements RestErrorMetrics {
+
+  /** The number of buckets in the latency histogram. */
+  public static final int LATENCY_BUCKETS = 40;
+
+  private static final int MAX_INDEXED_STATUS = 599;
+
+  private final AtomicReferenceArray<LongAdder> byStatus = new AtomicReferenceArray<>(MAX_INDEXED_STATUS + 1);
+  private final ConcurrentMap<Integer, LongAdder> byOtherStatus = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Integer, LongAdder> byCode = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongAdder> byMapping = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongAdder> unmappedByClass = new ConcurrentHashMap<>();
+  private final LongAdder unmapped = new LongAdder();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder cacheMisses = new LongAdder();
+  private final LongAdder[] latency = new LongAdder[LATENCY_BUCKETS];
+  private final LongAdder latencyTotalNanos = new LongAdder();
+
+  public InMemoryRestErrorMetrics() {
+    for (int i = 0; i < latency.length; i++) {
+      latency[i] = new LongAdder();
+    }
+  }
+
+  @Override
+  public void recordMapped(String mappingName, RestError template, long resolutionNanos, boolean cacheHit) {
+    statusCounter(template.getStatus()).increment();
+    counter(byCode, template.getCode()).increment();
+    counter(byMapping, mappingName).increment();
+    recordResolution(resolutionNanos, cacheHit);
+  }
+
+  @Override
+  public void recordUnmapped(Class<? extends Throwable> exceptionClass, long resolutionNanos, boolean cacheHit) {
+    unmapped.increment();
+    counter(unmappedByClass, exceptionClass.getName()).increment();
+    recordResolution(resolutionNanos, cacheHit);
+  }
+
+  private void recordResolution(long resolutionNanos, boolean cacheHit) {
+    if (cacheHit) {
+      cacheHits.increment();
+    } else {
+      cacheMisses.increment();
+    }
+    latency[bucketOf(resolutionNanos)].increment();
+    latencyTotalNanos.add(Math.max(0, resolutionNanos));
+  }
+
+  private LongAdder statusCounter(int status) {
+    if (status < 0 || status > MAX_INDEXED_STATUS) {
+      return counter(byOtherStatus, status);
+    }
+    LongAdder counter = byStatus.get(status);
+    if (counter == null) {
+      byStatus.compareAndSet(status, null, new LongAdder());
+      counter = byStatus.get(status);
+    }
+    return counter;
+  }
+
+  private static <K> LongAdder counter(ConcurrentMap<K, LongAdder> counters, K key) {
+    LongAdder counter = counters.get(key);
+    if (counter == null) {
+      counter = counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+    return counter;
+  }
+
+  static int bucketOf(long nanos) {
+    if (nanos <= 1) {
+      return 0;
+    }
+    return Math.min(LATENCY_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos));
+  }
+
+  /**
+   * Returns the exclusive upper bound, in nanoseconds, of the given latency histogram bucket. The
+   * last bucket is unbounded, so {@link Long#MAX_VALUE} is returned for it.
+   */
+  public static long latencyBucketUpperBound(int bucket) {
+    if (bucket < 0 || bucket >= LATENCY_BUCKETS) {
+      throw new IndexOutOfBoundsException("Invalid bucket: " + bucket);
+    }
+    return bucket == LATENCY_BUCKETS - 1 ? Long.MAX_VALUE : 1L << (bucket + 1);
+  }
+
+  /**
+   * Returns the current values of all metrics. Counters updated concurrently with taking the
+   * snapshot may or may not be included in it.
+   */
+  public Snapshot snapshot() {
+    Map<Integer, Long> statuses = new TreeMap<>();
+    for (int status = 0; status <= MAX_INDEXED_STATUS; status++) {
+      LongAdder counter = byStatus.get(status);
+      if (counter != null) {
+        statuses.put(status, counter.sum());
+      }
+    }
+    statuses.putAll(sums(byOtherStatus));
+
+    long[] histogram = new long[LATENCY_BUCKETS];
+    for (int i = 0; i < histogram.length; i++) {
+      histogram[i] = latency[i].sum();
+    }
+
+    return new Snapshot(
+        Collections.unmodifiableMap(statuses),
+        Collections.unmodifiableMap(sums(byCode)),
+        Collections.unmodifiableMap(sums(byMapping)),
+        unmapped.sum(),
+        Collections.unmodifiableMap(sums(unmappedByClass)),
+        cacheHits.sum(),
+        cacheMisses.sum(),
+        histogram,
+        latencyTotalNanos.sum());
+  }
+
+  private static <K extends Comparable<K>> Map<K, Long> sums(Map<K, LongAdder> counters) {
+    Map<K, Long> sums = new TreeMap<>();
+    for (Map.Entry<K, LongAdder> entry : counters.entrySet()) {
+      sums.put(entry.getKey(), entry.getValue().sum());
+    }
+    return sums;
+  }
+
+  /**
+   * Immutable point-in-time view of {@link InMemoryRestErrorMetrics}.
+   */
+  public static final class Snapshot {
+
+    private final Map<Integer, Long> countsByStatus;
+    private final Map<Integer, Long> countsByCode;
+    private final Map<String, Long> countsByMapping;
+    private final long unmappedCount;
+    private final Map<String, Long> unmappedCountsByClass;
+    private final long cacheHits;
+    private final long cacheMisses;
+    private final long[] latencyHistogram;
+    private final long totalResolutionNanos;
+
+    Snapshot(Map<Integer, Long> countsByStatus,
+             Map<Integer, Long> countsByCode,
+             Map<String, Long> countsByMapping,
+             long unmappedCount,
+             Map<String, Long> unmappedCountsByClass,
+             long cacheHits,
+             long cacheMisses,
+             long[] latencyHistogram,
+             long totalResolutionNanos) {
+      this.countsByStatus = countsByStatus;
+      this.countsByCode = countsByCode;
+      this.countsByMapping = countsByMapping;
+      this.unmappedCount = unmappedCount;
+      this.unmappedCountsByClass = unmappedCountsByClass;
+      this.cacheHits = cacheHits;
+      this.cacheMisses = cacheMisses;
+      this.latencyHistogram = latencyHistogram;
+      this.totalResolutionNanos = totalResolutionNanos;
+    }
+
+    /**
+     * Returns the number of mapped exceptions per HTTP status of the produced error.
+     */
+    public Map<Integer, Long> getCountsByStatus() {
+      return countsByStatus;
+    }
+
+    /**
+     * Returns the number of mapped exceptions per code of the produced error.
+     */
+    public Map<Integer, Long> getCountsByCode() {
+      return countsByCode;
+    }
+
+    /**
+     * Returns the number of mapped exceptions per exception mapping name.
+     */
+    public Map<String, Long> getCountsByMapping() {
+      return countsByMapping;
+    }
+
+    public long getUnmappedCount() {
+      return unmappedCount;
+    }
+
+    /**
+     * Returns the number of unmapped exceptions per exception class name.
+     */
+    public Map<String, Long> getUnmappedCountsByClass() {
+      return unmappedCountsByClass;
+    }
+
+    public long getCacheHits() {
+      return cacheHits;
+    }
+
+    public long getCacheMisses() {
+      return cacheMisses;
+    }
+
+    /**
+     * Returns the total number of resolutions, mapped and unmapped.
+     */
+    public long getResolutionCount() {
+      return cacheHits + cacheMisses;
+    }
+
+    public long getTotalResolutionNanos() {
+      return totalResolutionNanos;
+    }
+
+    /**
+     * Returns the resolution latency histogram. See {@link
+     * InMemoryRestErrorMetrics#latencyBucketUpperBound(int)} for the bounds of the buckets.
+     */
+    public long[] getLatencyHistogram() {
+      return latencyHistogram.clone();
+    }
+
+    /**
+     * Returns the upper bound, in nanoseconds, of the resolution latency below which the given
+     * fraction of resolutions fall, or {@code 0} if nothing has been recorded.
+     *
+     * @param quantile the quantile, between {@code 0} and {@code 1}
+     */
+    public long getLatencyQuantileUpperBound(double quantile) {
+      if (quantile < 0 || quantile > 1) {
+        throw new IllegalArgumentException("Quantile must be between 0 and 1");
+      }
+      long total = 0;
+      for (long count : latencyHistogram) {
+        total += count;
+      }
+      if (total == 0) {
+        return 0;
+      }
+      long threshold = (long) Math.ceil(quantile * total);
+      long cumulative = 0;
+      for (int i = 0; i < latencyHistogram.length; i++) {
+        cumulative += latencyHistogram[i];
+        if (cumulative >= threshold && cumulative > 0) {
+          return latencyBucketUpperBound(i);
+        }
+      }
+      return Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+      return "Snapshot{" +
+          "countsByStatus=" + countsByStatus +
+          ", countsByCode=" + countsByCode +
+          ", countsByMapping=" + countsByMapping +
+          ", unmappedCount=" + unmappedCount +
+          ", cacheHits=" + cacheHits +
+          ", cacheMisses=" + cacheMisses +
+          ", totalResolutionNanos=" + totalResolutionNanos +
+          '}';
+    }
+  }
+
+}
@@ -0,0 +1,315 @@
+package com.zbiljic.resterror.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Message of a {@code RestError} template, compiled once into literal segments and placeholders,
+ * and rendered for each mapped exception.
+ *
+ * Placeholders are written as {@code {name}}, where the name is a dot-separated path of properties
+ * of the exception, e.g. {@code {orderId}} or {@code {cause.message}}. Each property is read with
+ * the {@code getName()}, {@code isName()} or {@code name()} method of the value it is read from;
+ * the method handles are resolved once per class and cached. Names starting with {@code request.}
+ * refer to the current request instead: {@code {request.method}}, {@code {request.path}} and
+ * {@code {request.header.Name}}. Placeholders with a {@code null} value (or an unknown property)
+ * are rendered as empty strings. Braces which do not enclose a property path are written as-is,
+ * and a double brace <code>{{</code> is written as a single literal one. The legacy
+ * {@value RestErrorResolver#DEFAULT_EXCEPTION_MESSAGE_VALUE} message is the same as {@code
+ * {message}}.
+ *
+ * A message consisting of a single placeholder renders to the value of the placeholder as-is, so
+ * it is {@code null} when the value is {@code null}.
+ *
+ * @author Nemanja Zbiljic
+ */
+final class MessageTemplate {
+
+  /** Expected length of a rendered placeholder, used to size the rendering buffer. */
+  private static final int PLACEHOLDER_LENGTH_HINT = 16;
+
+  private static final String REQUEST_PREFIX = "request.";
+  private static final String REQUEST_HEADER_PREFIX = REQUEST_PREFIX + "header.";
+
+  private static final MessageTemplate NULL = new MessageTemplate(null, new Segment[0], 0);
+
+  private final String source;
+  private final Segment[] segments;
+  private final int lengthHint;
+
+  private MessageTemplate(String source, Segment[] segments, int lengthHint) {
+    this.source = source;
+    this.segments = segments;
+    this.lengthHint = lengthHint;
+  }
+
+  /**
+   * Compiles the given message.
+   *
+   * @param message the message, may be {@code null}
+   * @return compiled message, rendering to {@code null} if the message is {@code null}
+   */
+  static MessageTemplate compile(String message) {
+    if (message == null) {
+      return NULL;
+    }
+    if (message.equalsIgnoreCase(RestErrorResolver.DEFAULT_EXCEPTION_MESSAGE_VALUE)) {
+      return new MessageTemplate(message, new Segment[]{new PropertyPath(new String[]{"message"})}, PLACEHOLDER_LENGTH_HINT);
+    }
+
+    List<Segment> segments = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
+    int lengthHint = 0;
+    int i = 0;
+    while (i < message.length()) {
+      char c = message.charAt(i);
+      if (c == '{') {
+        if (message.startsWith("{{", i)) {
+          literal.append('{');
+          i += 2;
+          continue;
+        }
+        int end = message.indexOf('}', i + 1);
+        if (end > 0 && isPlaceholderName(message, i + 1, end)) {
+          if (literal.length() > 0) {
+            segments.add(new Literal(literal.toString()));
+            lengthHint += literal.length();
+            literal.setLength(0);
+          }
+          segments.add(placeholder(message.substring(i + 1, end)));
+          lengthHint += PLACEHOLDER_LENGTH_HINT;
+          i = end + 1;
+          continue;
+        }
+      }
+      literal.append(c);
+      i++;
+    }
+    if (literal.length() > 0) {
+      // constant messages are rendered as the configured string itself
+      segments.add(new Literal(literal.length() == message.length() ? message : literal.toString()));
+      lengthHint += literal.length();
+    }
+    return new MessageTemplate(message, segments.toArray(new Segment[segments.size()]), lengthHint);
+  }
+
+  private static boolean isPlaceholderName(String message, int start, int end) {
+    if (start == end || !Character.isJavaIdentifierStart(message.charAt(start))) {
+      return false;
+    }
+    for (int i = start + 1; i < end; i++) {
+      char c = message.charAt(i);
+      if (!Character.isJavaIdentifierPart(c) && c != '.' && c != '-') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Segment placeholder(String name) {
+    if (name.equals(REQUEST_PREFIX + "method")) {
+      return RequestMethod.INSTANCE;
+    }
+    if (name.equals(REQUEST_PREFIX + "path")) {
+      return RequestPath.INSTANCE;
+    }
+    if (name.startsWith(REQUEST_HEADER_PREFIX) && name.length() > REQUEST_HEADER_PREFIX.length()) {
+      return new RequestHeader(name.substring(REQUEST_HEADER_PREFIX.length()));
+    }
+    return new PropertyPath(name.split("\\."));
+  }
+
+  /**
+   * Returns the message this template was compiled from.
+   */
+  String getSource() {
+    return source;
+  }
+
+  /**
+   * Adds the names of the request headers used by the placeholders of this template to the given
+   * set.
+   */
+  void addRequestHeaderNames(Set<String> names) {
+    for (Segment segment : segments) {
+      if (segment instanceof RequestHeader) {
+        names.add(((RequestHeader) segment).name);
+      }
+    }
+  }
+
+  /**
+   * Renders the message for the given exception.
+   *
+   * @param t       the exception
+   * @param request the current request, may be {@code null} outside of a request
+   * @return the rendered message
+   */
+  String render(Throwable t, RequestContext request) {
+    if (segments.length == 0) {
+      return source == null ? null : "";
+    }
+    if (segments.length == 1) {
+      Object value = segments[0].value(t, request);
+      return value == null ? null : value.toString();
+    }
+    StringBuilder sb = new StringBuilder(lengthHint);
+    for (Segment segment : segments) {
+      Object value = segment.value(t, request);
+      if (value != null) {
+        sb.append(value);
+      }
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(source);
+  }
+
+  private abstract static class Segment {
+
+    abstract Object value(Throwable t, RequestContext request);
+  }
+
+  private static final class Literal extends Segment {
+
+    private final String text;
+
+    Literal(String text) {
+      this.text = text;
+    }
+
+    @Override
+    Object value(Throwable t, RequestContext request) {
+      return text;
+    }
+  }
+
+  private static final class RequestMethod extends Segment {
+
+    static final RequestMethod INSTANCE = new RequestMethod();
+
+    @Override
+    Object value(Throwable t, RequestContext request) {
+      return request == null ? null : request.getMethod();
+    }
+  }
+
+  private static final class RequestPath extends Segment {
+
+    static final RequestPath INSTANCE = new RequestPath();
+
+    @Override
+    Object value(Throwable t, RequestContext request) {
+      return request == null ? null : request.getPath();
+    }
+  }
+
+  private static final class RequestHeader extends Segment {
+
+    private final String name;
+
+    RequestHeader(String name) {
+      this.name = name;
+    }
+
+    @Override
+    Object value(Throwable t, RequestContext request) {
+      return request == null ? null : request.getHeader(name);
+    }
+  }
+
+  private static final class PropertyPath extends Segment {
+
+    private final Property[] properties;
+
+    PropertyPath(String[] names) {
+      this.properties = new Property[names.length];
+      for (int i = 0; i < names.length; i++) {
+        properties[i] = new Property(names[i]);
+      }
+    }
+
+    @Override
+    Object value(Throwable t, RequestContext request) {
+      Object value = t;
+      for (int i = 0; i < properties.length && value != null; i++) {
+        value = properties[i].get(value);
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Single named property, with its accessor resolved once per class of the values it is read
+   * from.
+   */
+  private static final class Property {
+
+    /** Accessor of classes without the property, always returning {@code null}. */
+    private static final MethodHandle MISSING = MethodHandles.dropArguments(
+        MethodHandles.constant(Object.class, null), 0, Object.class);
+
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final String name;
+    private final ClassValue<MethodHandle> accessors = new ClassValue<MethodHandle>() {
+      @Override
+      protected MethodHandle computeValue(Class<?> type) {
+        return accessor(type);
+      }
+    };
+
+    Property(String name) {
+      this.name = name;
+    }
+
+    Object get(Object target) {
+      try {
+        return (Object) accessors.get(target.getClass()).invokeExact(target);
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable e) {
+        // a failing getter must not prevent the error response
+        return null;
+      }
+    }
+
+    private MethodHandle accessor(Class<?> type) {
+      String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+      for (String methodName : new String[]{"get" + capitalized, "is" + capitalized, name}) {
+        Method method = findMethod(type, methodName);
+        if (method != null) {
+          try {
+            if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+              method.setAccessible(true);
+            }
+            return MethodHandles.lookup().unreflect(method).asType(ACCESSOR_TYPE);
+          } catch (IllegalAccessException | RuntimeException e) {
+            // e.g. InaccessibleObjectException of JDK 9+, cached as missing, so not retried per render
+            return MISSING;
+          }
+        }
+      }
+      return MISSING;
+    }
+
+    private static Method findMethod(Class<?> type, String methodName) {
+      try {
+        Method method = type.getMethod(methodName);
+        return method.getReturnType() == void.class ? null : method;
+      } catch (NoSuchMethodException | SecurityException e) {
+        return null;
+      }
+    }
+  }
+
+}
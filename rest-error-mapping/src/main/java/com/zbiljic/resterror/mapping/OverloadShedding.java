@@ -0,0 +1,195 @@
+package com.zbiljic.resterror.mapping;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Switches a {@link RestErrorResolver} into degraded mode while it is overloaded with errors. In
+ * degraded mode, exceptions are resolved to the shared generic error of the status they are mapped
+ * to, so no messages are rendered, no exception is retained, and the serialized body of the error
+ * is the same for all of them.
+ *
+ * Degraded mode is entered either manually, with {@link #setForced(boolean)}, or automatically,
+ * once the number of errors within the current second reaches the threshold. It is left
+ * automatically, at the start of the first second following a second with fewer errors than the
+ * recovery threshold. The second and the number of errors within it are kept in a single atomic
+ * word, so each error is counted in the second it was recorded in, without any locks or background
+ * threads.
+ *
+ * @author Nemanja Zbiljic
+ */
+public final class OverloadShedding {
+
+  private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final int threshold;
+  private final int recoveryThreshold;
+
+  /**
+   * The second the errors are currently counted in, truncated to an {@code int}, in the high 32
+   * bits, and the number of errors counted in it in the low 32 bits, so both change atomically.
+   */
+  private final AtomicLong currentSecondCount = new AtomicLong();
+  private final AtomicLong shedCount = new AtomicLong();
+
+  private volatile boolean forced;
+  private volatile boolean overloaded;
+
+  private OverloadShedding(int threshold, int recoveryThreshold) {
+    this.threshold = threshold;
+    this.recoveryThreshold = recoveryThreshold;
+  }
+
+  /**
+   * Creates shedding which is only entered manually, see {@link #setForced(boolean)}.
+   */
+  public static OverloadShedding manual() {
+    return new OverloadShedding(Integer.MAX_VALUE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates shedding which is entered once there are the given number of errors within a second,
+   * and left once there are fewer than half as many.
+   *
+   * @param errorsPerSecond the number of errors per second which triggers degraded mode
+   */
+  public static OverloadShedding threshold(int errorsPerSecond) {
+    return threshold(errorsPerSecond, Math.max(1, errorsPerSecond / 2));
+  }
+
+  /**
+   * Creates shedding which is entered once there are {@code errorsPerSecond} errors within a
+   * second, and left once there are fewer than {@code recoveryErrorsPerSecond}.
+   *
+   * @param errorsPerSecond         the number of errors per second which triggers degraded mode
+   * @param recoveryErrorsPerSecond the number of errors per second under which degraded mode is
+   *                                left, not greater than {@code errorsPerSecond}
+   */
+  public static OverloadShedding threshold(int errorsPerSecond, int recoveryErrorsPerSecond) {
+    if (errorsPerSecond <= 0) {
+      throw new IllegalArgumentException("Threshold must be positive");
+    }
+    if (recoveryErrorsPerSecond <= 0 || recoveryErrorsPerSecond > errorsPerSecond) {
+      throw new IllegalArgumentException("Recovery threshold must be positive, and not greater than the threshold");
+    }
+    return new OverloadShedding(errorsPerSecond, recoveryErrorsPerSecond);
+  }
+
+  public int getThreshold() {
+    return threshold;
+  }
+
+  public int getRecoveryThreshold() {
+    return recoveryThreshold;
+  }
+
+  public boolean isForced() {
+    return forced;
+  }
+
+  /**
+   * Forces degraded mode on, regardless of the number of errors, or releases it back to the
+   * threshold.
+   */
+  public void setForced(boolean forced) {
+    this.forced = forced;
+  }
+
+  /**
+   * Returns whether errors are currently resolved in degraded mode.
+   */
+  public boolean isDegraded() {
+    return isDegraded(System.nanoTime());
+  }
+
+  /**
+   * Returns whether errors are resolved in degraded mode at the given time. Recovery is reported
+   * even if no error has been counted since, same as the next error would find it.
+   *
+   * @param nanoTime the current value of {@link System#nanoTime()}
+   */
+  boolean isDegraded(long nanoTime) {
+    if (forced) {
+      return true;
+    }
+    if (!overloaded) {
+      return false;
+    }
+    long secondCount = currentSecondCount.get();
+    return !isRecovered(toSecond(nanoTime), secondOf(secondCount), countOf(secondCount));
+  }
+
+  /**
+   * Returns the number of errors resolved in degraded mode so far.
+   */
+  public long getShedCount() {
+    return shedCount.get();
+  }
+
+  /**
+   * Counts an error at the given time, and returns whether it is to be resolved in degraded mode.
+   *
+   * @param nanoTime the current value of {@link System#nanoTime()}
+   */
+  boolean record(long nanoTime) {
+    int second = toSecond(nanoTime);
+    long secondCount;
+    long updated;
+    do {
+      secondCount = currentSecondCount.get();
+      if (secondOf(secondCount) != second) {
+        updated = (long) second << 32 | 1;
+      } else if (countOf(secondCount) < Integer.MAX_VALUE) {
+        updated = secondCount + 1;
+      } else {
+        updated = secondCount;
+      }
+    } while (!currentSecondCount.compareAndSet(secondCount, updated));
+
+    int counted = secondOf(secondCount);
+    if (counted != second && overloaded && isRecovered(second, counted, countOf(secondCount))) {
+      // only the thread which moved to the new second evaluates the previous one
+      overloaded = false;
+    }
+    if (countOf(updated) >= threshold && !overloaded) {
+      overloaded = true;
+    }
+    if (forced || overloaded) {
+      shedCount.incrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether degraded mode is left in the given second, after the given number of errors in
+   * the last second they were counted in.
+   */
+  private boolean isRecovered(int second, int counted, long count) {
+    int elapsed = second - counted;
+    return elapsed > 1 || (elapsed == 1 && count < recoveryThreshold);
+  }
+
+  private static int toSecond(long nanoTime) {
+    return (int) Math.floorDiv(nanoTime, SECOND_NANOS);
+  }
+
+  private static int secondOf(long secondCount) {
+    return (int) (secondCount >>> 32);
+  }
+
+  private static long countOf(long secondCount) {
+    return secondCount & 0xFFFFFFFFL;
+  }
+
+  @Override
+  public String toString() {
+    return "OverloadShedding{" +
+        "threshold=" + threshold +
+        ", recoveryThreshold=" + recoveryThreshold +
+        ", forced=" + forced +
+        ", overloaded=" + overloaded +
+        '}';
+  }
+
+}
@@ -0,0 +1,28 @@
+package com.zbiljic.resterror.mapping;
+
+/**
+ * Values of the request an exception is mapped for, used by the {@code {request.*}} placeholders
+ * of the error messages. Implemented by each framework integration on top of its own request
+ * representation.
+ *
+ * @author Nemanja Zbiljic
+ */
+public interface RequestContext {
+
+  /**
+   * Returns the HTTP method of the request, or {@code null} if it is not known.
+   */
+  String getMethod();
+
+  /**
+   * Returns the path of the request, or {@code null} if it is not known.
+   */
+  String getPath();
+
+  /**
+   * Returns the value of the given request header, with multiple values joined with commas, or
+   * {@code null} if the request does not have it.
+   */
+  String getHeader(String name);
+
+}
@@ -0,0 +1,48 @@
+package com.zbiljic.resterror.mapping;
+
+import com.zbiljic.resterror.RestError;
+
+/**
+ * Receives metrics about the exceptions handled by {@link RestErrorResolver}.
+ *
+ * Implementations are called on the request path, from any number of threads concurrently, so
+ * they must be thread-safe and should not block.
+ *
+ * @author Nemanja Zbiljic
+ * @see InMemoryRestErrorMetrics
+ */
+public interface RestErrorMetrics {
+
+  /**
+   * Metrics which discard everything.
+   */
+  RestErrorMetrics NOOP = new RestErrorMetrics() {
+    @Override
+    public void recordMapped(String mappingName, RestError template, long resolutionNanos, boolean cacheHit) {
+    }
+
+    @Override
+    public void recordUnmapped(Class<? extends Throwable> exceptionClass, long resolutionNanos, boolean cacheHit) {
+    }
+  };
+
+  /**
+   * Records exception which was resolved to a mapping.
+   *
+   * @param mappingName     the name of the exception mapping, as configured
+   * @param template        the {@code RestError} template of the mapping
+   * @param resolutionNanos the time it took to resolve the mapping, in nanoseconds
+   * @param cacheHit        whether the exception type had already been resolved
+   */
+  void recordMapped(String mappingName, RestError template, long resolutionNanos, boolean cacheHit);
+
+  /**
+   * Records exception for which there is no mapping.
+   *
+   * @param exceptionClass  the type of the exception
+   * @param resolutionNanos the time it took to resolve the mapping, in nanoseconds
+   * @param cacheHit        whether the exception type had already been resolved
+   */
+  void recordUnmapped(Class<? extends Throwable> exceptionClass, long resolutionNanos, boolean cacheHit);
+
+}
@@ -0,0 +1,583 @@
+package com.zbiljic.resterror.mapping;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorBuilder;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.RestErrorRegistry;
+import com.zbiljic.resterror.TemplatedRestError;
+import com.zbiljic.resterror.mapping.lang.Classes;
+import com.zbiljic.resterror.mapping.lang.OrderPreservingProperties;
+import com.zbiljic.resterror.mapping.lang.Strings;
+
+/**
+ * Resolves exceptions to {@code RestError} instances, according to the configured exception
+ * mappings. It does not depend on any web framework; the framework integrations (the JAX-RS
+ * {@code ExceptionMapper}, the servlet {@code Filter}) only adapt their request to a {@link
+ * RequestContext}, and write the resolved error in their own way.
+ *
+ * Resolving does not block, nor depend on thread-local state, so a single instance can be shared
+ * by any number of threads, and by several integrations at once.
+ *
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorResolver {
+
+  public static final String DEFAULT_CONFIGURATION_FILE = "restErrors.properties";
+
+  /** The default name of the exception attribute: "exception". */
+  public static final String DEFAULT_EXCEPTION_MESSAGE_VALUE = "_exmsg";
+  public static final String EXCEPTION_CONFIG_DELIMITER = "|";
+
+  private static final String REST_ERROR_PROPERTY = "restError";
+  private static final String BASE_MORE_INFO_URL_PROPERTY = REST_ERROR_PROPERTY + ".baseMoreInfoUrl";
+  private static final String RETRY_AFTER_KEY = "retryAfter";
+  private static final String HEADER_KEY_PREFIX = "header.";
+
+  /** The default number of stack frames retained with {@link ThrowableRetention#SUMMARY}. */
+  public static final int DEFAULT_RETAINED_FRAMES = 10;
+
+  private final RestErrorRegistry registry;
+
+  private final AtomicReference<ExceptionMappingIndex> exceptionMappings =
+      new AtomicReference<>(ExceptionMappingIndex.EMPTY);
+
+  private volatile ThrowableRetention throwableRetention = ThrowableRetention.FULL;
+  private volatile int retainedFrames = DEFAULT_RETAINED_FRAMES;
+  private volatile RestErrorMetrics metrics = RestErrorMetrics.NOOP;
+  private volatile SampledExceptionLogger exceptionLogger;
+  private volatile CauseUnwrapping causeUnwrapping = CauseUnwrapping.DEFAULT;
+  private volatile OverloadShedding overloadShedding;
+
+  public RestErrorResolver() {
+    this(DEFAULT_CONFIGURATION_FILE);
+  }
+
+  public RestErrorResolver(String configurationFile) {
+    this(Classes.getResourceAsStream(configurationFile));
+  }
+
+  public RestErrorResolver(InputStream configurationStream) {
+    this(configurationStream, RestErrorFactory.getRegistry());
+  }
+
+  /**
+   * @param configurationStream the configuration
+   * @param registry            the registry of application errors, consulted for mappings which
+   *                            configure only the {@code code} of the error
+   */
+  public RestErrorResolver(InputStream configurationStream, RestErrorRegistry registry) {
+    if (registry == null) {
+      throw new IllegalArgumentException("Registry cannot be null");
+    }
+    this.registry = registry;
+    load(configurationStream);
+  }
+
+  /**
+   * Replaces all exception mappings, including the registered ones, with the mappings read from the
+   * given configuration. The configuration is fully parsed before the mappings are replaced, so if
+   * it is invalid the current mappings are kept.
+   *
+   * @param configurationStream the configuration, closed after it has been read
+   * @throws IllegalArgumentException if the configuration is invalid
+   * @throws IllegalStateException if the configuration is invalid, or cannot be read
+   */
+  public void load(InputStream configurationStream) {
+    OrderPreservingProperties props = new OrderPreservingProperties();
+    props.load(configurationStream);
+    setExceptionMappings(ExceptionMappingIndex.compile(toRestErrors(props, registry)));
+  }
+
+  public <T extends Throwable> void register(Class<T> clazz, RestError restError) {
+    this.register(clazz.getName(), restError);
+  }
+
+  /**
+   * Registers mapping of the given exception class to the error registered with the given code in
+   * the {@link #getRegistry() registry}.
+   *
+   * @throws IllegalArgumentException if there is no error registered with the code
+   */
+  public <T extends Throwable> void register(Class<T> clazz, int code) {
+    RestError restError = registry.get(code);
+    if (restError == null) {
+      throw new IllegalArgumentException("No RestError registered with code " + code);
+    }
+    this.register(clazz.getName(), restError);
+  }
+
+  public void register(String className, RestError restError) {
+    if (className == null) {
+      throw new IllegalArgumentException("Class name cannot be null");
+    }
+    registerAll(Collections.singletonMap(className, restError));
+  }
+
+  /**
+   * Registers all given mappings of exception class names to {@code RestError} templates at once.
+   * Concurrent {@link #resolve(Throwable, RequestContext)} calls see either none or all of them.
+   *
+   * @param mappings the mappings to register, in order of precedence
+   */
+  public void registerAll(Map<String, RestError> mappings) {
+    if (mappings == null) {
+      throw new IllegalArgumentException("Mappings cannot be null");
+    }
+    ExceptionMappingIndex current;
+    ExceptionMappingIndex updated;
+    do {
+      current = exceptionMappings.get();
+      updated = current.withMappings(mappings);
+    } while (!exceptionMappings.compareAndSet(current, updated));
+  }
+
+  /**
+   * Returns the registry of application errors used by this resolver.
+   */
+  public RestErrorRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Returns the currently used index of exception mappings.
+   */
+  public ExceptionMappingIndex getExceptionMappings() {
+    return exceptionMappings.get();
+  }
+
+  /**
+   * Replaces all exception mappings with the given index.
+   */
+  public void setExceptionMappings(ExceptionMappingIndex exceptionMappings) {
+    if (exceptionMappings == null) {
+      throw new IllegalArgumentException("Exception mappings cannot be null");
+    }
+    this.exceptionMappings.set(exceptionMappings);
+  }
+
+  public ThrowableRetention getThrowableRetention() {
+    return throwableRetention;
+  }
+
+  /**
+   * Sets how much of the mapped exception is retained by the produced errors. Defaults to {@link
+   * ThrowableRetention#FULL}.
+   */
+  public void setThrowableRetention(ThrowableRetention throwableRetention) {
+    if (throwableRetention == null) {
+      throw new IllegalArgumentException("Throwable retention cannot be null");
+    }
+    this.throwableRetention = throwableRetention;
+  }
+
+  public int getRetainedFrames() {
+    return retainedFrames;
+  }
+
+  /**
+   * Sets the maximum number of stack frames retained with {@link ThrowableRetention#SUMMARY}.
+   * Defaults to {@value #DEFAULT_RETAINED_FRAMES}.
+   */
+  public void setRetainedFrames(int retainedFrames) {
+    if (retainedFrames < 0) {
+      throw new IllegalArgumentException("Number of retained frames cannot be negative");
+    }
+    this.retainedFrames = retainedFrames;
+  }
+
+  public RestErrorMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Sets the metrics notified of every resolved exception. Defaults to {@link
+   * RestErrorMetrics#NOOP}.
+   */
+  public void setMetrics(RestErrorMetrics metrics) {
+    if (metrics == null) {
+      throw new IllegalArgumentException("Metrics cannot be null");
+    }
+    this.metrics = metrics;
+  }
+
+  public SampledExceptionLogger getExceptionLogger() {
+    return exceptionLogger;
+  }
+
+  /**
+   * Sets the logger of resolved exceptions, or {@code null} to not log them. Exceptions are not
+   * logged by default.
+   */
+  public void setExceptionLogger(SampledExceptionLogger exceptionLogger) {
+    this.exceptionLogger = exceptionLogger;
+  }
+
+  public CauseUnwrapping getCauseUnwrapping() {
+    return causeUnwrapping;
+  }
+
+  /**
+   * Sets which wrapper exceptions are unwrapped when looking for the exception mapping. Defaults
+   * to {@link CauseUnwrapping#DEFAULT}; use {@link CauseUnwrapping#NONE} to only map the thrown
+   * exception itself. When a cause is mapped, the error messages are rendered from it.
+   */
+  public void setCauseUnwrapping(CauseUnwrapping causeUnwrapping) {
+    if (causeUnwrapping == null) {
+      throw new IllegalArgumentException("CauseUnwrapping cannot be null");
+    }
+    this.causeUnwrapping = causeUnwrapping;
+  }
+
+  public OverloadShedding getOverloadShedding() {
+    return overloadShedding;
+  }
+
+  /**
+   * Sets the shedding which switches resolving into degraded mode while there are too many errors,
+   * or {@code null} to never switch. There is no shedding by default.
+   */
+  public void setOverloadShedding(OverloadShedding overloadShedding) {
+    this.overloadShedding = overloadShedding;
+  }
+
+  /**
+   * Resolves the error the given exception is mapped to, with its messages rendered for the
+   * exception and the given request. In degraded mode (see {@link OverloadShedding}), the generic
+   * error of the mapped status is returned instead.
+   *
+   * @param t       the exception to resolve
+   * @param request the request the exception is resolved for, may be {@code null} outside of a
+   *                request
+   * @return the error, or {@code null} if the exception is not mapped
+   */
+  public RestError resolve(Throwable t, RequestContext request) {
+    ExceptionMappingIndex.Mapping mapping = null;
+    Throwable mapped = t;
+    CauseUnwrapping causeUnwrapping = this.causeUnwrapping;
+    if (causeUnwrapping.isWrapping(t)) {
+      List<Throwable> causeChain = causeUnwrapping.causeChain(t);
+      ExceptionMappingIndex.CauseChainMatch match = resolveMapping(t, causeChain);
+      if (match != null) {
+        mapping = match.getMapping();
+        mapped = causeChain.get(match.getIndex());
+      }
+    } else {
+      mapping = resolveMapping(t);
+    }
+
+    SampledExceptionLogger exceptionLogger = this.exceptionLogger;
+    if (exceptionLogger != null) {
+      exceptionLogger.log(t, mapping);
+    }
+
+    OverloadShedding overloadShedding = this.overloadShedding;
+    boolean degraded = overloadShedding != null && overloadShedding.record(System.nanoTime());
+
+    if (mapping == null) {
+      return null;
+    }
+    return degraded ? mapping.degradedError : getRestError(mapping, mapped, request);
+  }
+
+  private RestError getRestError(ExceptionMappingIndex.Mapping mapping, Throwable t, RequestContext request) {
+    RestError template = mapping.getTemplate();
+    return new TemplatedRestError(
+        template,
+        getMessage(template.getMessage(), mapping.message.render(t, request), t),
+        getMessage(template.getDeveloperMessage(), mapping.developerMessage.render(t, request), t),
+        retainThrowable(t));
+  }
+
+  private ExceptionMappingIndex.Mapping resolveMapping(Throwable t) {
+    ExceptionMappingIndex index = this.exceptionMappings.get();
+    RestErrorMetrics metrics = this.metrics;
+    if (metrics == RestErrorMetrics.NOOP) {
+      return index.find(t.getClass());
+    }
+
+    long start = System.nanoTime();
+    boolean cacheHit = index.isResolved(t.getClass());
+    ExceptionMappingIndex.Mapping mapping = index.find(t.getClass());
+    long resolutionNanos = System.nanoTime() - start;
+
+    if (mapping == null) {
+      metrics.recordUnmapped(t.getClass(), resolutionNanos, cacheHit);
+    } else {
+      metrics.recordMapped(mapping.getName(), mapping.getTemplate(), resolutionNanos, cacheHit);
+    }
+    return mapping;
+  }
+
+  private ExceptionMappingIndex.CauseChainMatch resolveMapping(Throwable t, List<Throwable> causeChain) {
+    ExceptionMappingIndex index = this.exceptionMappings.get();
+    RestErrorMetrics metrics = this.metrics;
+    if (metrics == RestErrorMetrics.NOOP) {
+      return index.findInCauseChain(causeChain);
+    }
+
+    long start = System.nanoTime();
+    boolean cacheHit = index.isCauseChainResolved(causeChain);
+    ExceptionMappingIndex.CauseChainMatch match = index.findInCauseChain(causeChain);
+    long resolutionNanos = System.nanoTime() - start;
+
+    if (match == null) {
+      metrics.recordUnmapped(t.getClass(), resolutionNanos, cacheHit);
+    } else {
+      metrics.recordMapped(match.getMapping().getName(), match.getMapping().getTemplate(), resolutionNanos, cacheHit);
+    }
+    return match;
+  }
+
+  /**
+   * Returns the message to return to the client, or {@code null} if no message should be
+   * returned. Called for the message and the developer message of each resolved error, except in
+   * degraded mode. Returns the rendered message by default.
+   *
+   * @param message  the configured message, with its placeholders
+   * @param rendered the configured message, with its placeholders filled in
+   * @param t        the mapped exception
+   */
+  protected String getMessage(String message, String rendered, Throwable t) {
+    return rendered;
+  }
+
+  /**
+   * Renders the given message for the given exception, same as the configured messages are
+   * rendered. Unlike those, which are compiled once when they are loaded, the message is compiled
+   * on every call, so this is only meant for messages which are not configured.
+   *
+   * @param message the message, with its placeholders
+   * @param t       the exception
+   * @param request the current request, or {@code null} if there is none
+   * @return the rendered message
+   */
+  public static String renderMessage(String message, Throwable t, RequestContext request) {
+    return MessageTemplate.compile(message).render(t, request);
+  }
+
+  /**
+   * Returns the throwable to retain in the produced error, according to the configured {@link
+   * ThrowableRetention}.
+   */
+  protected Throwable retainThrowable(Throwable t) {
+    return throwableRetention.retain(t, retainedFrames);
+  }
+
+  private static Map<String, RestError> toRestErrors(Map<String, String> propertiesMap, RestErrorRegistry registry) {
+    if (propertiesMap == null || propertiesMap.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    final String baseMoreInfoUrl = getAndRemoveProperty(propertiesMap, BASE_MORE_INFO_URL_PROPERTY);
+
+    Map<String, RestError> map = new LinkedHashMap<>(propertiesMap.size());
+
+    for (Map.Entry<String, String> entry : propertiesMap.entrySet()) {
+      String key = entry.getKey();
+      String value = entry.getValue();
+      RestError template = postProcessRestErrorTemplate(toRestError(value, registry), baseMoreInfoUrl);
+      map.put(key, template);
+    }
+
+    return Collections.unmodifiableMap(map);
+  }
+
+  private static RestError postProcessRestErrorTemplate(RestError error, String baseMoreInfoUrl) {
+    RestErrorBuilder builder = RestErrorFactory.builderCopyOf(error);
+
+    if (error.getCode() <= 0) {
+      builder.withCode(error.getStatus());
+    }
+    if (error.getMessage() != null) {
+      if (error.getMessage().equalsIgnoreCase("null")
+          || error.getMessage().equalsIgnoreCase("off")) {
+        builder.withMessage(null);
+      }
+    }
+    if (error.getDeveloperMessage() != null) {
+      if (error.getDeveloperMessage().equalsIgnoreCase("null")
+          || error.getDeveloperMessage().equalsIgnoreCase("off")) {
+        builder.withDeveloperMessage(null);
+      }
+    }
+    if (error.getMoreInfo() == null && baseMoreInfoUrl != null) {
+      if (error.getCode() <= 0) {
+        builder.withMoreInfoUrl(String.format("%s%d", baseMoreInfoUrl, error.getStatus()));
+      } else {
+        builder.withMoreInfoUrl(String.format("%s%d", baseMoreInfoUrl, error.getCode()));
+      }
+    }
+
+    return builder.build();
+  }
+
+  private static RestError toRestError(String exceptionConfig, RestErrorRegistry registry) {
+    String[] values = Strings.delimitedListToStringArray(exceptionConfig, EXCEPTION_CONFIG_DELIMITER);
+    if (values == null || values.length == 0) {
+      throw new IllegalStateException("Invalid config mapping. Exception names must map to a string configuration.");
+    }
+
+    RestErrorBuilder builder = RestErrorFactory.builder();
+
+    //response headers are not counted among the mapped values:
+    int valueCount = 0;
+    for (String value : values) {
+      if (!isHeaderValue(value.trim())) {
+        valueCount++;
+      }
+    }
+    if (valueCount > 5) {
+      throw new IllegalStateException("Invalid config mapping. Mapped values must not contain more than 5 values (status=v, code=w, msg=x, devMsg=y, moreInfoUrl=z)");
+    }
+
+    boolean statusSet = false;
+    boolean codeSet = false;
+    boolean msgSet = false;
+    boolean devMsgSet = false;
+    boolean moreInfoUrlSet = false;
+    int code = 0;
+
+    for (String value : values) {
+
+      String trimmedVal = value.trim();
+
+      //check to see if the value is an explicitly named key/value pair:
+      String[] pair = Strings.split(trimmedVal, "=");
+      if (pair != null) {
+        //explicit attribute set:
+        String pairKey = Strings.trimWhitespace(pair[0]);
+        if (!Strings.hasText(pairKey)) {
+          pairKey = null;
+        }
+        String pairValue = Strings.trimWhitespace(pair[1]);
+        if (!Strings.hasText(pairValue)) {
+          pairValue = null;
+        }
+        if ("status".equalsIgnoreCase(pairKey)) {
+          int statusCode = getRequiredInt(pairKey, pairValue);
+          builder.withStatus(statusCode);
+          statusSet = true;
+        } else if ("code".equalsIgnoreCase(pairKey)) {
+          code = getRequiredInt(pairKey, pairValue);
+          builder.withCode(code);
+          codeSet = true;
+        } else if ("msg".equalsIgnoreCase(pairKey)) {
+          builder.withMessage(pairValue);
+          msgSet = true;
+        } else if ("devMsg".equalsIgnoreCase(pairKey)) {
+          builder.withDeveloperMessage(pairValue);
+          devMsgSet = true;
+        } else if ("moreInfoUrl".equalsIgnoreCase(pairKey)) {
+          builder.withMoreInfoUrl(pairValue);
+          moreInfoUrlSet = true;
+        } else if (RETRY_AFTER_KEY.equalsIgnoreCase(pairKey)) {
+          int seconds = getRequiredInt(pairKey, pairValue);
+          if (seconds < 0) {
+            throw new IllegalArgumentException("Configuration element '" + pairKey + "' cannot be negative: " + pairValue);
+          }
+          builder.withRetryAfter(seconds);
+        } else if (pairKey != null && pairKey.startsWith(HEADER_KEY_PREFIX)) {
+          builder.withHeader(pairKey.substring(HEADER_KEY_PREFIX.length()), pairValue == null ? "" : pairValue);
+        }
+      } else {
+        //not a key/value pair - use heuristics to determine what value is being set:
+        int val;
+        if (!statusSet) {
+          val = getInt("status", trimmedVal);
+          if (val > 0) {
+            builder.withStatus(val);
+            statusSet = true;
+            continue;
+          }
+        }
+        if (!codeSet) {
+          val = getInt("code", trimmedVal);
+          if (val > 0) {
+            code = val;
+            builder.withCode(val);
+            codeSet = true;
+            continue;
+          }
+        }
+        if (!msgSet) {
+          builder.withMessage(trimmedVal);
+          msgSet = true;
+          continue;
+        }
+        if (!devMsgSet) {
+          builder.withDeveloperMessage(trimmedVal);
+          devMsgSet = true;
+          continue;
+        }
+        if (!moreInfoUrlSet) {
+          builder.withMoreInfoUrl(trimmedVal);
+          moreInfoUrlSet = true;
+          //noinspection UnnecessaryContinue
+          continue;
+        }
+      }
+    }
+
+    //only the code is configured - the rest comes from the registered error with that code:
+    if (!statusSet && codeSet) {
+      RestError registered = registry.get(code);
+      if (registered != null) {
+        builder.withStatus(registered.getStatus());
+        if (!msgSet) {
+          builder.withMessage(registered.getMessage());
+        }
+        if (!devMsgSet) {
+          builder.withDeveloperMessage(registered.getDeveloperMessage());
+        }
+        if (!moreInfoUrlSet) {
+          builder.withMoreInfoUrl(registered.getMoreInfo());
+        }
+      }
+    }
+
+    return builder.build();
+  }
+
+  private static boolean isHeaderValue(String value) {
+    String[] pair = Strings.split(value, "=");
+    if (pair == null) {
+      return false;
+    }
+    String pairKey = Strings.trimWhitespace(pair[0]);
+    return RETRY_AFTER_KEY.equalsIgnoreCase(pairKey) || pairKey.startsWith(HEADER_KEY_PREFIX);
+  }
+
+  private static String getAndRemoveProperty(Map<String, String> propertiesMap, String key) {
+    String value = propertiesMap.get(key);
+    if (value != null) {
+      propertiesMap.remove(key);
+    }
+    return value;
+  }
+
+  private static int getRequiredInt(String key, String value) {
+    try {
+      int anInt = Integer.parseInt(value);
+      return Math.max(-1, anInt);
+    } catch (NumberFormatException e) {
+      String msg = String.format("Configuration element '%s' requires an integer value.  The value specified: %s", key, value);
+      throw new IllegalArgumentException(msg, e);
+    }
+  }
+
+  private static int getInt(String key, String value) {
+    try {
+      return getRequiredInt(key, value);
+    } catch (IllegalArgumentException iae) {
+      return 0;
+    }
+  }
+
+}
@@ -0,0 +1,274 @@
+package com.zbiljic.resterror.mapping;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs the exceptions handled by {@link RestErrorResolver}, without flooding the log when
+ * the same exception is thrown over and over again.
+ *
+ * Occurrences are logged per exception class and mapping, rate limited by a token bucket which
+ * allows a burst of {@code permits} occurrences, refilled evenly over the configured period. The
+ * first occurrence is logged with its full stack trace, the following ones only with their
+ * message. Occurrences over the limit are only counted, and once {@link #start() started}, a
+ * background thread logs the number of these per period. A wrapper exception resolved to the
+ * mappings of its different causes is counted separately per mapping. Once the mappings are
+ * reloaded, the occurrences counted with the previous ones are logged, and counted anew.
+ *
+ * Unmapped exceptions, and exceptions mapped to server errors, are logged as errors. Other
+ * exceptions are logged at debug level.
+ *
+ * @author Nemanja Zbiljic
+ */
+public final class SampledExceptionLogger implements Closeable {
+
+  /** The default number of logged occurrences of the same exception per period. */
+  public static final int DEFAULT_PERMITS = 5;
+
+  /** The default period, in seconds. */
+  public static final long DEFAULT_PERIOD_SECONDS = 60;
+
+  private final Logger logger;
+  private final long periodNanos;
+  private final long emissionIntervalNanos;
+  private final long burstToleranceNanos;
+
+  private final ConcurrentMap<Key, Occurrences> occurrences = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService executor;
+
+  public SampledExceptionLogger() {
+    this(LoggerFactory.getLogger(RestErrorResolver.class), DEFAULT_PERMITS, DEFAULT_PERIOD_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * @param logger  the logger to log to
+   * @param permits the number of logged occurrences of the same exception per period
+   * @param period  the period
+   * @param unit    the unit of the period
+   */
+  public SampledExceptionLogger(Logger logger, int permits, long period, TimeUnit unit) {
+    if (logger == null) {
+      throw new IllegalArgumentException("Logger cannot be null");
+    }
+    if (permits <= 0) {
+      throw new IllegalArgumentException("Number of permits must be positive");
+    }
+    if (period <= 0) {
+      throw new IllegalArgumentException("Period must be positive");
+    }
+    this.logger = logger;
+    this.periodNanos = unit.toNanos(period);
+    this.emissionIntervalNanos = Math.max(1, periodNanos / permits);
+    this.burstToleranceNanos = periodNanos - emissionIntervalNanos;
+  }
+
+  /**
+   * Starts logging the number of suppressed occurrences in a background daemon thread, once per
+   * period.
+   */
+  public synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+    executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "rest-error-logger");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    executor.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        flush();
+      }
+    }, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Stops the background thread, and logs the occurrences suppressed so far.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (executor != null) {
+        executor.shutdownNow();
+        executor = null;
+      }
+    }
+    flush();
+  }
+
+  /**
+   * Logs occurrence of the given exception.
+   *
+   * @param t       the exception
+   * @param mapping the mapping the exception was resolved to, or {@code null} if it is unmapped
+   */
+  public void log(Throwable t, ExceptionMappingIndex.Mapping mapping) {
+    boolean error = mapping == null || mapping.getTemplate().getStatus() >= 500;
+    if (error ? !logger.isErrorEnabled() : !logger.isDebugEnabled()) {
+      return;
+    }
+
+    Occurrences occurrences = occurrencesOf(t.getClass(), mapping, error);
+    if (!occurrences.tryAcquire(System.nanoTime())) {
+      occurrences.suppressed.increment();
+      return;
+    }
+
+    if (occurrences.logged.compareAndSet(false, true)) {
+      String msg = String.format("Mapped exception of type [%s] to exception mapping [%s]", t.getClass().getName(), occurrences.key.mappingName);
+      if (error) {
+        logger.error(msg, t);
+      } else {
+        logger.debug(msg, t);
+      }
+    } else {
+      String format = "Mapped exception of type [{}] to exception mapping [{}]: {}";
+      if (error) {
+        logger.error(format, t.getClass().getName(), occurrences.key.mappingName, t.getMessage());
+      } else {
+        logger.debug(format, t.getClass().getName(), occurrences.key.mappingName, t.getMessage());
+      }
+    }
+  }
+
+  private Occurrences occurrencesOf(Class<?> exceptionClass, ExceptionMappingIndex.Mapping mapping, boolean error) {
+    Key key = new Key(exceptionClass, mapping == null ? null : mapping.getName(), error);
+    Occurrences current = occurrences.get(key);
+    while (current == null || current.mapping != mapping) {
+      // first occurrence, or the mappings have been reloaded since
+      Occurrences created = new Occurrences(key, mapping, System.nanoTime());
+      if (current == null) {
+        current = occurrences.putIfAbsent(key, created);
+        if (current == null) {
+          return created;
+        }
+      } else if (occurrences.replace(key, current, created)) {
+        current.flush();
+        return created;
+      } else {
+        current = occurrences.get(key);
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Logs the number of occurrences suppressed since the last flush, along with the time elapsed
+   * since then.
+   */
+  public void flush() {
+    for (Occurrences o : occurrences.values()) {
+      o.flush();
+    }
+  }
+
+  private void logSuppressed(Occurrences occurrences, long count, long elapsedNanos) {
+    String format = "{} more occurrences of exception of type [{}], mapped to exception mapping [{}], in the last {} ms";
+    long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    if (occurrences.key.error) {
+      logger.error(format, count, occurrences.key.exceptionClass.getName(), occurrences.key.mappingName, millis);
+    } else {
+      logger.debug(format, count, occurrences.key.exceptionClass.getName(), occurrences.key.mappingName, millis);
+    }
+  }
+
+  /**
+   * Exception class and the name of the mapping it was resolved to, e.g. a wrapper exception
+   * resolved to the mappings of its different causes.
+   */
+  private static final class Key {
+
+    final Class<?> exceptionClass;
+    final String mappingName;
+    final boolean error;
+
+    Key(Class<?> exceptionClass, String mappingName, boolean error) {
+      this.exceptionClass = exceptionClass;
+      this.mappingName = mappingName;
+      this.error = error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      Key key = (Key) o;
+
+      if (error != key.error) return false;
+      if (!exceptionClass.equals(key.exceptionClass)) return false;
+      return mappingName != null ? mappingName.equals(key.mappingName) : key.mappingName == null;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = exceptionClass.hashCode();
+      result = 31 * result + (mappingName != null ? mappingName.hashCode() : 0);
+      result = 31 * result + (error ? 1 : 0);
+      return result;
+    }
+  }
+
+  /**
+   * Occurrences of single exception class, mapped to single mapping. Rate limited with the generic
+   * cell rate algorithm, which is equivalent to a token bucket but needs a single atomic value.
+   */
+  private final class Occurrences {
+
+    final Key key;
+    /** The mapping of the current mappings, replaced along with the occurrences once reloaded. */
+    final ExceptionMappingIndex.Mapping mapping;
+    final AtomicLong theoreticalArrivalNanos;
+    final AtomicBoolean logged = new AtomicBoolean();
+    final LongAdder suppressed = new LongAdder();
+    /** The start of the window the suppressed occurrences are counted in. */
+    final AtomicLong lastFlushNanos;
+
+    Occurrences(Key key, ExceptionMappingIndex.Mapping mapping, long nowNanos) {
+      this.key = key;
+      this.mapping = mapping;
+      this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+      this.lastFlushNanos = new AtomicLong(nowNanos);
+    }
+
+    boolean tryAcquire(long nowNanos) {
+      for (;;) {
+        long tat = theoreticalArrivalNanos.get();
+        long base = tat - nowNanos < 0 ? nowNanos : tat;
+        if (base - nowNanos > burstToleranceNanos) {
+          return false;
+        }
+        if (theoreticalArrivalNanos.compareAndSet(tat, base + emissionIntervalNanos)) {
+          return true;
+        }
+      }
+    }
+
+    void flush() {
+      long nowNanos = System.nanoTime();
+      long count = suppressed.sumThenReset();
+      long sinceNanos = lastFlushNanos.getAndSet(nowNanos);
+      if (count > 0) {
+        // flushed on close, or when the mappings change, the window is shorter than the period
+        logSuppressed(this, count, nowNanos - sinceNanos);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,56 @@
+package com.zbiljic.resterror.mapping;
+
+/**
+ * Defines how much of the mapped exception is retained by the {@code RestError} produced by {@link
+ * RestErrorResolver}.
+ *
+ * Retaining the exception keeps its stack trace and cause chain reachable for as long as the error
+ * itself, which for a high volume of error responses can add up to a lot of memory.
+ *
+ * @author Nemanja Zbiljic
+ */
+public enum ThrowableRetention {
+
+  /**
+   * The exception itself is retained.
+   */
+  FULL,
+
+  /**
+   * A {@link ThrowableSummary} with the class name, message and a limited number of stack frames
+   * of the exception is retained. The frames are copied only once the summary is read, until then
+   * the exception itself is referenced.
+   */
+  SUMMARY,
+
+  /**
+   * A {@link ThrowableSummary} with only the class name of the exception is retained.
+   */
+  CLASS_NAME,
+
+  /**
+   * Nothing is retained.
+   */
+  NONE;
+
+  /**
+   * Returns what is retained of the given exception.
+   *
+   * @param t              the exception
+   * @param retainedFrames the maximum number of stack frames retained by {@link #SUMMARY}
+   * @return what is retained of the exception, or {@code null} if nothing is retained
+   */
+  public Throwable retain(Throwable t, int retainedFrames) {
+    switch (this) {
+      case NONE:
+        return null;
+      case CLASS_NAME:
+        return ThrowableSummary.classNameOf(t);
+      case SUMMARY:
+        return ThrowableSummary.of(t, retainedFrames);
+      case FULL:
+      default:
+        return t;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.zbiljic.resterror.mapping;
+
+import java.io.ObjectStreamException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Lightweight stand-in for a mapped exception, which does not reference the original exception or
+ * its causes once its stack frames are read.
+ *
+ * The frames are copied lazily: the summary references the summarized exception until its stack
+ * trace is first read (e.g. when the summary is logged), and only then copies the top frames of
+ * it. Reading the stack trace of an exception materializes and copies all of its frames, so that
+ * cost is paid only by the summaries which are actually read, and not for each mapped exception.
+ *
+ * @author Nemanja Zbiljic
+ * @see ThrowableRetention
+ */
+public final class ThrowableSummary extends Throwable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final StackTraceElement[] NO_FRAMES = new StackTraceElement[0];
+
+  private final String throwableClassName;
+  private final int maxFrames;
+  /** The summarized throwable, until its frames are copied. */
+  private transient volatile Throwable summarized;
+
+  private ThrowableSummary(String throwableClassName, String message, Throwable summarized, int maxFrames) {
+    super(message, null, false, true);
+    this.throwableClassName = throwableClassName;
+    this.maxFrames = maxFrames;
+    this.summarized = summarized;
+    super.setStackTrace(NO_FRAMES);
+  }
+
+  /**
+   * Returns summary of the given throwable, retaining only its class name.
+   */
+  public static ThrowableSummary classNameOf(Throwable t) {
+    return new ThrowableSummary(t.getClass().getName(), null, null, 0);
+  }
+
+  /**
+   * Returns summary of the given throwable, retaining its class name, message and at most {@code
+   * maxFrames} top frames of its stack trace. The frames are copied once they are first read.
+   */
+  public static ThrowableSummary of(Throwable t, int maxFrames) {
+    return new ThrowableSummary(t.getClass().getName(), t.getMessage(), maxFrames > 0 ? t : null, maxFrames);
+  }
+
+  /**
+   * Returns the class name of the summarized throwable.
+   */
+  public String getThrowableClassName() {
+    return throwableClassName;
+  }
+
+  /**
+   * Does not capture the stack trace, it is copied from the summarized throwable instead.
+   */
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+
+  @Override
+  public StackTraceElement[] getStackTrace() {
+    copyFrames();
+    return super.getStackTrace();
+  }
+
+  @Override
+  public void setStackTrace(StackTraceElement[] stackTrace) {
+    summarized = null;
+    super.setStackTrace(stackTrace);
+  }
+
+  @Override
+  public void printStackTrace(PrintStream s) {
+    copyFrames();
+    super.printStackTrace(s);
+  }
+
+  @Override
+  public void printStackTrace(PrintWriter s) {
+    copyFrames();
+    super.printStackTrace(s);
+  }
+
+  private void copyFrames() {
+    if (summarized == null) {
+      return;
+    }
+    synchronized (this) {
+      Throwable t = summarized;
+      if (t != null) {
+        StackTraceElement[] stackTrace = t.getStackTrace();
+        super.setStackTrace(Arrays.copyOf(stackTrace, Math.min(maxFrames, stackTrace.length)));
+        summarized = null;
+      }
+    }
+  }
+
+  private Object writeReplace() throws ObjectStreamException {
+    copyFrames();
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    String message = getLocalizedMessage();
+    return (message != null) ? (throwableClassName + ": " + message) : throwableClassName;
+  }
+}
@@ -1,4 +1,4 @@
-package com.zbiljic.resterror.ws.rs.lang;
+package com.zbiljic.resterror.mapping.lang;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,6 +56,32 @@ public class Classes {
     return is;
   }
 
+  /**
+   * Attempts to load the specified class name from the current thread's {@link
+   * Thread#getContextClassLoader() context class loader}, then the current ClassLoader
+   * (<code>Classes.class.getClassLoader()</code>), then the system/application ClassLoader
+   * (<code>ClassLoader.getSystemClassLoader()</code>, in that order. The class is not
+   * initialized.
+   *
+   * @param fqcn the fully qualified class name to load
+   * @return the located class, or <code>null</code> if the class cannot be found from any of the
+   * three mentioned ClassLoaders.
+   */
+  public static <T> Class<T> loadClass(String fqcn) {
+
+    Class<T> clazz = THREAD_CL_ACCESSOR.loadClass(fqcn);
+
+    if (clazz == null) {
+      clazz = CLASS_CL_ACCESSOR.loadClass(fqcn);
+    }
+
+    if (clazz == null) {
+      clazz = SYSTEM_CL_ACCESSOR.loadClass(fqcn);
+    }
+
+    return clazz;
+  }
+
   private static interface ClassLoaderAccessor {
     <T> Class<T> loadClass(String fqcn);
 
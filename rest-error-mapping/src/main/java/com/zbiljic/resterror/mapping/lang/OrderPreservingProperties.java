@@ -1,11 +1,14 @@
-package com.zbiljic.resterror.ws.rs.lang;
+package com.zbiljic.resterror.mapping.lang;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
 import java.util.Set;
 
 /**
@@ -35,16 +38,58 @@ public class OrderPreservingProperties implements Map<String, String> {
    * @param is the {@code InputStream} from which to read the INI-formatted text
    */
   public void load(InputStream is) {
-    //convert InputStream into a String in one shot:
-    String string;
+    load(new InputStreamReader(is, Charset.forName(DEFAULT_CHARSET_NAME)));
+  }
+
+  /**
+   * Loads the .properties backed by the given Reader into this instance.  The content is parsed in
+   * a single pass, line by line, as it is read.  This implementation will close the reader after it
+   * has finished loading.
+   *
+   * @param reader the {@code Reader} from which to read the INI-formatted text
+   */
+  public void load(Reader reader) {
+    BufferedReader bufferedReader = reader instanceof BufferedReader
+        ? (BufferedReader) reader
+        : new BufferedReader(reader);
     try {
-      string = new Scanner(is, DEFAULT_CHARSET_NAME).useDelimiter("\\A").next();
-    } catch (NoSuchElementException e) {
-      string = "";
+      try {
+        load(bufferedReader);
+      } finally {
+        bufferedReader.close();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to read properties", e);
     }
+  }
+
+  private void load(BufferedReader reader) throws IOException {
+    String line;
+    StringBuilder lineBuffer = null;
+    while ((line = reader.readLine()) != null) {
+
+      line = Strings.clean(line);
+
+      if (line == null || line.startsWith(COMMENT_POUND) || line.startsWith(COMMENT_SEMICOLON)) {
+        //skip empty lines and comments:
+        continue;
+      }
 
-    Map<String, String> props = toMapProps(string);
-    putAll(props);
+      if (isContinued(line)) {
+        //strip off the last continuation backslash:
+        if (lineBuffer == null) {
+          lineBuffer = new StringBuilder(line.length() * 2);
+        }
+        lineBuffer.append(line, 0, line.length() - 1);
+        continue;
+      }
+      if (lineBuffer != null) {
+        line = lineBuffer.append(line).toString();
+        lineBuffer = null;
+      }
+      String[] kvPair = splitKeyValue(line);
+      this.props.put(kvPair[0], kvPair[1]);
+    }
   }
 
   //Protected to access in a test case
@@ -80,31 +125,24 @@ public class OrderPreservingProperties implements Map<String, String> {
     if (line == null) {
       return null;
     }
-    StringBuilder keyBuffer = new StringBuilder();
-    StringBuilder valueBuffer = new StringBuilder();
-
-    boolean buildingKey = true; //we'll build the value next:
+    int length = line.length();
 
-    for (int i = 0; i < line.length(); i++) {
-      char c = line.charAt(i);
+    //the key ends at the first unescaped separator char:
+    int keyEnd = 0;
+    while (keyEnd < length
+        && !(isKeyValueSeparatorChar(line.charAt(keyEnd)) && !isCharEscaped(line, keyEnd))) {
+      keyEnd++;
+    }
 
-      if (buildingKey) {
-        if (isKeyValueSeparatorChar(c) && !isCharEscaped(line, i)) {
-          buildingKey = false; //now start building the value
-        } else {
-          keyBuffer.append(c);
-        }
-      } else {
-        if (valueBuffer.length() == 0 && isKeyValueSeparatorChar(c) && !isCharEscaped(line, i)) {
-          //swallow the separator chars before we start building the value
-        } else {
-          valueBuffer.append(c);
-        }
-      }
+    //swallow the separator chars before the value:
+    int valueStart = keyEnd;
+    while (valueStart < length
+        && isKeyValueSeparatorChar(line.charAt(valueStart)) && !isCharEscaped(line, valueStart)) {
+      valueStart++;
     }
 
-    String key = Strings.clean(keyBuffer.toString());
-    String value = Strings.clean(valueBuffer.toString());
+    String key = Strings.clean(line.substring(0, keyEnd));
+    String value = Strings.clean(line.substring(valueStart));
 
     if (key == null || value == null) {
       String msg = "Line argument must contain a key and a value.  Only one string token was found.";
@@ -114,37 +152,6 @@ public class OrderPreservingProperties implements Map<String, String> {
     return new String[]{key, value};
   }
 
-  private static Map<String, String> toMapProps(String content) {
-    Map<String, String> props = new LinkedHashMap<String, String>();
-    String line;
-    StringBuilder lineBuffer = new StringBuilder();
-    Scanner scanner = new Scanner(content);
-    while (scanner.hasNextLine()) {
-
-      line = Strings.clean(scanner.nextLine());
-
-      if (line == null || line.startsWith(COMMENT_POUND) || line.startsWith(COMMENT_SEMICOLON)) {
-        //skip empty lines and comments:
-        continue;
-      }
-
-      if (isContinued(line)) {
-        //strip off the last continuation backslash:
-        line = line.substring(0, line.length() - 1);
-        lineBuffer.append(line);
-        continue;
-      } else {
-        lineBuffer.append(line);
-      }
-      line = lineBuffer.toString();
-      lineBuffer = new StringBuilder();
-      String[] kvPair = splitKeyValue(line);
-      props.put(kvPair[0], kvPair[1]);
-    }
-
-    return props;
-  }
-
   public void clear() {
     this.props.clear();
   }
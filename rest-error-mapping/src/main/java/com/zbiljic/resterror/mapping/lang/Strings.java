@@ -1,4 +1,4 @@
-package com.zbiljic.resterror.ws.rs.lang;
+package com.zbiljic.resterror.mapping.lang;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -133,14 +133,15 @@ public abstract class Strings {
     if (!hasLength(str)) {
       return str;
     }
-    StringBuilder sb = new StringBuilder(str);
-    while (sb.length() > 0 && Character.isWhitespace(sb.charAt(0))) {
-      sb.deleteCharAt(0);
+    int start = 0;
+    int end = str.length();
+    while (start < end && Character.isWhitespace(str.charAt(start))) {
+      start++;
     }
-    while (sb.length() > 0 && Character.isWhitespace(sb.charAt(sb.length() - 1))) {
-      sb.deleteCharAt(sb.length() - 1);
+    while (end > start && Character.isWhitespace(str.charAt(end - 1))) {
+      end--;
     }
-    return sb.toString();
+    return str.substring(start, end);
   }
 
   /**
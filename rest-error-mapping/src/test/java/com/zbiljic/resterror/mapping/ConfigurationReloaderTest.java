@@ -0,0 +1,142 @@
+package com.zbiljic.resterror.mapping;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class ConfigurationReloaderTest {
+
+  private Path directory;
+  private Path file;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("rest-error");
+    file = directory.resolve("restErrors.properties");
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+    Files.deleteIfExists(directory);
+  }
+
+  private void write(String content) throws IOException {
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private RestErrorResolver newResolver() throws IOException {
+    return new RestErrorResolver(Files.newInputStream(file));
+  }
+
+  @Test
+  public void testReload() throws Exception {
+    write("java.lang.IllegalStateException = 409\n");
+    RestErrorResolver resolver = newResolver();
+
+    try (ConfigurationReloader reloader = ConfigurationReloader.forFile(resolver, file)) {
+      assertEquals(resolver.resolve(new IllegalStateException(), null).getStatus(), HttpStatus.CONFLICT.value());
+
+      write("java.lang.IllegalStateException = 503\n");
+      assertTrue(reloader.reload());
+      assertEquals(resolver.resolve(new IllegalStateException(), null).getStatus(), HttpStatus.SERVICE_UNAVAILABLE.value());
+      assertEquals(reloader.getReloadCount(), 1);
+      assertTrue(reloader.getLastReloadNanos() >= 0);
+
+      // unchanged
+      assertFalse(reloader.reload());
+      assertEquals(reloader.getReloadCount(), 1);
+    }
+  }
+
+  @Test
+  public void testKeepMappingsOnInvalidConfiguration() throws Exception {
+    write("java.lang.IllegalStateException = 409\n");
+    RestErrorResolver resolver = newResolver();
+
+    try (ConfigurationReloader reloader = ConfigurationReloader.forFile(resolver, file)) {
+      write("java.lang.IllegalStateException = status=conflict\n");
+      assertFalse(reloader.reload());
+      assertEquals(reloader.getFailureCount(), 1);
+      assertEquals(resolver.resolve(new IllegalStateException(), null).getStatus(), HttpStatus.CONFLICT.value());
+    }
+  }
+
+  @Test
+  public void testWatchFile() throws Exception {
+    write("java.lang.IllegalStateException = 409\n");
+    RestErrorResolver resolver = newResolver();
+
+    try (ConfigurationReloader reloader = ConfigurationReloader.forFile(resolver, file)) {
+      reloader.start();
+      write("java.lang.IllegalStateException = 503\n");
+
+      long deadline = System.currentTimeMillis() + 30000;
+      while (reloader.getReloadCount() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(50);
+      }
+      assertEquals(resolver.resolve(new IllegalStateException(), null).getStatus(), HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+  }
+
+  @Test
+  public void testStartTwice() throws Exception {
+    write("java.lang.IllegalStateException = 409\n");
+    awaitReloaderThreads(0);
+
+    try (ConfigurationReloader reloader = ConfigurationReloader.forFile(newResolver(), file)) {
+      reloader.start();
+      reloader.start();
+      assertEquals(reloaderThreads(), 1);
+    }
+    awaitReloaderThreads(0);
+  }
+
+  @Test
+  public void testStopWatchingDeletedDirectory() throws Exception {
+    write("java.lang.IllegalStateException = 409\n");
+    awaitReloaderThreads(0);
+
+    try (ConfigurationReloader reloader = ConfigurationReloader.forFile(newResolver(), file)) {
+      reloader.start();
+      assertEquals(reloaderThreads(), 1);
+
+      Files.delete(file);
+      Files.delete(directory);
+      awaitReloaderThreads(0);
+    }
+  }
+
+  private static void awaitReloaderThreads(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 30000;
+    while (reloaderThreads() != count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertEquals(reloaderThreads(), count);
+  }
+
+  private static int reloaderThreads() {
+    int count = 0;
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().equals("rest-error-reloader") && thread.isAlive()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+}
@@ -0,0 +1,163 @@
+package com.zbiljic.resterror.mapping;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class ExceptionMappingIndexTest {
+
+  private final RestError badRequest = RestErrorFactory.valueOf(HttpStatus.BAD_REQUEST);
+  private final RestError conflict = RestErrorFactory.valueOf(HttpStatus.CONFLICT);
+  private final RestError serviceUnavailable = RestErrorFactory.valueOf(HttpStatus.SERVICE_UNAVAILABLE);
+  private final RestError internalServerError = RestErrorFactory.valueOf(HttpStatus.INTERNAL_SERVER_ERROR);
+
+  @Test
+  public void testEmpty() {
+    assertThat(ExceptionMappingIndex.compile(null).resolve(IOException.class), nullValue());
+    assertThat(ExceptionMappingIndex.EMPTY.resolve(IOException.class), nullValue());
+  }
+
+  @Test
+  public void testResolveClosestSuperclass() {
+    Map<String, RestError> mappings = new LinkedHashMap<>();
+    mappings.put(Exception.class.getName(), internalServerError);
+    mappings.put(IOException.class.getName(), serviceUnavailable);
+    mappings.put(IllegalArgumentException.class.getName(), badRequest);
+    ExceptionMappingIndex index = ExceptionMappingIndex.compile(mappings);
+
+    assertThat(index.resolve(IOException.class), sameInstance(serviceUnavailable));
+    assertThat(index.resolve(SocketTimeoutException.class), sameInstance(serviceUnavailable));
+    assertThat(index.resolve(NumberFormatException.class), sameInstance(badRequest));
+    assertThat(index.resolve(IllegalStateException.class), sameInstance(internalServerError));
+    assertThat(index.resolve(AssertionError.class), nullValue());
+  }
+
+  @Test
+  public void testClassNameIsNotMatchedAsSubstring() {
+    Map<String, RestError> mappings = new LinkedHashMap<>();
+    mappings.put(Exception.class.getName(), internalServerError);
+    ExceptionMappingIndex index = ExceptionMappingIndex.compile(mappings);
+
+    // java.lang.ExceptionInInitializerError is not a java.lang.Exception
+    assertThat(index.resolve(ExceptionInInitializerError.class), nullValue());
+  }
+
+  @Test
+  public void testResolvePartialNames() {
+    Map<String, RestError> mappings = new LinkedHashMap<>();
+    mappings.put("java.net", serviceUnavailable);
+    mappings.put("IllegalState", conflict);
+    mappings.put("com.example.NotOnClasspathException", badRequest);
+    ExceptionMappingIndex index = ExceptionMappingIndex.compile(mappings);
+
+    assertThat(index.resolve(SocketTimeoutException.class), sameInstance(serviceUnavailable));
+    assertThat(index.resolve(IllegalStateException.class), sameInstance(conflict));
+    assertThat(index.resolve(IOException.class), nullValue());
+  }
+
+  @Test
+  public void testFirstConfiguredMappingWinsForSameClass() {
+    Map<String, RestError> mappings = new LinkedHashMap<>();
+    mappings.put("IllegalArgument", badRequest);
+    mappings.put(IllegalArgumentException.class.getName(), conflict);
+    assertThat(ExceptionMappingIndex.compile(mappings).resolve(IllegalArgumentException.class), sameInstance(badRequest));
+
+    mappings = new LinkedHashMap<>();
+    mappings.put(IllegalArgumentException.class.getName(), conflict);
+    mappings.put("IllegalArgument", badRequest);
+    assertThat(ExceptionMappingIndex.compile(mappings).resolve(IllegalArgumentException.class), sameInstance(conflict));
+  }
+
+  @Test
+  public void testWithMappings() {
+    Map<String, RestError> mappings = new LinkedHashMap<>();
+    mappings.put(IOException.class.getName(), serviceUnavailable);
+    ExceptionMappingIndex index = ExceptionMappingIndex.compile(mappings);
+    assertThat(index.resolve(SocketTimeoutException.class), sameInstance(serviceUnavailable));
+
+    mappings = new LinkedHashMap<>();
+    mappings.put(SocketTimeoutException.class.getName(), conflict);
+    ExceptionMappingIndex updated = index.withMappings(mappings);
+
+    assertThat(updated.resolve(SocketTimeoutException.class), sameInstance(conflict));
+    assertThat(index.resolve(SocketTimeoutException.class), sameInstance(serviceUnavailable));
+  }
+
+  @Test
+  public void testRequestHeaderNames() {
+    Map<String, RestError> mappings = new LinkedHashMap<>();
+    mappings.put(IOException.class.getName(), RestErrorFactory.builder()
+        .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+        .withMessage("Unavailable ({request.header.X-Request-Id})")
+        .withDeveloperMessage("{request.method} {request.header.Accept} {message}")
+        .build());
+    mappings.put(IllegalArgumentException.class.getName(), badRequest);
+
+    assertThat(ExceptionMappingIndex.compile(mappings).getRequestHeaderNames(),
+        containsInAnyOrder("X-Request-Id", "Accept"));
+    assertThat(ExceptionMappingIndex.EMPTY.getRequestHeaderNames(), empty());
+  }
+
+  @Test
+  public void testFindInCauseChain() {
+    Map<String, RestError> mappings = new LinkedHashMap<>();
+    mappings.put(Exception.class.getName(), internalServerError);
+    mappings.put(ExecutionException.class.getName(), conflict);
+    mappings.put(IllegalArgumentException.class.getName(), badRequest);
+    ExceptionMappingIndex index = ExceptionMappingIndex.compile(mappings);
+
+    // the cause is mapped as closely as the wrapper, and the innermost one wins
+    ExceptionMappingIndex.CauseChainMatch match = index.findInCauseChain(Arrays.asList(
+        new ExecutionException(null), new IllegalArgumentException()));
+    assertThat(match.getMapping().getTemplate(), sameInstance(badRequest));
+    assertThat(match.getIndex(), equalTo(1));
+
+    // the wrapper is mapped more closely than the cause
+    match = index.findInCauseChain(Arrays.asList(new ExecutionException(null), new IOException()));
+    assertThat(match.getMapping().getTemplate(), sameInstance(conflict));
+    assertThat(match.getIndex(), equalTo(0));
+
+    // the cause is mapped more closely than the wrapper
+    match = index.findInCauseChain(Arrays.asList(new CompletionException(null), new NumberFormatException()));
+    assertThat(match.getMapping().getTemplate(), sameInstance(badRequest));
+    assertThat(match.getIndex(), equalTo(1));
+
+    assertThat(index.findInCauseChain(Arrays.asList(new AssertionError(), new LinkageError())), nullValue());
+  }
+
+  @Test
+  public void testCauseChainIsCached() {
+    Map<String, RestError> mappings = new LinkedHashMap<>();
+    mappings.put(IllegalArgumentException.class.getName(), badRequest);
+    ExceptionMappingIndex index = ExceptionMappingIndex.compile(mappings);
+    List<Throwable> chain = Arrays.<Throwable>asList(new CompletionException(null), new IllegalArgumentException());
+
+    assertThat(index.isCauseChainResolved(chain), equalTo(false));
+    ExceptionMappingIndex.CauseChainMatch match = index.findInCauseChain(chain);
+    assertThat(index.isCauseChainResolved(chain), equalTo(true));
+    assertThat(index.findInCauseChain(Arrays.<Throwable>asList(new CompletionException(null), new IllegalArgumentException("other"))),
+        sameInstance(match));
+  }
+
+}
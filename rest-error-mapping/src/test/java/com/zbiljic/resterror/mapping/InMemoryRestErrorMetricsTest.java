@@ -0,0 +1,65 @@
+package com.zbiljic.resterror.mapping;
+
+import org.testng.annotations.Test;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class InMemoryRestErrorMetricsTest {
+
+  @Test
+  public void testCounts() throws Exception {
+    InMemoryRestErrorMetrics metrics = new InMemoryRestErrorMetrics();
+    RestError notFound = RestErrorFactory.builder().withStatus(HttpStatus.NOT_FOUND).withCode(40401).build();
+    RestError custom = RestErrorFactory.builder().withStatus(HttpStatus.SERVICE_UNAVAILABLE).withCode(1).build();
+
+    metrics.recordMapped("NotFoundException", notFound, 10, false);
+    metrics.recordMapped("NotFoundException", notFound, 10, true);
+    metrics.recordMapped("CustomException", custom, 10, true);
+    metrics.recordUnmapped(IllegalStateException.class, 10, false);
+
+    InMemoryRestErrorMetrics.Snapshot snapshot = metrics.snapshot();
+    assertEquals(snapshot.getCountsByStatus().get(404), Long.valueOf(2));
+    assertEquals(snapshot.getCountsByStatus().get(503), Long.valueOf(1));
+    assertEquals(snapshot.getCountsByCode().get(40401), Long.valueOf(2));
+    assertEquals(snapshot.getCountsByMapping().get("CustomException"), Long.valueOf(1));
+    assertEquals(snapshot.getUnmappedCount(), 1);
+    assertEquals(snapshot.getUnmappedCountsByClass().get(IllegalStateException.class.getName()), Long.valueOf(1));
+    assertEquals(snapshot.getCacheHits(), 2);
+    assertEquals(snapshot.getCacheMisses(), 2);
+    assertEquals(snapshot.getTotalResolutionNanos(), 40);
+  }
+
+  @Test
+  public void testLatencyHistogram() throws Exception {
+    InMemoryRestErrorMetrics metrics = new InMemoryRestErrorMetrics();
+    for (int i = 0; i < 99; i++) {
+      metrics.recordUnmapped(IllegalStateException.class, 100, true);
+    }
+    metrics.recordUnmapped(IllegalStateException.class, 5000, true);
+
+    InMemoryRestErrorMetrics.Snapshot snapshot = metrics.snapshot();
+    long[] histogram = snapshot.getLatencyHistogram();
+    assertEquals(histogram[6], 99); // [64, 128)
+    assertEquals(histogram[12], 1); // [4096, 8192)
+    assertEquals(snapshot.getLatencyQuantileUpperBound(0.5), 128);
+    assertEquals(snapshot.getLatencyQuantileUpperBound(1), 8192);
+  }
+
+  @Test
+  public void testBuckets() throws Exception {
+    assertEquals(InMemoryRestErrorMetrics.bucketOf(-1), 0);
+    assertEquals(InMemoryRestErrorMetrics.bucketOf(0), 0);
+    assertEquals(InMemoryRestErrorMetrics.bucketOf(2), 1);
+    assertEquals(InMemoryRestErrorMetrics.bucketOf(Long.MAX_VALUE), InMemoryRestErrorMetrics.LATENCY_BUCKETS - 1);
+    assertEquals(InMemoryRestErrorMetrics.latencyBucketUpperBound(0), 2);
+    assertEquals(InMemoryRestErrorMetrics.latencyBucketUpperBound(InMemoryRestErrorMetrics.LATENCY_BUCKETS - 1), Long.MAX_VALUE);
+  }
+
+}
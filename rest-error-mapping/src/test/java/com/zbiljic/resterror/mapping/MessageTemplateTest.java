@@ -0,0 +1,137 @@
+package com.zbiljic.resterror.mapping;
+
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class MessageTemplateTest {
+
+  private final OrderNotFoundException exception =
+      new OrderNotFoundException(42, new IllegalStateException("Order archived"));
+
+  private final RequestContext request = new RequestContext() {
+    private final Map<String, String> headers = Collections.singletonMap("X-Request-Id", "abc");
+
+    @Override
+    public String getMethod() {
+      return "GET";
+    }
+
+    @Override
+    public String getPath() {
+      return "orders/42";
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return headers.get(name);
+    }
+  };
+
+  private String render(String message) {
+    return MessageTemplate.compile(message).render(exception, request);
+  }
+
+  @Test
+  public void testNull() {
+    assertThat(render(null), nullValue());
+  }
+
+  @Test
+  public void testLiteral() {
+    final String message = "Order not found.";
+    assertThat(render(message), sameInstance(message));
+    assertThat(render(""), equalTo(""));
+  }
+
+  @Test
+  public void testLegacyExceptionMessage() {
+    assertThat(render("_exmsg"), equalTo("Order 42 not found"));
+    assertThat(render("_EXMSG"), equalTo("Order 42 not found"));
+    assertThat(MessageTemplate.compile("_exmsg").render(new IllegalStateException(), request), nullValue());
+  }
+
+  @Test
+  public void testProperties() {
+    assertThat(render("Order {orderId} not found (attempt {retry})."), equalTo("Order 42 not found (attempt 3)."));
+    assertThat(render("{message}"), equalTo("Order 42 not found"));
+    assertThat(render("Caused by: {cause.message}"), equalTo("Caused by: Order archived"));
+    assertThat(render("Cancelled: {cancelled}"), equalTo("Cancelled: false"));
+  }
+
+  @Test
+  public void testMissingValues() {
+    assertThat(render("Order {unknown} not found"), equalTo("Order  not found"));
+    assertThat(render("Order {cause.cause.message} not found"), equalTo("Order  not found"));
+    assertThat(render("{unknown}"), nullValue());
+  }
+
+  @Test
+  public void testRequest() {
+    assertThat(render("{request.method} {request.path} ({request.header.X-Request-Id})"), equalTo("GET orders/42 (abc)"));
+    assertThat(MessageTemplate.compile("{request.path}").render(exception, null), nullValue());
+  }
+
+  @Test
+  public void testBraces() {
+    assertThat(render("{}"), equalTo("{}"));
+    assertThat(render("{ orderId }"), equalTo("{ orderId }"));
+    assertThat(render("{{orderId}"), equalTo("{orderId}"));
+    assertThat(render("{{{orderId}}"), equalTo("{42}"));
+    assertThat(render("Order {orderId"), equalTo("Order {orderId"));
+  }
+
+  @Test
+  public void testFailingGetter() {
+    assertThat(render("Failing: {failing}"), equalTo("Failing: "));
+  }
+
+  @Test
+  public void testNonPublicClass() {
+    final Throwable t = new HiddenException();
+    assertThat(MessageTemplate.compile("Hidden {secret}").render(t, request), equalTo("Hidden 7"));
+  }
+
+  public static class OrderNotFoundException extends RuntimeException {
+
+    private final long orderId;
+
+    public OrderNotFoundException(long orderId, Throwable cause) {
+      super("Order " + orderId + " not found", cause);
+      this.orderId = orderId;
+    }
+
+    public long getOrderId() {
+      return orderId;
+    }
+
+    public int retry() {
+      return 3;
+    }
+
+    public boolean isCancelled() {
+      return false;
+    }
+
+    public String getFailing() {
+      throw new IllegalStateException();
+    }
+  }
+
+  private static class HiddenException extends RuntimeException {
+
+    public int getSecret() {
+      return 7;
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+package com.zbiljic.resterror.mapping;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class OverloadSheddingTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  public void testThreshold() {
+    final OverloadShedding shedding = OverloadShedding.threshold(3);
+
+    assertThat(shedding.record(0), equalTo(false));
+    assertThat(shedding.record(1), equalTo(false));
+    assertThat(shedding.isDegraded(1), equalTo(false));
+    assertThat(shedding.record(2), equalTo(true));
+    assertThat(shedding.record(3), equalTo(true));
+    assertThat(shedding.isDegraded(3), equalTo(true));
+    assertThat(shedding.getShedCount(), equalTo(2L));
+  }
+
+  @Test
+  public void testRecovery() {
+    final OverloadShedding shedding = OverloadShedding.threshold(4, 2);
+    for (int i = 0; i < 4; i++) {
+      shedding.record(i);
+    }
+    assertThat(shedding.isDegraded(4), equalTo(true));
+
+    // 4 errors in the previous second - still overloaded
+    assertThat(shedding.record(SECOND), equalTo(true));
+    // 1 error in the previous second - recovered
+    assertThat(shedding.record(2 * SECOND), equalTo(false));
+    assertThat(shedding.isDegraded(2 * SECOND), equalTo(false));
+
+    shedding.record(2 * SECOND + 1);
+    shedding.record(2 * SECOND + 2);
+    assertThat(shedding.record(2 * SECOND + 3), equalTo(true));
+    // no errors for a while
+    assertThat(shedding.record(10 * SECOND), equalTo(false));
+  }
+
+  @Test
+  public void testRecoveryWithoutErrors() {
+    final OverloadShedding shedding = OverloadShedding.threshold(4, 2);
+    for (int i = 0; i < 4; i++) {
+      shedding.record(i);
+    }
+
+    // the overloaded second is not over yet
+    assertThat(shedding.isDegraded(SECOND - 1), equalTo(true));
+    // errors of the previous second are over the recovery threshold
+    assertThat(shedding.isDegraded(SECOND), equalTo(true));
+    // no errors in the previous second
+    assertThat(shedding.isDegraded(2 * SECOND), equalTo(false));
+  }
+
+  @Test
+  public void testConcurrentRecord() throws Exception {
+    final OverloadShedding shedding = OverloadShedding.threshold(4000, 1);
+    final Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 1000; j++) {
+          shedding.record(j);
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    // every error is counted within the same second
+    assertThat(shedding.isDegraded(999), equalTo(true));
+    assertThat(shedding.getShedCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testForced() {
+    final OverloadShedding shedding = OverloadShedding.manual();
+
+    assertThat(shedding.record(0), equalTo(false));
+    shedding.setForced(true);
+    assertThat(shedding.isDegraded(), equalTo(true));
+    assertThat(shedding.record(1), equalTo(true));
+    shedding.setForced(false);
+    assertThat(shedding.record(2), equalTo(false));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidRecoveryThreshold() {
+    OverloadShedding.threshold(10, 20);
+  }
+
+}
@@ -0,0 +1,151 @@
+package com.zbiljic.resterror.mapping;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.RestErrorWithHeaders;
+import com.zbiljic.resterror.TemplatedRestError;
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorResolverTest {
+
+  private static final String CONFIGURATION =
+      "restError.baseMoreInfoUrl = http://httpstatus.es/\n" +
+      "java.lang.IllegalArgumentException = 400 | _exmsg | {request.method} {request.path}\n" +
+      "java.util.concurrent.RejectedExecutionException = 503 | code=50301 | msg=Busy | devMsg=off | moreInfoUrl=off | " +
+      "retryAfter=120 | header.RateLimit-Policy=100;w=60\n";
+
+  private final RequestContext request = new RequestContext() {
+    @Override
+    public String getMethod() {
+      return "DELETE";
+    }
+
+    @Override
+    public String getPath() {
+      return "orders/42";
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return null;
+    }
+  };
+
+  private static RestErrorResolver resolver() {
+    return new RestErrorResolver(new ByteArrayInputStream(CONFIGURATION.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testResolve() {
+    final IllegalArgumentException exception = new IllegalArgumentException("Unknown order");
+
+    final RestError error = resolver().resolve(exception, request);
+
+    assertThat(error.getStatus(), equalTo(HttpStatus.BAD_REQUEST.value()));
+    assertThat(error.getMessage(), equalTo("Unknown order"));
+    assertThat(error.getDeveloperMessage(), equalTo("DELETE orders/42"));
+    assertThat(error.getMoreInfo(), equalTo("http://httpstatus.es/400"));
+    assertThat(((TemplatedRestError) error).getThrowable(), sameInstance((Throwable) exception));
+  }
+
+  @Test
+  public void testResolveOutsideOfRequest() {
+    final RestError error = resolver().resolve(new IllegalArgumentException(), null);
+
+    assertThat(error.getMessage(), nullValue());
+    assertThat(error.getDeveloperMessage(), equalTo(" "));
+  }
+
+  @Test
+  public void testUnmapped() {
+    assertThat(resolver().resolve(new IOException(), request), nullValue());
+  }
+
+  @Test
+  public void testCauseUnwrapping() {
+    final RestErrorResolver resolver = resolver();
+
+    assertThat(resolver.resolve(new CompletionException(new IllegalArgumentException()), request).getStatus(),
+        equalTo(HttpStatus.BAD_REQUEST.value()));
+
+    resolver.setCauseUnwrapping(CauseUnwrapping.NONE);
+    assertThat(resolver.resolve(new CompletionException(new IllegalArgumentException()), request), nullValue());
+  }
+
+  @Test
+  public void testOverloadShedding() {
+    final RestErrorResolver resolver = resolver();
+    final OverloadShedding shedding = OverloadShedding.manual();
+    resolver.setOverloadShedding(shedding);
+    shedding.setForced(true);
+
+    final RestError error = resolver.resolve(new IllegalArgumentException("Unknown order"), request);
+    assertThat(error, sameInstance(RestErrorFactory.valueOf(HttpStatus.BAD_REQUEST)));
+    assertThat(resolver.resolve(new IOException(), request), nullValue());
+    assertThat(shedding.getShedCount(), equalTo(2L));
+
+    shedding.setForced(false);
+    assertThat(resolver.resolve(new IllegalArgumentException("Unknown order"), request).getMessage(), equalTo("Unknown order"));
+  }
+
+  @Test
+  public void testResponseHeaders() {
+    final RestErrorResolver resolver = resolver();
+
+    final RestError error = resolver.resolve(new RejectedExecutionException(), request);
+    assertThat(error.getStatus(), equalTo(HttpStatus.SERVICE_UNAVAILABLE.value()));
+    assertThat(error.getCode(), equalTo(50301));
+    assertThat(((RestErrorWithHeaders) error).getHeaders().keySet(), contains("Retry-After", "RateLimit-Policy"));
+    assertThat(((RestErrorWithHeaders) error).getHeaders().get("Retry-After"), equalTo("120"));
+    assertThat(((RestErrorWithHeaders) error).getHeaders().get("RateLimit-Policy"), equalTo("100;w=60"));
+    assertThat(((RestErrorWithHeaders) resolver.resolve(new IllegalArgumentException(), request)).getHeaders().isEmpty(),
+        equalTo(true));
+
+    // degraded errors keep the headers, so that clients still back off
+    final OverloadShedding shedding = OverloadShedding.manual();
+    resolver.setOverloadShedding(shedding);
+    shedding.setForced(true);
+    final RestError degraded = resolver.resolve(new RejectedExecutionException(), request);
+    assertThat(degraded.getMessage(), equalTo(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase()));
+    assertThat(((RestErrorWithHeaders) degraded).getHeaders(), equalTo(((RestErrorWithHeaders) error).getHeaders()));
+    assertThat(resolver.resolve(new RejectedExecutionException(), request), sameInstance(degraded));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidResponseHeader() {
+    final String configuration = "java.lang.IllegalStateException = 503 | header.Content-Length=0\n";
+    new RestErrorResolver(new ByteArrayInputStream(configuration.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNegativeRetryAfter() {
+    final String configuration = "java.lang.IllegalStateException = 503 | retryAfter=-5\n";
+    new RestErrorResolver(new ByteArrayInputStream(configuration.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testRegister() {
+    final RestErrorResolver resolver = resolver();
+    resolver.register(IOException.class, RestErrorFactory.valueOf(HttpStatus.SERVICE_UNAVAILABLE));
+
+    assertThat(resolver.resolve(new IOException(), request).getStatus(), equalTo(HttpStatus.SERVICE_UNAVAILABLE.value()));
+  }
+
+}
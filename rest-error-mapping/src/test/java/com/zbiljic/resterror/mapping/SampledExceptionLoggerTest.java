@@ -0,0 +1,193 @@
+package com.zbiljic.resterror.mapping;
+
+import org.slf4j.Logger;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class SampledExceptionLoggerTest {
+
+  @Test
+  public void testRateLimited() throws Exception {
+    RecordingLogger recording = new RecordingLogger(false);
+    SampledExceptionLogger logger = new SampledExceptionLogger(recording.logger, 3, 1, TimeUnit.HOURS);
+    ExceptionMappingIndex.Mapping mapping = mapping(IllegalStateException.class, HttpStatus.SERVICE_UNAVAILABLE);
+
+    for (int i = 0; i < 10; i++) {
+      logger.log(new IllegalStateException("failed " + i), mapping);
+    }
+
+    assertEquals(recording.calls.size(), 3);
+    // first occurrence is logged with its stack trace
+    Object[] first = recording.calls.get(0);
+    assertEquals(first[0], "error");
+    assertThat(first[first.length - 1], instanceOf(IllegalStateException.class));
+    // the following ones only with their message
+    assertEquals(recording.calls.get(1)[recording.calls.get(1).length - 1], "failed 1");
+
+    logger.flush();
+    assertEquals(recording.calls.size(), 4);
+    Object[] summary = recording.calls.get(3);
+    assertThat((String) summary[1], containsString("more occurrences"));
+    assertEquals(summary[2], 7L);
+    // the actual window, not the whole period
+    assertThat((Long) summary[5], lessThan(TimeUnit.HOURS.toMillis(1)));
+
+    // nothing suppressed since the last flush
+    logger.close();
+    assertEquals(recording.calls.size(), 4);
+  }
+
+  @Test
+  public void testSeparatePerExceptionClass() throws Exception {
+    RecordingLogger recording = new RecordingLogger(false);
+    SampledExceptionLogger logger = new SampledExceptionLogger(recording.logger, 1, 1, TimeUnit.HOURS);
+
+    logger.log(new IllegalStateException(), null);
+    logger.log(new IllegalStateException(), null);
+    logger.log(new IllegalArgumentException(), null);
+
+    assertEquals(recording.calls.size(), 2);
+  }
+
+  @Test
+  public void testSeparatePerMappingOfWrapper() throws Exception {
+    RecordingLogger recording = new RecordingLogger(false);
+    RestErrorResolver resolver = new RestErrorResolver(new ByteArrayInputStream(
+        ("java.lang.IllegalStateException = 503\n"
+            + "java.lang.UnsupportedOperationException = 501\n").getBytes(StandardCharsets.UTF_8)));
+    SampledExceptionLogger logger = new SampledExceptionLogger(recording.logger, 1, 1, TimeUnit.HOURS);
+    resolver.setExceptionLogger(logger);
+
+    for (int i = 0; i < 5; i++) {
+      resolver.resolve(new CompletionException(new IllegalStateException()), null);
+      resolver.resolve(new CompletionException(new UnsupportedOperationException()), null);
+    }
+
+    // one occurrence of the wrapper per mapping of its causes
+    assertEquals(recording.calls.size(), 2);
+    assertThat(recording.calls.get(0)[recording.calls.get(0).length - 1], instanceOf(CompletionException.class));
+    assertThat(recording.calls.get(1)[recording.calls.get(1).length - 1], instanceOf(CompletionException.class));
+
+    logger.flush();
+    assertEquals(recording.calls.size(), 4);
+    assertEquals(recording.calls.get(2)[2], 4L);
+    assertEquals(recording.calls.get(3)[2], 4L);
+  }
+
+  @Test
+  public void testReloadedMappings() throws Exception {
+    RecordingLogger recording = new RecordingLogger(false);
+    SampledExceptionLogger logger = new SampledExceptionLogger(recording.logger, 1, 1, TimeUnit.HOURS);
+
+    ExceptionMappingIndex.Mapping mapping = mapping(IllegalStateException.class, HttpStatus.SERVICE_UNAVAILABLE);
+    logger.log(new IllegalStateException(), mapping);
+    logger.log(new IllegalStateException(), mapping);
+    assertEquals(recording.calls.size(), 1);
+
+    // the occurrences of the stale mapping are logged, and the reloaded one is logged once again
+    logger.log(new IllegalStateException(), mapping(IllegalStateException.class, HttpStatus.SERVICE_UNAVAILABLE));
+
+    assertEquals(recording.calls.size(), 3);
+    assertThat((String) recording.calls.get(1)[1], containsString("more occurrences"));
+    assertEquals(recording.calls.get(1)[2], 1L);
+    assertThat(recording.calls.get(2)[recording.calls.get(2).length - 1], instanceOf(IllegalStateException.class));
+  }
+
+  @Test
+  public void testClientErrorsLoggedAtDebugLevel() throws Exception {
+    RecordingLogger recording = new RecordingLogger(false);
+    SampledExceptionLogger logger = new SampledExceptionLogger(recording.logger, 5, 1, TimeUnit.HOURS);
+
+    logger.log(new IllegalArgumentException(), mapping(IllegalArgumentException.class, HttpStatus.BAD_REQUEST));
+    assertEquals(recording.calls.size(), 0);
+
+    recording = new RecordingLogger(true);
+    logger = new SampledExceptionLogger(recording.logger, 5, 1, TimeUnit.HOURS);
+    logger.log(new IllegalArgumentException(), mapping(IllegalArgumentException.class, HttpStatus.BAD_REQUEST));
+    assertEquals(recording.calls.size(), 1);
+    assertEquals(recording.calls.get(0)[0], "debug");
+  }
+
+  @Test
+  public void testResolverLogsExceptions() throws Exception {
+    RecordingLogger recording = new RecordingLogger(false);
+    RestErrorResolver resolver = new RestErrorResolver(
+        new ByteArrayInputStream("java.lang.Throwable = 500\n".getBytes(StandardCharsets.UTF_8)));
+    resolver.setExceptionLogger(new SampledExceptionLogger(recording.logger, 5, 1, TimeUnit.HOURS));
+
+    resolver.resolve(new ReflectiveOperationException(), null);
+
+    assertEquals(recording.calls.size(), 1);
+    assertThat((String) recording.calls.get(0)[1], containsString("java.lang.Throwable"));
+  }
+
+  private static ExceptionMappingIndex.Mapping mapping(Class<? extends Throwable> exceptionClass, HttpStatus status) {
+    RestError template = RestErrorFactory.valueOf(status);
+    return ExceptionMappingIndex.compile(Collections.singletonMap(exceptionClass.getName(), template)).find(exceptionClass);
+  }
+
+  /**
+   * Logger which records calls of its logging methods, as arrays of the method name and the
+   * (flattened) arguments.
+   */
+  private static final class RecordingLogger implements InvocationHandler {
+
+    final List<Object[]> calls = new ArrayList<>();
+    final boolean debugEnabled;
+    final Logger logger;
+
+    RecordingLogger(boolean debugEnabled) {
+      this.debugEnabled = debugEnabled;
+      this.logger = (Logger) Proxy.newProxyInstance(Logger.class.getClassLoader(), new Class<?>[]{Logger.class}, this);
+    }
+
+    @Override
+    public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "isErrorEnabled":
+          return true;
+        case "isDebugEnabled":
+          return debugEnabled;
+        case "error":
+        case "debug":
+          List<Object> call = new ArrayList<>();
+          call.add(method.getName());
+          for (Object arg : args) {
+            if (arg instanceof Object[]) {
+              Collections.addAll(call, (Object[]) arg);
+            } else {
+              call.add(arg);
+            }
+          }
+          calls.add(call.toArray());
+          return null;
+        default:
+          throw new UnsupportedOperationException(method.getName());
+      }
+    }
+  }
+
+}
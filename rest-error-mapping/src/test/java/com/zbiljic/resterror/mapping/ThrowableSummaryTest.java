@@ -0,0 +1,68 @@
+package com.zbiljic.resterror.mapping;
+
+import org.testng.annotations.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class ThrowableSummaryTest {
+
+  @Test
+  public void testFramesAreCopiedOnFirstRead() {
+    final CountingException exception = new CountingException("Unknown order");
+
+    final ThrowableSummary summary = ThrowableSummary.of(exception, 2);
+    assertThat(exception.stackTraceReads, equalTo(0));
+    assertThat(summary.toString(), equalTo(CountingException.class.getName() + ": Unknown order"));
+
+    final StackTraceElement[] frames = summary.getStackTrace();
+    assertThat(summary.getStackTrace(), arrayWithSize(2));
+    assertThat(exception.stackTraceReads, equalTo(1));
+    assertThat(frames[0], equalTo(exception.getStackTrace()[0]));
+  }
+
+  @Test
+  public void testFramesArePrinted() {
+    final CountingException exception = new CountingException("Unknown order");
+    final StringWriter out = new StringWriter();
+
+    ThrowableSummary.of(exception, 1).printStackTrace(new PrintWriter(out));
+
+    assertThat(out.toString(), containsString(exception.getStackTrace()[0].toString()));
+  }
+
+  @Test
+  public void testClassNameOnly() {
+    final CountingException exception = new CountingException("Unknown order");
+
+    final ThrowableSummary summary = ThrowableSummary.classNameOf(exception);
+
+    assertThat(summary.getStackTrace(), arrayWithSize(0));
+    assertThat(summary.toString(), equalTo(CountingException.class.getName()));
+    assertThat(exception.stackTraceReads, equalTo(0));
+  }
+
+  private static final class CountingException extends RuntimeException {
+
+    int stackTraceReads;
+
+    CountingException(String message) {
+      super(message);
+    }
+
+    @Override
+    public StackTraceElement[] getStackTrace() {
+      stackTraceReads++;
+      return super.getStackTrace();
+    }
+  }
+
+}
@@ -0,0 +1,80 @@
+package com.zbiljic.resterror.mapping.lang;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class OrderPreservingPropertiesTest {
+
+  @Test
+  public void testLoadPreservesOrder() {
+    OrderPreservingProperties props = new OrderPreservingProperties();
+    props.load(new StringReader("c = 3\n# comment\n; comment\n\na: 1\r\nb 2\n"));
+
+    assertThat(new ArrayList<>(props.keySet()), contains("c", "a", "b"));
+    assertThat(props.get("a"), equalTo("1"));
+    assertThat(props.get("b"), equalTo("2"));
+    assertThat(props.get("c"), equalTo("3"));
+  }
+
+  @Test
+  public void testLoadUtf8InputStream() {
+    OrderPreservingProperties props = new OrderPreservingProperties();
+    props.load(new ByteArrayInputStream("key = 404 | Stránka nenalezena\n".getBytes(StandardCharsets.UTF_8)));
+
+    assertThat(props.get("key"), equalTo("404 | Stránka nenalezena"));
+  }
+
+  @Test
+  public void testLoadEmpty() {
+    OrderPreservingProperties props = new OrderPreservingProperties();
+    props.load(new ByteArrayInputStream(new byte[0]));
+
+    assertTrue(props.isEmpty());
+  }
+
+  @Test
+  public void testLoadContinuedLines() {
+    OrderPreservingProperties props = new OrderPreservingProperties();
+    props.load(new StringReader("key = 400 | first \\\n  part\nother = 500\n"));
+
+    assertThat(props.get("key"), equalTo("400 | first part"));
+    assertThat(props.get("other"), equalTo("500"));
+  }
+
+  @Test
+  public void testIsContinued() {
+    assertTrue(OrderPreservingProperties.isContinued("key = value\\"));
+    assertFalse(OrderPreservingProperties.isContinued("key = value\\\\"));
+    assertFalse(OrderPreservingProperties.isContinued("key = value"));
+    assertFalse(OrderPreservingProperties.isContinued(" "));
+  }
+
+  @Test
+  public void testSplitKeyValue() {
+    assertThat(OrderPreservingProperties.splitKeyValue("key=value"), arrayContaining("key", "value"));
+    assertThat(OrderPreservingProperties.splitKeyValue("  key : = value with spaces  "), arrayContaining("key", "value with spaces"));
+    assertThat(OrderPreservingProperties.splitKeyValue("a\\=b = c=d"), arrayContaining("a\\=b", "c=d"));
+    assertThat(OrderPreservingProperties.splitKeyValue("  "), nullValue());
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testSplitKeyValueWithoutValue() {
+    OrderPreservingProperties.splitKeyValue("key");
+  }
+
+}
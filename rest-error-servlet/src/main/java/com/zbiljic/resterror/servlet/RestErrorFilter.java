@@ -0,0 +1,157 @@
+package com.zbiljic.resterror.servlet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorWithHeaders;
+import com.zbiljic.resterror.http.ResponseHeaders;
+import com.zbiljic.resterror.json.RestErrorEncoder;
+import com.zbiljic.resterror.mapping.CauseUnwrapping;
+import com.zbiljic.resterror.mapping.RestErrorResolver;
+
+/**
+ * Servlet filter which maps the exceptions thrown by the rest of the filter chain to {@code
+ * RestError} responses, with the exception mappings of a {@link RestErrorResolver}.
+ *
+ * The error is encoded with {@link RestErrorEncoder} straight to the {@code ServletOutputStream},
+ * with the {@code Content-Length} set up front, so there is no response entity, no lookup of
+ * writers, and no buffering of the body by the container. If the rest of the chain already used
+ * the {@code PrintWriter} of the response, the error is written to it instead, without the {@code
+ * Content-Length}. Exceptions thrown after the response has been committed cannot be mapped, and
+ * are rethrown as-is. Unmapped exceptions result in an empty
+ * {@code 500 Internal Server Error} response, same as with the JAX-RS mapper.
+ *
+ * When created by the container, the filter reads its mappings from the classpath resource named by
+ * the {@value #CONFIGURATION_FILE_PARAMETER} init parameter, {@value
+ * RestErrorResolver#DEFAULT_CONFIGURATION_FILE} by default.
+ *
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorFilter implements Filter {
+
+  /** The name of the init parameter with the configuration file: "configurationFile". */
+  public static final String CONFIGURATION_FILE_PARAMETER = "configurationFile";
+
+  /**
+   * Unwraps the exceptions of {@link CauseUnwrapping#DEFAULT}, and the {@link ServletException}
+   * used for wrapping by servlets.
+   */
+  public static final CauseUnwrapping DEFAULT_CAUSE_UNWRAPPING = CauseUnwrapping.DEFAULT.withWrapperTypes(
+      Collections.<Class<? extends Throwable>>singletonList(ServletException.class));
+
+  private volatile RestErrorResolver resolver;
+
+  /**
+   * Creates filter which reads its mappings from the configuration named by the init parameters of
+   * the filter, once it is initialized.
+   */
+  public RestErrorFilter() {
+  }
+
+  /**
+   * Creates filter which resolves exceptions with the given resolver, e.g. one shared with other
+   * integrations. The resolver is used as-is, including its {@link CauseUnwrapping}.
+   *
+   * @param resolver the resolver of exceptions
+   */
+  public RestErrorFilter(RestErrorResolver resolver) {
+    if (resolver == null) {
+      throw new IllegalArgumentException("Resolver cannot be null");
+    }
+    this.resolver = resolver;
+  }
+
+  @Override
+  public void init(FilterConfig filterConfig) throws ServletException {
+    if (resolver != null) {
+      return;
+    }
+    String configurationFile = filterConfig.getInitParameter(CONFIGURATION_FILE_PARAMETER);
+    RestErrorResolver resolver = new RestErrorResolver(
+        configurationFile == null ? RestErrorResolver.DEFAULT_CONFIGURATION_FILE : configurationFile);
+    resolver.setCauseUnwrapping(DEFAULT_CAUSE_UNWRAPPING);
+    this.resolver = resolver;
+  }
+
+  /**
+   * Returns the resolver of exceptions used by this filter, or {@code null} if the filter has not
+   * been initialized yet.
+   */
+  public RestErrorResolver getResolver() {
+    return resolver;
+  }
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    try {
+      chain.doFilter(request, response);
+    } catch (IOException | ServletException | RuntimeException e) {
+      if (resolver == null
+          || response.isCommitted()
+          || !(request instanceof HttpServletRequest)
+          || !(response instanceof HttpServletResponse)) {
+        throw e;
+      }
+      writeError(e, (HttpServletRequest) request, (HttpServletResponse) response);
+    }
+  }
+
+  /**
+   * Writes the error the given exception is mapped to. The response must not be committed. The
+   * body written so far is discarded, while the headers are kept, except for the headers of a
+   * {@link RestErrorWithHeaders}, which replace the ones of the same name.
+   *
+   * @param t        the exception to map
+   * @param request  the request
+   * @param response the response to write to
+   */
+  protected void writeError(Throwable t, HttpServletRequest request, HttpServletResponse response) throws IOException {
+    RestError error = resolver.resolve(t, new ServletRequestContext(request));
+    response.resetBuffer();
+    if (error == null) {
+      response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+      response.setContentLength(0);
+      return;
+    }
+    response.setStatus(error.getStatus());
+    if (error instanceof RestErrorWithHeaders) {
+      for (Map.Entry<String, String> header : ((RestErrorWithHeaders) error).getHeaders().entrySet()) {
+        response.setHeader(header.getKey(), header.getValue());
+      }
+    }
+    response.setContentType(ResponseHeaders.APPLICATION_JSON);
+    int length = RestErrorEncoder.encodedLength(error);
+    ServletOutputStream out;
+    try {
+      out = response.getOutputStream();
+    } catch (IllegalStateException e) {
+      // the rest of the chain already used the writer, the length depends on its character encoding
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      RestErrorEncoder.encode(error, buffer);
+      response.getWriter().write(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+      return;
+    }
+    response.setContentLength(length);
+    RestErrorEncoder.encode(error, out);
+  }
+
+  @Override
+  public void destroy() {
+  }
+
+}
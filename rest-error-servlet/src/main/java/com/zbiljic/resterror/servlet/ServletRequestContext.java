@@ -0,0 +1,58 @@
+package com.zbiljic.resterror.servlet;
+
+import java.util.Enumeration;
+
+import javax.servlet.http.HttpServletRequest;
+
+import com.zbiljic.resterror.mapping.RequestContext;
+
+/**
+ * Values of a servlet request, for the {@code {request.*}} placeholders of the error messages.
+ *
+ * @author Nemanja Zbiljic
+ */
+final class ServletRequestContext implements RequestContext {
+
+  private final HttpServletRequest request;
+
+  ServletRequestContext(HttpServletRequest request) {
+    this.request = request;
+  }
+
+  @Override
+  public String getMethod() {
+    return request.getMethod();
+  }
+
+  /**
+   * Returns the path of the request within the application, i.e. without the context path.
+   */
+  @Override
+  public String getPath() {
+    String servletPath = request.getServletPath();
+    String pathInfo = request.getPathInfo();
+    if (pathInfo == null) {
+      return servletPath;
+    }
+    return servletPath == null ? pathInfo : servletPath + pathInfo;
+  }
+
+  @Override
+  public String getHeader(String name) {
+    Enumeration<String> values = request.getHeaders(name);
+    if (values == null || !values.hasMoreElements()) {
+      return null;
+    }
+    String first = values.nextElement();
+    if (!values.hasMoreElements()) {
+      return first;
+    }
+    // same as HttpHeaders#getHeaderString(String) of JAX-RS
+    StringBuilder sb = new StringBuilder(first);
+    while (values.hasMoreElements()) {
+      sb.append(',').append(values.nextElement());
+    }
+    return sb.toString();
+  }
+
+}
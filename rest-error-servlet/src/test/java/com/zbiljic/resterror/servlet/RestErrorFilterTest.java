@@ -0,0 +1,261 @@
+package com.zbiljic.resterror.servlet;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.zbiljic.resterror.http.HttpStatus;
+import com.zbiljic.resterror.http.ResponseHeaders;
+import com.zbiljic.resterror.mapping.RestErrorResolver;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorFilterTest {
+
+  private static final String CONFIGURATION =
+      "java.lang.IllegalArgumentException = 400 | _exmsg | {request.method} {request.path} ({request.header.X-Request-Id})\n" +
+      "java.lang.UnsupportedOperationException = 501\n" +
+      "java.util.concurrent.RejectedExecutionException = 429 | retryAfter=10 | header.RateLimit-Remaining=0\n";
+
+  @Test
+  public void testPassThrough() throws Exception {
+    final RecordingResponse response = new RecordingResponse();
+
+    filter().doFilter(request(), response.proxy(), (req, res) -> res.getOutputStream().write('x'));
+
+    assertThat(response.status, nullValue());
+    assertThat(response.body.toString("UTF-8"), equalTo("x"));
+  }
+
+  @Test
+  public void testMappedException() throws Exception {
+    final RecordingResponse response = new RecordingResponse();
+
+    filter().doFilter(request(), response.proxy(), failing(new IllegalArgumentException("Unknown order")));
+
+    assertThat(response.status, equalTo(HttpStatus.BAD_REQUEST.value()));
+    assertThat(response.contentType, equalTo(ResponseHeaders.APPLICATION_JSON));
+    final String body = response.body.toString("UTF-8");
+    assertThat(body, equalTo("{\"status\":400,\"code\":400,\"message\":\"Unknown order\",\"developerMessage\":\"GET /orders/42 (a,b)\"}"));
+    assertThat(response.contentLength, equalTo(body.getBytes(StandardCharsets.UTF_8).length));
+    assertThat(response.resetBuffer, equalTo(true));
+  }
+
+  @Test
+  public void testMappedExceptionAfterWriterIsUsed() throws Exception {
+    final RecordingResponse response = new RecordingResponse();
+
+    filter().doFilter(request(), response.proxy(), (req, res) -> {
+      res.getWriter().write('x');
+      throw new IllegalArgumentException("Unknown order");
+    });
+
+    assertThat(response.status, equalTo(HttpStatus.BAD_REQUEST.value()));
+    assertThat(response.contentType, equalTo(ResponseHeaders.APPLICATION_JSON));
+    assertThat(response.text.toString(), equalTo(
+        "{\"status\":400,\"code\":400,\"message\":\"Unknown order\",\"developerMessage\":\"GET /orders/42 (a,b)\"}"));
+    assertThat(response.contentLength, nullValue());
+  }
+
+  @Test
+  public void testResponseHeaders() throws Exception {
+    final RecordingResponse response = new RecordingResponse();
+
+    filter().doFilter(request(), response.proxy(), failing(new RejectedExecutionException()));
+
+    assertThat(response.status, equalTo(HttpStatus.TOO_MANY_REQUESTS.value()));
+    assertThat(response.headers.get("Retry-After"), equalTo("10"));
+    assertThat(response.headers.get("RateLimit-Remaining"), equalTo("0"));
+  }
+
+  @Test
+  public void testServletExceptionIsUnwrapped() throws Exception {
+    final RecordingResponse response = new RecordingResponse();
+
+    filter().doFilter(request(), response.proxy(), failing(new ServletException(new UnsupportedOperationException())));
+
+    assertThat(response.status, equalTo(HttpStatus.NOT_IMPLEMENTED.value()));
+  }
+
+  @Test
+  public void testUnmappedException() throws Exception {
+    final RecordingResponse response = new RecordingResponse();
+
+    filter().doFilter(request(), response.proxy(), failing(new IOException()));
+
+    assertThat(response.status, equalTo(HttpStatus.INTERNAL_SERVER_ERROR.value()));
+    assertThat(response.contentLength, equalTo(0));
+    assertThat(response.body.size(), equalTo(0));
+  }
+
+  @Test
+  public void testCommittedResponse() throws Exception {
+    final RecordingResponse response = new RecordingResponse();
+    response.committed = true;
+    final IllegalArgumentException exception = new IllegalArgumentException();
+
+    try {
+      filter().doFilter(request(), response.proxy(), failing(exception));
+      throw new AssertionError("Exception of a committed response must be rethrown");
+    } catch (IllegalArgumentException e) {
+      assertThat(e, sameInstance(exception));
+    }
+    assertThat(response.status, nullValue());
+  }
+
+  @Test
+  public void testInitFromConfiguration() throws Exception {
+    final RestErrorFilter filter = new RestErrorFilter();
+    assertThat(filter.getResolver(), nullValue());
+
+    filter.init((FilterConfig) Proxy.newProxyInstance(FilterConfig.class.getClassLoader(), new Class<?>[]{FilterConfig.class},
+        (proxy, method, args) -> method.getName().equals("getInitParameter") ? "servletErrors.properties" : null));
+
+    assertThat(filter.getResolver().getCauseUnwrapping(), sameInstance(RestErrorFilter.DEFAULT_CAUSE_UNWRAPPING));
+    assertThat(filter.getResolver().getExceptionMappings().find(IllegalStateException.class).getTemplate().getStatus(),
+        equalTo(HttpStatus.CONFLICT.value()));
+  }
+
+  private static RestErrorFilter filter() {
+    final RestErrorResolver resolver = new RestErrorResolver(new ByteArrayInputStream(CONFIGURATION.getBytes(StandardCharsets.UTF_8)));
+    resolver.setCauseUnwrapping(RestErrorFilter.DEFAULT_CAUSE_UNWRAPPING);
+    return new RestErrorFilter(resolver);
+  }
+
+  private static FilterChain failing(Exception exception) {
+    return (request, response) -> {
+      response.getOutputStream().write('x');
+      if (exception instanceof IOException) {
+        throw (IOException) exception;
+      }
+      if (exception instanceof ServletException) {
+        throw (ServletException) exception;
+      }
+      throw (RuntimeException) exception;
+    };
+  }
+
+  private static HttpServletRequest request() {
+    final Map<String, List<String>> headers = new HashMap<>();
+    headers.put("X-Request-Id", Arrays.asList("a", "b"));
+    return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(), new Class<?>[]{HttpServletRequest.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getMethod":
+              return "GET";
+            case "getServletPath":
+              return "/orders";
+            case "getPathInfo":
+              return "/42";
+            case "getHeaders":
+              return Collections.enumeration(headers.getOrDefault((String) args[0], Collections.<String>emptyList()));
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+
+  /**
+   * Records what is written to the response.
+   */
+  private static final class RecordingResponse implements InvocationHandler {
+
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    final StringWriter text = new StringWriter();
+    final Map<String, String> headers = new HashMap<>();
+    Integer status;
+    String contentType;
+    Integer contentLength;
+    boolean committed;
+    boolean resetBuffer;
+    private PrintWriter writer;
+
+    private final ServletOutputStream out = new ServletOutputStream() {
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setWriteListener(WriteListener writeListener) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void write(int b) {
+        body.write(b);
+      }
+    };
+
+    HttpServletResponse proxy() {
+      return (HttpServletResponse) Proxy.newProxyInstance(
+          HttpServletResponse.class.getClassLoader(), new Class<?>[]{HttpServletResponse.class}, this);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      switch (method.getName()) {
+        case "isCommitted":
+          return committed;
+        case "resetBuffer":
+          resetBuffer = true;
+          body.reset();
+          text.getBuffer().setLength(0);
+          return null;
+        case "setStatus":
+          status = (Integer) args[0];
+          return null;
+        case "setHeader":
+          headers.put((String) args[0], (String) args[1]);
+          return null;
+        case "setContentType":
+          contentType = (String) args[0];
+          return null;
+        case "setContentLength":
+          contentLength = (Integer) args[0];
+          return null;
+        case "getOutputStream":
+          if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+          }
+          return out;
+        case "getWriter":
+          if (writer == null) {
+            writer = new PrintWriter(text);
+          }
+          return writer;
+        default:
+          throw new UnsupportedOperationException(method.getName());
+      }
+    }
+  }
+
+}
@@ -1,21 +1,27 @@
 package com.zbiljic.resterror;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 import com.zbiljic.resterror.http.HttpStatus;
+import com.zbiljic.resterror.http.ResponseHeaders;
 
 /**
  * @author Nemanja Zbiljic
  */
 @Immutable
-public class DefaultRestError implements RestError {
+public class DefaultRestError implements RestErrorWithHeaders {
 
   private final HttpStatus status;
   private final int code;
   private final String message;
   private final String developerMessage;
   private final String moreInfoUrl;
+  private final Map<String, String> headers;
   private final Throwable throwable;
 
   public DefaultRestError(final int statusCode,
@@ -40,17 +46,47 @@ public class DefaultRestError implements RestError {
                           final String developerMessage,
                           final String moreInfoUrl,
                           @Nullable final Throwable throwable) {
+    this(status, code, message, developerMessage, moreInfoUrl, Collections.<String, String>emptyMap(), throwable);
+  }
+
+  /**
+   * @param headers the additional response headers, see {@link RestErrorWithHeaders#getHeaders()}
+   * @throws IllegalArgumentException if any of the headers cannot be sent with an error, see
+   *                                  {@link ResponseHeaders#checkHeader(String, String)}
+   */
+  public DefaultRestError(final HttpStatus status,
+                          final int code,
+                          final String message,
+                          final String developerMessage,
+                          final String moreInfoUrl,
+                          final Map<String, String> headers,
+                          @Nullable final Throwable throwable) {
     if (status == null) {
       throw new NullPointerException("HttpStatus argument cannot be null.");
     }
+    if (headers == null) {
+      throw new NullPointerException("Headers argument cannot be null.");
+    }
     this.status = status;
     this.code = code;
     this.message = message;
     this.developerMessage = developerMessage;
     this.moreInfoUrl = moreInfoUrl;
+    this.headers = copyOf(headers);
     this.throwable = throwable;
   }
 
+  private static Map<String, String> copyOf(Map<String, String> headers) {
+    if (headers.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, String> copy = new LinkedHashMap<>(headers);
+    for (Map.Entry<String, String> header : copy.entrySet()) {
+      ResponseHeaders.checkHeader(header.getKey(), header.getValue());
+    }
+    return Collections.unmodifiableMap(copy);
+  }
+
   @Override
   public int getStatus() {
     return status.value();
@@ -76,6 +112,11 @@ public class DefaultRestError implements RestError {
     return moreInfoUrl;
   }
 
+  @Override
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
   public Throwable getThrowable() {
     return throwable;
   }
@@ -116,6 +157,7 @@ public class DefaultRestError implements RestError {
       return false;
     if (moreInfoUrl != null ? !moreInfoUrl.equals(error.moreInfoUrl) : error.moreInfoUrl != null)
       return false;
+    if (!headers.equals(error.headers)) return false;
     return throwable != null ? throwable.equals(error.throwable) : error.throwable == null;
   }
 
@@ -126,6 +168,7 @@ public class DefaultRestError implements RestError {
     result = 31 * result + (message != null ? message.hashCode() : 0);
     result = 31 * result + (developerMessage != null ? developerMessage.hashCode() : 0);
     result = 31 * result + (moreInfoUrl != null ? moreInfoUrl.hashCode() : 0);
+    result = 31 * result + headers.hashCode();
     result = 31 * result + (throwable != null ? throwable.hashCode() : 0);
     return result;
   }
@@ -9,16 +9,35 @@ final class GenericRestError {
 
   private static final String BASE_MORE_INFO_URL = "http://httpstatus.es/";
 
+  /**
+   * Immutable generic errors, indexed by {@link HttpStatus#ordinal()}.
+   */
+  private static final RestError[] GENERIC_ERRORS;
+
+  static {
+    HttpStatus[] statuses = HttpStatus.values();
+    GENERIC_ERRORS = new RestError[statuses.length];
+    for (HttpStatus status : statuses) {
+      GENERIC_ERRORS[status.ordinal()] = new DefaultRestError(
+          status,
+          status.value(),
+          status.getReasonPhrase(),
+          null,
+          BASE_MORE_INFO_URL.concat(String.valueOf(status.value())));
+    }
+  }
+
   GenericRestError() throws Exception {
     throw new IllegalAccessException();
   }
 
-  static RestErrorBuilder create(final HttpStatus status) {
-    return new RestErrorBuilder()
-        .withStatus(status)
-        .withCode(status.value())
-        .withMessage(status.getReasonPhrase())
-        .withMoreInfoUrl(BASE_MORE_INFO_URL.concat(String.valueOf(status.value())));
+  static RestError valueOf(final HttpStatus status) {
+    return GENERIC_ERRORS[status.ordinal()];
+  }
+
+  static RestError valueOf(final HttpStatus status, final String message) {
+    RestError error = valueOf(status);
+    return new DefaultRestError(status, error.getCode(), message, null, error.getMoreInfo());
   }
 
 }
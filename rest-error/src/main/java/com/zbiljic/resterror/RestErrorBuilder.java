@@ -1,6 +1,11 @@
 package com.zbiljic.resterror;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import com.zbiljic.resterror.http.HttpStatus;
+import com.zbiljic.resterror.http.ResponseHeaders;
 
 /**
  * @author Nemanja Zbiljic
@@ -12,6 +17,7 @@ public class RestErrorBuilder {
   private String message;
   private String developerMessage;
   private String moreInfoUrl;
+  private Map<String, String> headers;
   private Throwable throwable;
 
   RestErrorBuilder() {
@@ -47,6 +53,36 @@ public class RestErrorBuilder {
     return this;
   }
 
+  /**
+   * Adds a response header to send with the error, replacing the header of the same name added
+   * before.
+   *
+   * @param name  the header name
+   * @param value the header value, as it is to be sent
+   * @throws IllegalArgumentException if the header cannot be sent with an error, see {@link
+   *                                  ResponseHeaders#checkHeader(String, String)}
+   */
+  public RestErrorBuilder withHeader(String name, String value) {
+    ResponseHeaders.checkHeader(name, value);
+    if (this.headers == null) {
+      this.headers = new LinkedHashMap<>();
+    }
+    this.headers.put(name, value);
+    return this;
+  }
+
+  /**
+   * Adds the {@code Retry-After} header, with the given delay.
+   *
+   * @param seconds the number of seconds the client should wait before retrying
+   */
+  public RestErrorBuilder withRetryAfter(long seconds) {
+    if (seconds < 0) {
+      throw new IllegalArgumentException("Retry-After delay cannot be negative");
+    }
+    return withHeader(ResponseHeaders.RETRY_AFTER, Long.toString(seconds));
+  }
+
   public RestErrorBuilder withThrowable(Throwable throwable) {
     this.throwable = throwable;
     return this;
@@ -56,7 +92,8 @@ public class RestErrorBuilder {
     if (this.status == null) {
       this.status = HttpStatus.INTERNAL_SERVER_ERROR;
     }
-    return new DefaultRestError(this.status, this.code, this.message, this.developerMessage, this.moreInfoUrl, this.throwable);
+    Map<String, String> headers = this.headers == null ? Collections.<String, String>emptyMap() : this.headers;
+    return new DefaultRestError(this.status, this.code, this.message, this.developerMessage, this.moreInfoUrl, headers, this.throwable);
   }
 
 }
@@ -0,0 +1,36 @@
+package com.zbiljic.resterror;
+
+/**
+ * Base type for application exceptions which exist only to be mapped to a {@link RestError}.
+ *
+ * Capturing the stack trace is by far the most expensive part of creating an exception, and it is
+ * of no use for errors which are expected and reported to the client. Therefore the stack trace of
+ * this exception is not captured by default, and suppressed exceptions are disabled.
+ *
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public RestErrorException(String message) {
+    this(message, null);
+  }
+
+  public RestErrorException(String message, Throwable cause) {
+    this(message, cause, false, false);
+  }
+
+  /**
+   * Constructs a new exception, optionally with suppression and writable stack trace enabled.
+   *
+   * @see RuntimeException#RuntimeException(String, Throwable, boolean, boolean)
+   */
+  protected RestErrorException(String message,
+                               Throwable cause,
+                               boolean enableSuppression,
+                               boolean writableStackTrace) {
+    super(message, cause, enableSuppression, writableStackTrace);
+  }
+
+}
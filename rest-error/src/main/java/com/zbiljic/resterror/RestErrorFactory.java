@@ -1,5 +1,7 @@
 package com.zbiljic.resterror;
 
+import java.util.Map;
+
 import com.zbiljic.resterror.http.HttpStatus;
 
 /**
@@ -9,6 +11,8 @@ import com.zbiljic.resterror.http.HttpStatus;
  */
 public abstract class RestErrorFactory {
 
+  private static volatile RestErrorRegistry registry = RestErrorRegistry.EMPTY;
+
   /**
    * Returns new builder for creating a {@code RestError} instance.
    *
@@ -20,29 +24,36 @@ public abstract class RestErrorFactory {
 
   /**
    * Returns new builder for creating a {@code RestError} instance based on existing {@code
-   * RestError} instance.
+   * RestError} instance, including its headers if it is a {@link RestErrorWithHeaders}.
    *
    * @return A builder for creating a {@code RestError} instance based on existing {@code RestError}
    * instance.
    */
   public static RestErrorBuilder builderCopyOf(RestError error) {
-    return new RestErrorBuilder()
+    RestErrorBuilder builder = new RestErrorBuilder()
         .withStatus(error.getStatus())
         .withCode(error.getCode())
         .withMessage(error.getMessage())
         .withDeveloperMessage(error.getDeveloperMessage())
         .withMoreInfoUrl(error.getMoreInfo());
+    if (error instanceof RestErrorWithHeaders) {
+      for (Map.Entry<String, String> header : ((RestErrorWithHeaders) error).getHeaders().entrySet()) {
+        builder.withHeader(header.getKey(), header.getValue());
+      }
+    }
+    return builder;
   }
 
   /**
-   * Creates new generic {@code RestError} for the specified HTTP status.
+   * Returns generic {@code RestError} for the specified HTTP status. The returned instance is
+   * shared, since generic errors are immutable.
    *
    * @param status The desired HTTP status.
    * @return Generic RestError for specified HTTP status.
    * @see <a href="http://httpstatus.es/">http://httpstatus.es/</a>
    */
   public static RestError valueOf(final HttpStatus status) {
-    return GenericRestError.create(status).build();
+    return GenericRestError.valueOf(status);
   }
 
   /**
@@ -54,7 +65,46 @@ public abstract class RestErrorFactory {
    * @see <a href="http://httpstatus.es/">http://httpstatus.es/</a>
    */
   public static RestError valueOf(final HttpStatus status, final String message) {
-    return GenericRestError.create(status).withMessage(message).build();
+    return GenericRestError.valueOf(status, message);
+  }
+
+  /**
+   * Returns the {@code RestError} registered with the specified code in the {@link
+   * #getRegistry() registry}. If there is none, and the code is an HTTP status code, the generic
+   * {@code RestError} for that status is returned.
+   *
+   * @param code The application error code.
+   * @return RestError with the specified code, or {@code null} if there is none.
+   */
+  public static RestError forCode(final int code) {
+    RestError error = registry.get(code);
+    if (error == null) {
+      HttpStatus status = HttpStatus.resolve(code);
+      if (status != null) {
+        error = GenericRestError.valueOf(status);
+      }
+    }
+    return error;
+  }
+
+  /**
+   * Returns the registry of application errors, which is empty unless set with {@link
+   * #setRegistry(RestErrorRegistry)}.
+   */
+  public static RestErrorRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Sets the registry of application errors, consulted by {@link #forCode(int)}.
+   *
+   * @param registry The registry of application errors.
+   */
+  public static void setRegistry(final RestErrorRegistry registry) {
+    if (registry == null) {
+      throw new NullPointerException("RestErrorRegistry argument cannot be null.");
+    }
+    RestErrorFactory.registry = registry;
   }
 
 }
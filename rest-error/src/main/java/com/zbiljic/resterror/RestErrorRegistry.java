@@ -0,0 +1,195 @@
+package com.zbiljic.resterror;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.zbiljic.resterror.http.HttpStatus;
+
+/**
+ * Immutable registry of {@link RestError} instances, keyed by their {@link RestError#getCode()
+ * code}.
+ *
+ * Codes are kept in an open-addressing hash table of primitive {@code int}s, so looking up an
+ * error by code neither boxes the code nor follows any pointers other than to the found error.
+ * Errors are also indexed by their {@link HttpStatus}, and iterated in registration order. Since
+ * the registry cannot be changed once built, it can be read from any number of threads without
+ * locking.
+ *
+ * @author Nemanja Zbiljic
+ */
+@Immutable
+public final class RestErrorRegistry implements Iterable<RestError> {
+
+  private static final List<RestError> NO_ERRORS = Collections.emptyList();
+
+  /** Registry without any errors. */
+  public static final RestErrorRegistry EMPTY = builder().build();
+
+  /** Registered errors, in registration order. */
+  private final List<RestError> errors;
+
+  /** Codes of the errors, in the same slots as {@link #values}. */
+  private final int[] codes;
+
+  /** Errors in their slots, {@code null} for empty slots. */
+  private final RestError[] values;
+
+  private final int mask;
+
+  /** Errors per HTTP status, indexed by {@link HttpStatus#ordinal()}. */
+  private final List<RestError>[] byStatus;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private RestErrorRegistry(List<RestError> errors) {
+    this.errors = Collections.unmodifiableList(errors);
+
+    // load factor of at most 0.5, for short probe sequences
+    int capacity = Integer.highestOneBit(Math.max(2, errors.size()) * 2 - 1) << 1;
+    this.codes = new int[capacity];
+    this.values = new RestError[capacity];
+    this.mask = capacity - 1;
+
+    List<RestError>[] byStatus = new List[HttpStatus.values().length];
+    for (RestError error : errors) {
+      int slot = slotOf(error.getCode());
+      if (values[slot] != null) {
+        throw new IllegalArgumentException(String.format("Duplicate code %d of %s and %s", error.getCode(), values[slot], error));
+      }
+      codes[slot] = error.getCode();
+      values[slot] = error;
+
+      HttpStatus status = HttpStatus.resolve(error.getStatus());
+      if (status != null) {
+        if (byStatus[status.ordinal()] == null) {
+          byStatus[status.ordinal()] = new ArrayList<>();
+        }
+        byStatus[status.ordinal()].add(error);
+      }
+    }
+    for (int i = 0; i < byStatus.length; i++) {
+      byStatus[i] = byStatus[i] == null ? NO_ERRORS : Collections.unmodifiableList(byStatus[i]);
+    }
+    this.byStatus = byStatus;
+  }
+
+  /**
+   * Returns new builder for creating a {@code RestErrorRegistry}.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the slot of the given code: either the one holding it, or the empty one where it
+   * belongs.
+   */
+  private int slotOf(int code) {
+    int slot = mix(code) & mask;
+    while (values[slot] != null && codes[slot] != code) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int mix(int code) {
+    // spreads sequential codes over the table (Fibonacci hashing)
+    int h = code * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Returns the error with the given code, or {@code null} if there is none.
+   */
+  public RestError get(int code) {
+    return values[slotOf(code)];
+  }
+
+  public boolean contains(int code) {
+    return values[slotOf(code)] != null;
+  }
+
+  /**
+   * Returns the errors with the given HTTP status, in registration order.
+   */
+  public List<RestError> get(HttpStatus status) {
+    return byStatus[status.ordinal()];
+  }
+
+  /**
+   * Returns all errors, in registration order.
+   */
+  public List<RestError> asList() {
+    return errors;
+  }
+
+  public int size() {
+    return errors.size();
+  }
+
+  public boolean isEmpty() {
+    return errors.isEmpty();
+  }
+
+  /**
+   * Returns iterator over all errors, in registration order.
+   */
+  @Override
+  public Iterator<RestError> iterator() {
+    return errors.iterator();
+  }
+
+  @Override
+  public String toString() {
+    return "RestErrorRegistry{" +
+        "errors=" + errors +
+        '}';
+  }
+
+  /**
+   * Builder for creating {@link RestErrorRegistry} instances.
+   */
+  public static final class Builder {
+
+    private final List<RestError> errors = new ArrayList<>();
+
+    Builder() {
+    }
+
+    /**
+     * Adds the given error. Codes must be unique within the registry.
+     */
+    public Builder add(RestError error) {
+      if (error == null) {
+        throw new NullPointerException("RestError argument cannot be null.");
+      }
+      errors.add(error);
+      return this;
+    }
+
+    public Builder addAll(Iterable<? extends RestError> errors) {
+      for (RestError error : errors) {
+        add(error);
+      }
+      return this;
+    }
+
+    public Builder addAll(RestError... errors) {
+      return addAll(Arrays.asList(errors));
+    }
+
+    /**
+     * Builds the registry.
+     *
+     * @throws IllegalArgumentException if multiple errors have the same code
+     */
+    public RestErrorRegistry build() {
+      return new RestErrorRegistry(new ArrayList<>(errors));
+    }
+  }
+
+}
@@ -0,0 +1,23 @@
+package com.zbiljic.resterror;
+
+import java.util.Map;
+
+/**
+ * {@link RestError} which is sent with additional HTTP response headers, e.g. {@code Retry-After}
+ * or {@code RateLimit-*} headers of {@code 429 Too Many Requests} and {@code 503 Service
+ * Unavailable} errors, telling the clients when to retry.
+ *
+ * The header values are formatted once, when the error is created, so they are written to each
+ * response as-is.
+ *
+ * @author Nemanja Zbiljic
+ */
+public interface RestErrorWithHeaders extends RestError {
+
+  /**
+   * Returns the additional response headers, by their names, in the order they are to be written.
+   * The returned map is never {@code null}, and cannot be modified.
+   */
+  Map<String, String> getHeaders();
+
+}
@@ -0,0 +1,136 @@
+package com.zbiljic.resterror;
+
+import java.util.Collections;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * {@link RestError} which shares the status, code, more info URL and headers of an immutable
+ * template error, and holds only the messages and the throwable of a single occurrence of the error.
+ *
+ * Producing an error from a template therefore allocates a single small object, instead of
+ * copying every property of the template.
+ *
+ * @author Nemanja Zbiljic
+ */
+@Immutable
+public final class TemplatedRestError implements RestErrorWithHeaders {
+
+  private final RestError template;
+  private final String message;
+  private final String developerMessage;
+  private final Throwable throwable;
+
+  /**
+   * @param template         the error whose status, code and more info URL are used
+   * @param message          the message of this occurrence
+   * @param developerMessage the developer message of this occurrence
+   * @param throwable        the cause of this occurrence
+   */
+  public TemplatedRestError(final RestError template,
+                            final String message,
+                            final String developerMessage,
+                            @Nullable final Throwable throwable) {
+    if (template == null) {
+      throw new NullPointerException("RestError template argument cannot be null.");
+    }
+    this.template = template;
+    this.message = message;
+    this.developerMessage = developerMessage;
+    this.throwable = throwable;
+  }
+
+  /**
+   * Returns the error whose status, code and more info URL are used.
+   */
+  public RestError getTemplate() {
+    return template;
+  }
+
+  @Override
+  public int getStatus() {
+    return template.getStatus();
+  }
+
+  @Override
+  public int getCode() {
+    return template.getCode();
+  }
+
+  @Override
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String getDeveloperMessage() {
+    return developerMessage;
+  }
+
+  @Override
+  public String getMoreInfo() {
+    return template.getMoreInfo();
+  }
+
+  /**
+   * Returns the headers of the template, or no headers if it is not a {@link
+   * RestErrorWithHeaders}.
+   */
+  @Override
+  public Map<String, String> getHeaders() {
+    return template instanceof RestErrorWithHeaders
+        ? ((RestErrorWithHeaders) template).getHeaders()
+        : Collections.<String, String>emptyMap();
+  }
+
+  public Throwable getThrowable() {
+    return throwable;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append(getStatus());
+    sb.append(",");
+    sb.append(getCode());
+    sb.append("{");
+    if (message != null) {
+      sb.append(message);
+    }
+    if (developerMessage != null) {
+      sb.append(", ");
+      sb.append(developerMessage);
+    }
+    if (getMoreInfo() != null) {
+      sb.append(", ");
+      sb.append(getMoreInfo());
+    }
+    sb.append("}");
+    return sb.toString();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    TemplatedRestError error = (TemplatedRestError) o;
+
+    if (!template.equals(error.template)) return false;
+    if (message != null ? !message.equals(error.message) : error.message != null) return false;
+    if (developerMessage != null ? !developerMessage.equals(error.developerMessage) : error.developerMessage != null)
+      return false;
+    return throwable != null ? throwable.equals(error.throwable) : error.throwable == null;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = template.hashCode();
+    result = 31 * result + (message != null ? message.hashCode() : 0);
+    result = 31 * result + (developerMessage != null ? developerMessage.hashCode() : 0);
+    result = 31 * result + (throwable != null ? throwable.hashCode() : 0);
+    return result;
+  }
+}
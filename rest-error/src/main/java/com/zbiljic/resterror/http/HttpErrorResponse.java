@@ -0,0 +1,177 @@
+package com.zbiljic.resterror.http;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.RestErrorWithHeaders;
+import com.zbiljic.resterror.json.RestErrorEncoder;
+
+/**
+ * Complete HTTP/1.1 response of a {@code RestError}: the status line, the headers, and the JSON
+ * body, encoded once into an immutable direct buffer.
+ *
+ * Each {@link #buffer()} call returns a read-only duplicate of that buffer, with its own position
+ * and limit, so the response can be written any number of times, from any number of threads,
+ * without being encoded or copied again. This makes rejecting requests on an event loop (e.g.
+ * with {@code 429 Too Many Requests} or {@code 503 Service Unavailable} during overload) a plain
+ * write of an existing buffer; with Netty, the duplicate can be wrapped with {@code
+ * Unpooled.wrappedBuffer(ByteBuffer)}.
+ *
+ * The body is the same as the one written by {@link RestErrorEncoder}, sent as {@code
+ * application/json} with its {@code Content-Length}. The headers of a {@link RestErrorWithHeaders}
+ * (e.g. {@code Retry-After}) are written with it.
+ *
+ * @author Nemanja Zbiljic
+ */
+@Immutable
+public final class HttpErrorResponse {
+
+  private static final String CRLF = "\r\n";
+
+  /** Responses of the generic errors, by the ordinal of their status. */
+  private static final AtomicReferenceArray<HttpErrorResponse> GENERIC_RESPONSES =
+      new AtomicReferenceArray<>(HttpStatus.values().length);
+
+  private final RestError error;
+  private final ByteBuffer response;
+  private final int bodyOffset;
+
+  private HttpErrorResponse(RestError error, ByteBuffer response, int bodyOffset) {
+    this.error = error;
+    this.response = response;
+    this.bodyOffset = bodyOffset;
+  }
+
+  /**
+   * Returns the response of the generic {@code RestError} for the given status, see {@link
+   * RestErrorFactory#valueOf(HttpStatus)}. The responses are built once, and shared.
+   */
+  public static HttpErrorResponse valueOf(HttpStatus status) {
+    HttpErrorResponse response = GENERIC_RESPONSES.get(status.ordinal());
+    if (response == null) {
+      // racing threads build equal responses, so any of them can be kept
+      response = of(RestErrorFactory.valueOf(status));
+      GENERIC_RESPONSES.set(status.ordinal(), response);
+    }
+    return response;
+  }
+
+  /**
+   * Builds the response of the given error, with its headers if it is a {@link
+   * RestErrorWithHeaders}.
+   *
+   * @param error the error
+   * @return new response
+   */
+  public static HttpErrorResponse of(RestError error) {
+    return of(error, Collections.<String, String>emptyMap());
+  }
+
+  /**
+   * Builds the response of the given error, with additional headers.
+   *
+   * @param error   the error
+   * @param headers the additional headers, written in iteration order after {@code Content-Type},
+   *                {@code Content-Length} and the headers of the error; the first two cannot be
+   *                among them, and they replace the headers of the error of the same name,
+   *                compared ignoring case
+   * @return new response
+   * @throws IllegalArgumentException if any of the headers is not a valid HTTP/1.1 header, or if
+   *                                  two of them have the same name
+   */
+  public static HttpErrorResponse of(RestError error, Map<String, String> headers) {
+    if (error == null) {
+      throw new IllegalArgumentException("Error cannot be null");
+    }
+    int bodyLength = RestErrorEncoder.encodedLength(error);
+
+    StringBuilder head = new StringBuilder(128)
+        .append("HTTP/1.1 ").append(error.getStatus()).append(' ').append(reasonPhrase(error.getStatus())).append(CRLF)
+        .append(ResponseHeaders.CONTENT_TYPE).append(": ").append(ResponseHeaders.APPLICATION_JSON).append(CRLF)
+        .append(ResponseHeaders.CONTENT_LENGTH).append(": ").append(bodyLength).append(CRLF);
+    Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      ResponseHeaders.checkHeader(header.getKey(), header.getValue());
+      if (!names.add(header.getKey())) {
+        throw new IllegalArgumentException("Duplicate header: " + header.getKey());
+      }
+    }
+    if (error instanceof RestErrorWithHeaders) {
+      for (Map.Entry<String, String> header : ((RestErrorWithHeaders) error).getHeaders().entrySet()) {
+        if (!names.contains(header.getKey())) {
+          appendHeader(head, header.getKey(), header.getValue());
+        }
+      }
+    }
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      appendHeader(head, header.getKey(), header.getValue());
+    }
+    head.append(CRLF);
+
+    byte[] headBytes = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(headBytes.length + bodyLength);
+    buffer.put(headBytes);
+    RestErrorEncoder.encode(error, buffer);
+    buffer.flip();
+    return new HttpErrorResponse(error, buffer.asReadOnlyBuffer(), headBytes.length);
+  }
+
+  private static String reasonPhrase(int status) {
+    HttpStatus httpStatus = HttpStatus.resolve(status);
+    return httpStatus == null ? "" : httpStatus.getReasonPhrase();
+  }
+
+  private static void appendHeader(StringBuilder head, String name, String value) {
+    head.append(name).append(": ").append(value).append(CRLF);
+  }
+
+  /**
+   * Returns the error of this response.
+   */
+  public RestError getError() {
+    return error;
+  }
+
+  /**
+   * Returns the number of bytes of the whole response.
+   */
+  public int size() {
+    return response.limit();
+  }
+
+  /**
+   * Returns the whole response, as a read-only duplicate positioned at its start. Only the buffer
+   * itself is allocated; its content is shared with all other duplicates.
+   */
+  public ByteBuffer buffer() {
+    return response.duplicate();
+  }
+
+  /**
+   * Returns the body of the response, as a read-only buffer sharing its content with the response,
+   * e.g. for servers which write the status and the headers on their own.
+   */
+  public ByteBuffer body() {
+    ByteBuffer body = response.duplicate();
+    body.position(bodyOffset);
+    return body.slice();
+  }
+
+  @Override
+  public String toString() {
+    ByteBuffer head = response.duplicate();
+    head.limit(bodyOffset);
+    return StandardCharsets.ISO_8859_1.decode(head).toString()
+        + StandardCharsets.UTF_8.decode(body()).toString();
+  }
+
+}
@@ -378,6 +378,26 @@ public enum HttpStatus {
 
 
 
+  private static final int MIN_STATUS_CODE = 100;
+
+  private static final int MAX_STATUS_CODE = 599;
+
+  /**
+   * Lookup table indexed by {@code statusCode - MIN_STATUS_CODE}. When several constants share the
+   * same value, the first declared one (i.e. the non-deprecated one) wins.
+   */
+  private static final HttpStatus[] STATUS_CODES = new HttpStatus[MAX_STATUS_CODE - MIN_STATUS_CODE + 1];
+
+  static {
+    for (HttpStatus status : values()) {
+      int index = status.value - MIN_STATUS_CODE;
+      if (STATUS_CODES[index] == null) {
+        STATUS_CODES[index] = status;
+      }
+    }
+  }
+
+
   private final int value;
 
   private final String reasonPhrase;
@@ -472,12 +492,23 @@ public enum HttpStatus {
    * @throws IllegalArgumentException if this enum has no constant for the specified numeric value
    */
   public static HttpStatus valueOf(int statusCode) {
-    for (HttpStatus status : values()) {
-      if (status.value == statusCode) {
-        return status;
-      }
+    HttpStatus status = resolve(statusCode);
+    if (status == null) {
+      throw new IllegalArgumentException("No matching constant for [" + statusCode + "]");
     }
-    throw new IllegalArgumentException("No matching constant for [" + statusCode + "]");
+    return status;
+  }
+
+  /**
+   * Resolve the given status code to an {@code HttpStatus}, if possible.
+   * @param statusCode the HTTP status code (potentially non-standard)
+   * @return the corresponding {@code HttpStatus}, or {@code null} if not found
+   */
+  public static HttpStatus resolve(int statusCode) {
+    if (statusCode < MIN_STATUS_CODE || statusCode > MAX_STATUS_CODE) {
+      return null;
+    }
+    return STATUS_CODES[statusCode - MIN_STATUS_CODE];
   }
 
 
@@ -494,6 +525,17 @@ public enum HttpStatus {
     CLIENT_ERROR(4),
     SERVER_ERROR(5);
 
+    /**
+     * Lookup table indexed by series value.
+     */
+    private static final Series[] SERIES = new Series[SERVER_ERROR.value + 1];
+
+    static {
+      for (Series series : values()) {
+        SERIES[series.value] = series;
+      }
+    }
+
     private final int value;
 
     private Series(int value) {
@@ -508,19 +550,30 @@ public enum HttpStatus {
     }
 
     public static Series valueOf(int status) {
-      int seriesCode = status / 100;
-      for (Series series : values()) {
-        if (series.value == seriesCode) {
-          return series;
-        }
+      Series series = resolve(status);
+      if (series == null) {
+        throw new IllegalArgumentException("No matching constant for [" + status + "]");
       }
-      throw new IllegalArgumentException("No matching constant for [" + status + "]");
+      return series;
     }
 
     public static Series valueOf(HttpStatus status) {
       return valueOf(status.value);
     }
 
+    /**
+     * Resolve the given status code to an {@code HttpStatus.Series}, if possible.
+     * @param status the HTTP status code (potentially non-standard)
+     * @return the corresponding {@code Series}, or {@code null} if not found
+     */
+    public static Series resolve(int status) {
+      int seriesCode = status / 100;
+      if (status < 0 || seriesCode >= SERIES.length) {
+        return null;
+      }
+      return SERIES[seriesCode];
+    }
+
   }
 
 }
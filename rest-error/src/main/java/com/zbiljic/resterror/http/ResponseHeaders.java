@@ -0,0 +1,54 @@
+package com.zbiljic.resterror.http;
+
+/**
+ * Names and validation of the HTTP response headers of errors.
+ *
+ * @author Nemanja Zbiljic
+ */
+public final class ResponseHeaders {
+
+  public static final String CONTENT_TYPE = "Content-Type";
+  public static final String CONTENT_LENGTH = "Content-Length";
+  public static final String RETRY_AFTER = "Retry-After";
+
+  /** The content type of errors written as JSON: "application/json". */
+  public static final String APPLICATION_JSON = "application/json";
+
+  private ResponseHeaders() {
+  }
+
+  /**
+   * Checks that the given header can be sent with an error. The name must be a valid HTTP/1.1
+   * header name, other than {@code Content-Type} and {@code Content-Length}, which are set from the
+   * body. The value must not contain line breaks or other control characters, nor characters
+   * outside of ISO-8859-1.
+   *
+   * @param name  the header name
+   * @param value the header value
+   * @throws IllegalArgumentException if the header is not valid
+   */
+  public static void checkHeader(String name, String value) {
+    if (name == null || name.isEmpty()) {
+      throw new IllegalArgumentException("Header name cannot be empty");
+    }
+    if (CONTENT_TYPE.equalsIgnoreCase(name) || CONTENT_LENGTH.equalsIgnoreCase(name)) {
+      throw new IllegalArgumentException("Header '" + name + "' is set from the body");
+    }
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c <= ' ' || c >= 0x7f || c == ':') {
+        throw new IllegalArgumentException("Invalid header name: " + name);
+      }
+    }
+    if (value == null) {
+      throw new IllegalArgumentException("Value of header '" + name + "' cannot be null");
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if ((c < ' ' && c != '\t') || c == 0x7f || c > 0xff) {
+        throw new IllegalArgumentException("Invalid value of header '" + name + "'");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,450 @@
+package com.zbiljic.resterror.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import com.zbiljic.resterror.DefaultRestError;
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorConstants;
+import com.zbiljic.resterror.http.HttpStatus;
+
+/**
+ * Decodes {@link RestError} instances from JSON, as written by {@link RestErrorEncoder} or by
+ * {@code jackson-datatype-rest-error}, without any JSON library.
+ *
+ * The input is read byte by byte, up to the end of the error object, and never beyond it. The
+ * properties may be in any order, and may be {@code null}; unknown properties are skipped. Same as
+ * with {@code jackson-datatype-rest-error}, the {@code status} and {@code code} properties are
+ * required. Field names are matched without creating strings, so only the string values of the
+ * error are allocated.
+ *
+ * @author Nemanja Zbiljic
+ * @see RestErrorEncoder
+ */
+public final class RestErrorDecoder {
+
+  private static final int FIELD_UNKNOWN = -1;
+  private static final int FIELD_STATUS = 0;
+  private static final int FIELD_CODE = 1;
+  private static final int FIELD_MESSAGE = 2;
+  private static final int FIELD_DEVELOPER_MESSAGE = 3;
+  private static final int FIELD_MORE_INFO = 4;
+
+  private static final String[] FIELDS = {
+      RestErrorConstants.STATUS,
+      RestErrorConstants.CODE,
+      RestErrorConstants.MESSAGE,
+      RestErrorConstants.DEVELOPER_MESSAGE,
+      RestErrorConstants.MORE_INFO,
+  };
+
+  private static final int INITIAL_SCRATCH_SIZE = 256;
+
+  /** Largest per-thread buffer kept for decoding strings, larger ones are discarded after use. */
+  private static final int MAX_RETAINED_SCRATCH_SIZE = 8192;
+
+  private static final ThreadLocal<char[]> SCRATCH = new ThreadLocal<char[]>() {
+    @Override
+    protected char[] initialValue() {
+      return new char[INITIAL_SCRATCH_SIZE];
+    }
+  };
+
+  private RestErrorDecoder() {}
+
+  /**
+   * Decodes error from the buffer, starting at its current position. On success, the position is
+   * advanced past the end of the error object.
+   *
+   * @param buffer the buffer to read from
+   * @return the decoded error
+   * @throws IllegalArgumentException if the input is not a valid error, in which case the position
+   *                                  of the buffer is undefined
+   */
+  public static RestError decode(ByteBuffer buffer) {
+    try {
+      return new Decoder(new ByteBufferInput(buffer)).decode();
+    } catch (IOException e) {
+      // not thrown by ByteBufferInput
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Decodes error from the input stream. The stream is read one byte at a time, up to the end of
+   * the error object, so it should be buffered. The stream is not closed.
+   *
+   * @param in the stream to read from
+   * @return the decoded error
+   * @throws IllegalArgumentException if the input is not a valid error
+   */
+  public static RestError decode(InputStream in) throws IOException {
+    return new Decoder(new InputStreamInput(in)).decode();
+  }
+
+  private static final class Decoder {
+
+    private final Input in;
+    private long offset = -1;
+    private int pushedBack = -2;
+    private char[] scratch = SCRATCH.get();
+
+    Decoder(Input in) {
+      this.in = in;
+    }
+
+    RestError decode() throws IOException {
+      try {
+        return decodeObject();
+      } finally {
+        if (scratch.length <= MAX_RETAINED_SCRATCH_SIZE) {
+          SCRATCH.set(scratch);
+        }
+      }
+    }
+
+    private RestError decodeObject() throws IOException {
+      expect(nextNonWhitespace(), '{');
+
+      int status = -1;
+      boolean codeSet = false;
+      int code = 0;
+      String message = null;
+      String developerMessage = null;
+      String moreInfo = null;
+
+      int c = nextNonWhitespace();
+      if (c != '}') {
+        for (; ; ) {
+          expect(c, '"');
+          int field = readFieldName();
+          expect(nextNonWhitespace(), ':');
+          switch (field) {
+            case FIELD_STATUS:
+              status = readIntOrNull(-1);
+              break;
+            case FIELD_CODE:
+              code = readIntOrNull(0);
+              codeSet = true;
+              break;
+            case FIELD_MESSAGE:
+              message = readStringOrNull();
+              break;
+            case FIELD_DEVELOPER_MESSAGE:
+              developerMessage = readStringOrNull();
+              break;
+            case FIELD_MORE_INFO:
+              moreInfo = readStringOrNull();
+              break;
+            default:
+              skipValue(nextNonWhitespace());
+          }
+          c = nextNonWhitespace();
+          if (c == '}') {
+            break;
+          }
+          expect(c, ',');
+          c = nextNonWhitespace();
+        }
+      }
+
+      HttpStatus httpStatus = HttpStatus.resolve(status);
+      if (httpStatus == null) {
+        throw error("Missing or unknown '" + RestErrorConstants.STATUS + "' property of RestError");
+      }
+      if (!codeSet) {
+        throw error("Missing required '" + RestErrorConstants.CODE + "' property of RestError");
+      }
+      return new DefaultRestError(httpStatus, code, message, developerMessage, moreInfo);
+    }
+
+    private int read() throws IOException {
+      if (pushedBack != -2) {
+        int c = pushedBack;
+        pushedBack = -2;
+        return c;
+      }
+      offset++;
+      return in.read();
+    }
+
+    private int readRequired() throws IOException {
+      int c = read();
+      if (c < 0) {
+        throw error("Unexpected end of input");
+      }
+      return c;
+    }
+
+    private void pushBack(int c) {
+      pushedBack = c;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+      int c;
+      do {
+        c = readRequired();
+      } while (c == ' ' || c == '\t' || c == '\n' || c == '\r');
+      return c;
+    }
+
+    private void expect(int actual, char expected) {
+      if (actual != expected) {
+        throw error("Expected '" + expected + "' but found " + describe(actual));
+      }
+    }
+
+    private int readFieldName() throws IOException {
+      int length = readString();
+      for (int field = 0; field < FIELDS.length; field++) {
+        if (matches(FIELDS[field], length)) {
+          return field;
+        }
+      }
+      return FIELD_UNKNOWN;
+    }
+
+    private boolean matches(String name, int length) {
+      if (name.length() != length) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (name.charAt(i) != scratch[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private int readIntOrNull(int nullValue) throws IOException {
+      int c = nextNonWhitespace();
+      if (c == 'n') {
+        expectLiteral("ull");
+        return nullValue;
+      }
+      boolean negative = c == '-';
+      if (negative) {
+        c = readRequired();
+      }
+      if (c < '0' || c > '9') {
+        throw error("Expected integer but found " + describe(c));
+      }
+      long value = 0;
+      do {
+        value = value * 10 + (c - '0');
+        if (value > (long) Integer.MAX_VALUE + 1) {
+          throw error("Integer value out of range");
+        }
+        c = read();
+      } while (c >= '0' && c <= '9');
+      if (c == '.' || c == 'e' || c == 'E') {
+        throw error("Expected integer but found fractional number");
+      }
+      pushBack(c);
+      value = negative ? -value : value;
+      if (value > Integer.MAX_VALUE) {
+        throw error("Integer value out of range");
+      }
+      return (int) value;
+    }
+
+    private String readStringOrNull() throws IOException {
+      int c = nextNonWhitespace();
+      if (c == 'n') {
+        expectLiteral("ull");
+        return null;
+      }
+      expect(c, '"');
+      int length = readString();
+      return new String(scratch, 0, length);
+    }
+
+    /**
+     * Reads string, whose opening quote has already been read, into the scratch buffer.
+     *
+     * @return the number of read characters
+     */
+    private int readString() throws IOException {
+      int length = 0;
+      for (; ; ) {
+        int c = readRequired();
+        if (c == '"') {
+          return length;
+        }
+        if (length + 2 > scratch.length) {
+          char[] grown = new char[scratch.length * 2];
+          System.arraycopy(scratch, 0, grown, 0, length);
+          scratch = grown;
+        }
+        if (c == '\\') {
+          scratch[length++] = readEscape();
+        } else if (c < 0x80) {
+          if (c < 0x20) {
+            throw error("Unescaped control character " + describe(c));
+          }
+          scratch[length++] = (char) c;
+        } else if ((c & 0xE0) == 0xC0) {
+          scratch[length++] = (char) (((c & 0x1F) << 6) | continuation());
+        } else if ((c & 0xF0) == 0xE0) {
+          scratch[length++] = (char) (((c & 0x0F) << 12) | (continuation() << 6) | continuation());
+        } else if ((c & 0xF8) == 0xF0) {
+          int codePoint = ((c & 0x07) << 18) | (continuation() << 12) | (continuation() << 6) | continuation();
+          if (!Character.isSupplementaryCodePoint(codePoint) || !Character.isValidCodePoint(codePoint)) {
+            throw error("Invalid UTF-8 sequence");
+          }
+          scratch[length++] = Character.highSurrogate(codePoint);
+          scratch[length++] = Character.lowSurrogate(codePoint);
+        } else {
+          throw error("Invalid UTF-8 start byte " + describe(c));
+        }
+      }
+    }
+
+    private int continuation() throws IOException {
+      int c = readRequired();
+      if ((c & 0xC0) != 0x80) {
+        throw error("Invalid UTF-8 continuation byte " + describe(c));
+      }
+      return c & 0x3F;
+    }
+
+    private char readEscape() throws IOException {
+      int c = readRequired();
+      switch (c) {
+        case '"':
+        case '\\':
+        case '/':
+          return (char) c;
+        case 'b':
+          return '\b';
+        case 'f':
+          return '\f';
+        case 'n':
+          return '\n';
+        case 'r':
+          return '\r';
+        case 't':
+          return '\t';
+        case 'u':
+          int value = 0;
+          for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(readRequired(), 16);
+            if (digit < 0) {
+              throw error("Invalid unicode escape");
+            }
+            value = (value << 4) | digit;
+          }
+          return (char) value;
+        default:
+          throw error("Invalid escape " + describe(c));
+      }
+    }
+
+    private void expectLiteral(String rest) throws IOException {
+      for (int i = 0; i < rest.length(); i++) {
+        int c = readRequired();
+        if (c != rest.charAt(i)) {
+          throw error("Invalid literal, unexpected " + describe(c));
+        }
+      }
+    }
+
+    /**
+     * Skips value of unknown property, whose first character has already been read.
+     */
+    private void skipValue(int c) throws IOException {
+      switch (c) {
+        case '"':
+          skipString();
+          break;
+        case '{':
+        case '[':
+          skipContainer();
+          break;
+        default:
+          // number or literal
+          if (c == ',' || c == '}' || c == ']' || c == ':') {
+            throw error("Expected value but found " + describe(c));
+          }
+          do {
+            c = read();
+          } while (c >= 0 && c != ',' && c != '}' && c != ']' && c != ' ' && c != '\t' && c != '\n' && c != '\r');
+          pushBack(c);
+      }
+    }
+
+    private void skipString() throws IOException {
+      for (int c = readRequired(); c != '"'; c = readRequired()) {
+        if (c == '\\') {
+          readRequired();
+        }
+      }
+    }
+
+    private void skipContainer() throws IOException {
+      int depth = 1;
+      while (depth > 0) {
+        int c = readRequired();
+        if (c == '"') {
+          skipString();
+        } else if (c == '{' || c == '[') {
+          depth++;
+        } else if (c == '}' || c == ']') {
+          depth--;
+        }
+      }
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException(message + " (at byte " + Math.max(0, offset) + ")");
+    }
+
+    private static String describe(int c) {
+      if (c < 0) {
+        return "end of input";
+      }
+      if (c >= 0x20 && c < 0x7F) {
+        return "'" + (char) c + "'";
+      }
+      return String.format("0x%02X", c);
+    }
+  }
+
+  /**
+   * Source of bytes; returns {@code -1} at the end of input.
+   */
+  private abstract static class Input {
+
+    abstract int read() throws IOException;
+  }
+
+  private static final class ByteBufferInput extends Input {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferInput(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+  }
+
+  private static final class InputStreamInput extends Input {
+
+    private final InputStream in;
+
+    InputStreamInput(InputStream in) {
+      this.in = in;
+    }
+
+    @Override
+    int read() throws IOException {
+      return in.read();
+    }
+  }
+
+}
@@ -0,0 +1,256 @@
+package com.zbiljic.resterror.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorConstants;
+
+/**
+ * Encodes {@link RestError} instances as compact JSON, without any JSON library.
+ *
+ * The output is the same as the one of {@code jackson-datatype-rest-error} with a default {@code
+ * ObjectMapper}: the status and the code are always written, the other properties only when they
+ * are not {@code null}, and characters outside the Basic Multilingual Plane are written as escaped
+ * surrogate pairs. Field names are written from pre-encoded UTF-8 bytes, integers from a table of
+ * digit pairs, and strings are escaped and encoded to UTF-8 as they are written, so encoding does
+ * not allocate any intermediate strings or arrays.
+ *
+ * @author Nemanja Zbiljic
+ * @see RestErrorDecoder
+ */
+public final class RestErrorEncoder {
+
+  private static final byte[] STATUS = fieldPrefix('{', RestErrorConstants.STATUS);
+  private static final byte[] CODE = fieldPrefix(',', RestErrorConstants.CODE);
+  private static final byte[] MESSAGE = fieldPrefix(',', RestErrorConstants.MESSAGE);
+  private static final byte[] DEVELOPER_MESSAGE = fieldPrefix(',', RestErrorConstants.DEVELOPER_MESSAGE);
+  private static final byte[] MORE_INFO = fieldPrefix(',', RestErrorConstants.MORE_INFO);
+
+  private static final byte[] MIN_INT = Integer.toString(Integer.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] DIGIT_TENS = new byte[100];
+  private static final byte[] DIGIT_ONES = new byte[100];
+
+  private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+  /**
+   * Escape of each ASCII character: {@code 0} if it is written as-is, {@code 'u'} if it is written
+   * as a unicode escape, and the character following the backslash otherwise.
+   */
+  private static final byte[] ESCAPES = new byte[128];
+
+  static {
+    for (int i = 0; i < 100; i++) {
+      DIGIT_TENS[i] = (byte) ('0' + i / 10);
+      DIGIT_ONES[i] = (byte) ('0' + i % 10);
+    }
+    for (int i = 0; i < 0x20; i++) {
+      ESCAPES[i] = 'u';
+    }
+    ESCAPES['\b'] = 'b';
+    ESCAPES['\t'] = 't';
+    ESCAPES['\n'] = 'n';
+    ESCAPES['\f'] = 'f';
+    ESCAPES['\r'] = 'r';
+    ESCAPES['"'] = '"';
+    ESCAPES['\\'] = '\\';
+  }
+
+  /** Size of the per-thread buffer used when encoding to streams. */
+  private static final int SCRATCH_SIZE = 1024;
+
+  private static final ThreadLocal<ByteBuffer> SCRATCH = new ThreadLocal<ByteBuffer>() {
+    @Override
+    protected ByteBuffer initialValue() {
+      return ByteBuffer.allocate(SCRATCH_SIZE);
+    }
+  };
+
+  private RestErrorEncoder() {}
+
+  private static byte[] fieldPrefix(char separator, String name) {
+    return (separator + "\"" + name + "\":").getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the number of bytes the given error is encoded to.
+   */
+  public static int encodedLength(RestError error) {
+    int length = STATUS.length + intLength(error.getStatus())
+        + CODE.length + intLength(error.getCode())
+        + 1;
+    if (error.getMessage() != null) {
+      length += MESSAGE.length + stringLength(error.getMessage());
+    }
+    if (error.getDeveloperMessage() != null) {
+      length += DEVELOPER_MESSAGE.length + stringLength(error.getDeveloperMessage());
+    }
+    if (error.getMoreInfo() != null) {
+      length += MORE_INFO.length + stringLength(error.getMoreInfo());
+    }
+    return length;
+  }
+
+  /**
+   * Encodes the given error into the buffer, starting at its current position, and advances the
+   * position past the written bytes.
+   *
+   * @param error  the error to encode
+   * @param buffer the buffer to write to
+   * @return the number of written bytes
+   * @throws BufferOverflowException if the error does not fit into the remaining space of the
+   *                                 buffer, in which case the position of the buffer is not changed
+   */
+  public static int encode(RestError error, ByteBuffer buffer) {
+    int start = buffer.position();
+    try {
+      buffer.put(STATUS);
+      putInt(buffer, error.getStatus());
+      buffer.put(CODE);
+      putInt(buffer, error.getCode());
+      if (error.getMessage() != null) {
+        buffer.put(MESSAGE);
+        putString(buffer, error.getMessage());
+      }
+      if (error.getDeveloperMessage() != null) {
+        buffer.put(DEVELOPER_MESSAGE);
+        putString(buffer, error.getDeveloperMessage());
+      }
+      if (error.getMoreInfo() != null) {
+        buffer.put(MORE_INFO);
+        putString(buffer, error.getMoreInfo());
+      }
+      buffer.put((byte) '}');
+    } catch (BufferOverflowException e) {
+      buffer.position(start);
+      throw e;
+    }
+    return buffer.position() - start;
+  }
+
+  /**
+   * Encodes the given error to the output stream. The stream is not flushed nor closed.
+   *
+   * Errors are encoded into a per-thread buffer and written with a single call, so the stream
+   * does not need to be buffered. Only errors larger than {@value #SCRATCH_SIZE} bytes need a
+   * buffer of their own.
+   *
+   * @param error the error to encode
+   * @param out   the stream to write to
+   */
+  public static void encode(RestError error, OutputStream out) throws IOException {
+    ByteBuffer buffer = SCRATCH.get();
+    buffer.clear();
+    try {
+      encode(error, buffer);
+    } catch (BufferOverflowException e) {
+      buffer = ByteBuffer.allocate(encodedLength(error));
+      encode(error, buffer);
+    }
+    out.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+  }
+
+  private static void putInt(ByteBuffer buffer, int value) {
+    if (value < 0) {
+      if (value == Integer.MIN_VALUE) {
+        buffer.put(MIN_INT);
+        return;
+      }
+      buffer.put((byte) '-');
+      value = -value;
+    }
+    int length = digits(value);
+    if (buffer.remaining() < length) {
+      throw new BufferOverflowException();
+    }
+    int start = buffer.position();
+    int i = start + length;
+    while (value >= 100) {
+      int q = value / 100;
+      int r = value - q * 100;
+      value = q;
+      buffer.put(--i, DIGIT_ONES[r]);
+      buffer.put(--i, DIGIT_TENS[r]);
+    }
+    buffer.put(--i, DIGIT_ONES[value]);
+    if (value >= 10) {
+      buffer.put(--i, DIGIT_TENS[value]);
+    }
+    buffer.position(start + length);
+  }
+
+  private static int intLength(int value) {
+    if (value < 0) {
+      return value == Integer.MIN_VALUE ? MIN_INT.length : 1 + digits(-value);
+    }
+    return digits(value);
+  }
+
+  private static int digits(int value) {
+    int digits = 1;
+    for (long limit = 10; value >= limit && digits < 10; limit *= 10) {
+      digits++;
+    }
+    return digits;
+  }
+
+  private static void putString(ByteBuffer buffer, String value) {
+    buffer.put((byte) '"');
+    for (int i = 0, length = value.length(); i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        byte escape = ESCAPES[c];
+        if (escape == 0) {
+          buffer.put((byte) c);
+        } else if (escape == 'u') {
+          putUnicodeEscape(buffer, c);
+        } else {
+          buffer.put((byte) '\\').put(escape);
+        }
+      } else if (c < 0x800) {
+        buffer.put((byte) (0xC0 | (c >> 6)))
+            .put((byte) (0x80 | (c & 0x3F)));
+      } else if (Character.isSurrogate(c)) {
+        // supplementary characters are written as escaped surrogate pairs, same as Jackson does
+        putUnicodeEscape(buffer, c);
+      } else {
+        buffer.put((byte) (0xE0 | (c >> 12)))
+            .put((byte) (0x80 | ((c >> 6) & 0x3F)))
+            .put((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+    buffer.put((byte) '"');
+  }
+
+  private static void putUnicodeEscape(ByteBuffer buffer, char c) {
+    buffer.put((byte) '\\')
+        .put((byte) 'u')
+        .put(HEX[c >> 12])
+        .put(HEX[(c >> 8) & 0xF])
+        .put(HEX[(c >> 4) & 0xF])
+        .put(HEX[c & 0xF]);
+  }
+
+  private static int stringLength(String value) {
+    int bytes = 2;
+    for (int i = 0, length = value.length(); i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        byte escape = ESCAPES[c];
+        bytes += escape == 0 ? 1 : escape == 'u' ? 6 : 2;
+      } else if (c < 0x800) {
+        bytes += 2;
+      } else if (Character.isSurrogate(c)) {
+        bytes += 6;
+      } else {
+        bytes += 3;
+      }
+    }
+    return bytes;
+  }
+
+}
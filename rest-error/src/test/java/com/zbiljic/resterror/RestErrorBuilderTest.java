@@ -2,10 +2,13 @@ package com.zbiljic.resterror;
 
 import org.testng.annotations.Test;
 
+import java.util.Map;
+
 import com.zbiljic.resterror.http.HttpStatus;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.isEmptyOrNullString;
 
 /**
@@ -102,6 +105,38 @@ public class RestErrorBuilderTest {
     assertThat(error.getMoreInfo(), equalTo(moreInfoUrl));
   }
 
+  @Test
+  public void shouldCreateRestErrorWithHeaders() {
+    final RestError error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.TOO_MANY_REQUESTS)
+        .withRetryAfter(30)
+        .withHeader("RateLimit-Limit", "100")
+        .withHeader("RateLimit-Remaining", "0")
+        .build();
+
+    final Map<String, String> headers = ((RestErrorWithHeaders) error).getHeaders();
+    assertThat(headers.keySet(), contains("Retry-After", "RateLimit-Limit", "RateLimit-Remaining"));
+    assertThat(headers.get("Retry-After"), equalTo("30"));
+    assertThat(RestErrorFactory.builderCopyOf(error).build(), equalTo(error));
+  }
+
+  @Test(expectedExceptions = UnsupportedOperationException.class)
+  public void shouldNotAllowModifyingHeaders() {
+    ((RestErrorWithHeaders) RestErrorFactory.builder().withRetryAfter(1).build()).getHeaders().clear();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldThrowOnNegativeRetryAfter() {
+    RestErrorFactory.builder()
+        .withRetryAfter(-1);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldThrowOnHeaderInjection() {
+    RestErrorFactory.builder()
+        .withHeader("RateLimit-Limit", "100\r\nSet-Cookie: a");
+  }
+
   @Test(expectedExceptions = IllegalArgumentException.class)
   public void shouldThrowOnBadHttpStatus() {
     RestErrorFactory.builder()
@@ -0,0 +1,30 @@
+package com.zbiljic.resterror;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorExceptionTest {
+
+  @Test
+  public void shouldNotCaptureStackTrace() {
+    final RestErrorException exception = new RestErrorException("Order not found");
+
+    assertThat(exception.getMessage(), equalTo("Order not found"));
+    assertThat(exception.getStackTrace(), arrayWithSize(0));
+  }
+
+  @Test
+  public void shouldNotRecordSuppressedExceptions() {
+    final RestErrorException exception = new RestErrorException("Order not found", new IllegalStateException());
+    exception.addSuppressed(new IllegalArgumentException());
+
+    assertThat(exception.getSuppressed(), arrayWithSize(0));
+  }
+
+}
@@ -6,6 +6,8 @@ import com.zbiljic.resterror.http.HttpStatus;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 /**
  * @author Nemanja Zbiljic
@@ -32,4 +34,37 @@ public class RestErrorFactoryTest {
     assertThat(error.getMoreInfo(), equalTo("http://httpstatus.es/404"));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void shouldReuseGenericRestError() {
+    assertThat(RestErrorFactory.valueOf(HttpStatus.SERVICE_UNAVAILABLE),
+        sameInstance(RestErrorFactory.valueOf(HttpStatus.SERVICE_UNAVAILABLE)));
+  }
+
+  @Test
+  public void shouldCreateGenericRestErrorForDeprecatedStatus() {
+    final RestError error = RestErrorFactory.valueOf(HttpStatus.MOVED_TEMPORARILY);
+
+    assertThat(error.getStatus(), equalTo(302));
+    assertThat(error.getMessage(), equalTo("Moved Temporarily"));
+    assertThat(error.getMoreInfo(), equalTo("http://httpstatus.es/302"));
+  }
+
+  @Test
+  public void shouldFindRegisteredRestErrorByCode() {
+    final RestError registered = RestErrorFactory.builder()
+        .withStatus(HttpStatus.NOT_FOUND)
+        .withCode(40401)
+        .withMessage("User not found")
+        .build();
+    final RestErrorRegistry previous = RestErrorFactory.getRegistry();
+    RestErrorFactory.setRegistry(RestErrorRegistry.builder().add(registered).build());
+    try {
+      assertThat(RestErrorFactory.forCode(40401), sameInstance(registered));
+      assertThat(RestErrorFactory.forCode(404), sameInstance(RestErrorFactory.valueOf(HttpStatus.NOT_FOUND)));
+      assertThat(RestErrorFactory.forCode(40402), nullValue());
+    } finally {
+      RestErrorFactory.setRegistry(previous);
+    }
+  }
+
+}
@@ -0,0 +1,120 @@
+package com.zbiljic.resterror;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorRegistryTest {
+
+  private static RestError error(HttpStatus status, int code) {
+    return RestErrorFactory.builder()
+        .withStatus(status)
+        .withCode(code)
+        .withMessage("Error " + code)
+        .build();
+  }
+
+  @Test
+  public void testEmpty() {
+    RestErrorRegistry registry = RestErrorRegistry.EMPTY;
+
+    assertThat(registry.isEmpty(), equalTo(true));
+    assertThat(registry.size(), equalTo(0));
+    assertThat(registry.get(0), nullValue());
+    assertThat(registry.contains(404), equalTo(false));
+    assertThat(registry.get(HttpStatus.NOT_FOUND), empty());
+  }
+
+  @Test
+  public void testLookupByCode() {
+    RestError notFound = error(HttpStatus.NOT_FOUND, 40401);
+    RestError negative = error(HttpStatus.BAD_REQUEST, -1);
+    RestError zero = error(HttpStatus.CONFLICT, 0);
+    RestErrorRegistry registry = RestErrorRegistry.builder()
+        .addAll(notFound, negative, zero)
+        .build();
+
+    assertThat(registry.get(40401), sameInstance(notFound));
+    assertThat(registry.get(-1), sameInstance(negative));
+    assertThat(registry.get(0), sameInstance(zero));
+    assertThat(registry.get(40402), nullValue());
+    assertThat(registry.contains(Integer.MIN_VALUE), equalTo(false));
+  }
+
+  @Test
+  public void testLookupManyCodes() {
+    // enough codes to collide in the table, which is then probed linearly
+    List<RestError> errors = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      errors.add(error(HttpStatus.BAD_REQUEST, i * 1024));
+    }
+    RestErrorRegistry registry = RestErrorRegistry.builder().addAll(errors).build();
+
+    assertThat(registry.size(), equalTo(1000));
+    for (RestError error : errors) {
+      assertThat(registry.get(error.getCode()), sameInstance(error));
+    }
+    for (int i = 0; i < 1000; i++) {
+      assertThat(registry.contains(i * 1024 + 1), equalTo(false));
+    }
+  }
+
+  @Test
+  public void testLookupByStatus() {
+    RestError first = error(HttpStatus.NOT_FOUND, 40401);
+    RestError conflict = error(HttpStatus.CONFLICT, 40901);
+    RestError second = error(HttpStatus.NOT_FOUND, 40402);
+    RestErrorRegistry registry = RestErrorRegistry.builder()
+        .add(first)
+        .add(conflict)
+        .add(second)
+        .build();
+
+    assertThat(registry.get(HttpStatus.NOT_FOUND), contains(first, second));
+    assertThat(registry.get(HttpStatus.CONFLICT), contains(conflict));
+    assertThat(registry.get(HttpStatus.GONE), empty());
+  }
+
+  @Test
+  public void testRegistrationOrder() {
+    RestError a = error(HttpStatus.NOT_FOUND, 3);
+    RestError b = error(HttpStatus.BAD_REQUEST, 1);
+    RestError c = error(HttpStatus.CONFLICT, 2);
+    RestErrorRegistry registry = RestErrorRegistry.builder().addAll(a, b, c).build();
+
+    assertThat(registry.asList(), contains(a, b, c));
+    assertThat(registry, contains(a, b, c));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testDuplicateCode() {
+    RestErrorRegistry.builder()
+        .add(error(HttpStatus.NOT_FOUND, 40401))
+        .add(error(HttpStatus.GONE, 40401))
+        .build();
+  }
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void testNullError() {
+    RestErrorRegistry.builder().add(null);
+  }
+
+  @Test(expectedExceptions = UnsupportedOperationException.class)
+  public void testImmutable() {
+    RestErrorRegistry.builder().add(error(HttpStatus.NOT_FOUND, 1)).build().asList().clear();
+  }
+
+}
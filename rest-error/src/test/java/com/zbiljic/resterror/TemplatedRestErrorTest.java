@@ -0,0 +1,70 @@
+package com.zbiljic.resterror;
+
+import org.testng.annotations.Test;
+
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class TemplatedRestErrorTest {
+
+  private final RestError template = RestErrorFactory.valueOf(HttpStatus.NOT_FOUND);
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void shouldThrowOnNullTemplate() {
+    new TemplatedRestError(null, "Not Found", null, null);
+  }
+
+  @Test
+  public void shouldShareTemplateHeaders() {
+    final RestError withHeaders = RestErrorFactory.builder()
+        .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+        .withRetryAfter(120)
+        .build();
+
+    assertThat(new TemplatedRestError(withHeaders, null, null, null).getHeaders(),
+        sameInstance(((RestErrorWithHeaders) withHeaders).getHeaders()));
+    assertThat(new TemplatedRestError(template, null, null, null).getHeaders().isEmpty(), equalTo(true));
+  }
+
+  @Test
+  public void shouldShareTemplateProperties() {
+    final IllegalStateException cause = new IllegalStateException();
+    final TemplatedRestError error = new TemplatedRestError(template, "Order not found", "No order 42", cause);
+
+    assertThat(error.getTemplate(), sameInstance(template));
+    assertThat(error.getStatus(), equalTo(404));
+    assertThat(error.getCode(), equalTo(404));
+    assertThat(error.getMoreInfo(), equalTo("http://httpstatus.es/404"));
+    assertThat(error.getMessage(), equalTo("Order not found"));
+    assertThat(error.getDeveloperMessage(), equalTo("No order 42"));
+    assertThat(error.getThrowable(), sameInstance((Throwable) cause));
+    assertThat(error.toString(), equalTo("404,404{Order not found, No order 42, http://httpstatus.es/404}"));
+  }
+
+  @Test
+  public void shouldOverrideMessagesWithNull() {
+    final TemplatedRestError error = new TemplatedRestError(template, null, null, null);
+
+    assertThat(error.getMessage(), nullValue());
+    assertThat(error.getDeveloperMessage(), nullValue());
+    assertThat(error.getThrowable(), nullValue());
+  }
+
+  @Test
+  public void shouldCompareByValue() {
+    final TemplatedRestError error = new TemplatedRestError(template, "Order not found", null, null);
+
+    assertThat(error, equalTo(new TemplatedRestError(template, "Order not found", null, null)));
+    assertThat(error.hashCode(), equalTo(new TemplatedRestError(template, "Order not found", null, null).hashCode()));
+    assertThat(error, not(equalTo(new TemplatedRestError(template, "User not found", null, null))));
+  }
+
+}
@@ -0,0 +1,147 @@
+package com.zbiljic.resterror.http;
+
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class HttpErrorResponseTest {
+
+  @Test
+  public void shouldEncodeWholeResponse() {
+    final RestError error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.TOO_MANY_REQUESTS)
+        .withCode(42901)
+        .withMessage("Slow down")
+        .build();
+    final Map<String, String> headers = new LinkedHashMap<>();
+    headers.put("Retry-After", "30");
+    headers.put("Connection", "close");
+
+    final HttpErrorResponse response = HttpErrorResponse.of(error, headers);
+
+    final String body = "{\"status\":429,\"code\":42901,\"message\":\"Slow down\"}";
+    final String expected = "HTTP/1.1 429 Too Many Requests\r\n"
+        + "Content-Type: application/json\r\n"
+        + "Content-Length: " + body.length() + "\r\n"
+        + "Retry-After: 30\r\n"
+        + "Connection: close\r\n"
+        + "\r\n"
+        + body;
+    assertThat(decode(response.buffer()), equalTo(expected));
+    assertThat(decode(response.body()), equalTo(body));
+    assertThat(response.size(), equalTo(expected.length()));
+    assertThat(response.toString(), equalTo(expected));
+    assertThat(response.getError(), sameInstance(error));
+  }
+
+  @Test
+  public void shouldEncodeHeadersOfError() {
+    final RestError error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+        .withCode(50301)
+        .withRetryAfter(120)
+        .build();
+
+    final HttpErrorResponse response = HttpErrorResponse.of(error, Collections.singletonMap("Connection", "close"));
+
+    assertThat(response.toString(), equalTo("HTTP/1.1 503 Service Unavailable\r\n"
+        + "Content-Type: application/json\r\n"
+        + "Content-Length: 27\r\n"
+        + "Retry-After: 120\r\n"
+        + "Connection: close\r\n"
+        + "\r\n"
+        + "{\"status\":503,\"code\":50301}"));
+  }
+
+  @Test
+  public void shouldReplaceHeadersOfError() {
+    final RestError error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+        .withCode(50301)
+        .withRetryAfter(120)
+        .withHeader("RateLimit-Remaining", "0")
+        .build();
+
+    final HttpErrorResponse response = HttpErrorResponse.of(error, Collections.singletonMap("retry-after", "5"));
+
+    assertThat(response.toString(), equalTo("HTTP/1.1 503 Service Unavailable\r\n"
+        + "Content-Type: application/json\r\n"
+        + "Content-Length: 27\r\n"
+        + "RateLimit-Remaining: 0\r\n"
+        + "retry-after: 5\r\n"
+        + "\r\n"
+        + "{\"status\":503,\"code\":50301}"));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectDuplicateHeaders() {
+    final Map<String, String> headers = new LinkedHashMap<>();
+    headers.put("Retry-After", "30");
+    headers.put("retry-after", "60");
+    HttpErrorResponse.of(RestErrorFactory.valueOf(HttpStatus.SERVICE_UNAVAILABLE), headers);
+  }
+
+  @Test
+  public void shouldDuplicateBuffer() {
+    final HttpErrorResponse response = HttpErrorResponse.of(RestErrorFactory.valueOf(HttpStatus.SERVICE_UNAVAILABLE));
+
+    final ByteBuffer first = response.buffer();
+    first.position(first.limit());
+    final ByteBuffer second = response.buffer();
+
+    assertThat(second, not(sameInstance(first)));
+    assertThat(second.position(), equalTo(0));
+    assertThat(second.remaining(), equalTo(response.size()));
+    assertThat(second.isReadOnly(), equalTo(true));
+    assertThat(second.isDirect(), equalTo(true));
+  }
+
+  @Test(expectedExceptions = ReadOnlyBufferException.class)
+  public void shouldNotAllowModification() {
+    HttpErrorResponse.valueOf(HttpStatus.SERVICE_UNAVAILABLE).buffer().put((byte) 0);
+  }
+
+  @Test
+  public void shouldShareGenericResponses() {
+    final HttpErrorResponse response = HttpErrorResponse.valueOf(HttpStatus.SERVICE_UNAVAILABLE);
+
+    assertThat(HttpErrorResponse.valueOf(HttpStatus.SERVICE_UNAVAILABLE), sameInstance(response));
+    assertThat(response.getError(), sameInstance(RestErrorFactory.valueOf(HttpStatus.SERVICE_UNAVAILABLE)));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectContentLengthHeader() {
+    HttpErrorResponse.of(RestErrorFactory.valueOf(HttpStatus.BAD_REQUEST), Collections.singletonMap("content-length", "0"));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectHeaderInjection() {
+    HttpErrorResponse.of(RestErrorFactory.valueOf(HttpStatus.BAD_REQUEST), Collections.singletonMap("X-Reason", "a\r\nSet-Cookie: b"));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectInvalidHeaderName() {
+    HttpErrorResponse.of(RestErrorFactory.valueOf(HttpStatus.BAD_REQUEST), Collections.singletonMap("X Reason", "a"));
+  }
+
+  private static String decode(ByteBuffer buffer) {
+    return StandardCharsets.UTF_8.decode(buffer).toString();
+  }
+
+}
@@ -0,0 +1,54 @@
+package com.zbiljic.resterror.http;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class HttpStatusTest {
+
+  @Test
+  public void shouldResolveEveryStatus() {
+    for (HttpStatus status : HttpStatus.values()) {
+      assertThat(HttpStatus.valueOf(status.value()).value(), equalTo(status.value()));
+    }
+  }
+
+  @Test
+  public void shouldPreferNonDeprecatedStatus() {
+    assertThat(HttpStatus.valueOf(302), equalTo(HttpStatus.FOUND));
+    assertThat(HttpStatus.valueOf(413), equalTo(HttpStatus.PAYLOAD_TOO_LARGE));
+    assertThat(HttpStatus.valueOf(414), equalTo(HttpStatus.URI_TOO_LONG));
+  }
+
+  @Test
+  public void shouldNotResolveUnknownStatus() {
+    assertThat(HttpStatus.resolve(0), nullValue());
+    assertThat(HttpStatus.resolve(299), nullValue());
+    assertThat(HttpStatus.resolve(600), nullValue());
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldThrowOnUnknownStatus() {
+    HttpStatus.valueOf(299);
+  }
+
+  @Test
+  public void shouldResolveSeries() {
+    assertThat(HttpStatus.Series.valueOf(100), equalTo(HttpStatus.Series.INFORMATIONAL));
+    assertThat(HttpStatus.Series.valueOf(404), equalTo(HttpStatus.Series.CLIENT_ERROR));
+    assertThat(HttpStatus.Series.valueOf(HttpStatus.SERVICE_UNAVAILABLE), equalTo(HttpStatus.Series.SERVER_ERROR));
+    assertThat(HttpStatus.Series.resolve(99), nullValue());
+    assertThat(HttpStatus.Series.resolve(600), nullValue());
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldThrowOnUnknownSeries() {
+    HttpStatus.Series.valueOf(600);
+  }
+
+}
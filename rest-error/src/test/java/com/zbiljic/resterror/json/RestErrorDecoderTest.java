@@ -0,0 +1,117 @@
+package com.zbiljic.resterror.json;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.zbiljic.resterror.DefaultRestError;
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorDecoderTest {
+
+  @Test
+  public void shouldDecodeEncodedError() throws IOException {
+    final RestError error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+        .withCode(-50301)
+        .withMessage("\"quoted\" \\ tab\t new\nline \u0001 /")
+        .withDeveloperMessage("caf\u00e9 \u20ac \ud83d\ude00")
+        .withMoreInfoUrl("http://example.org/errors/50301")
+        .build();
+
+    ByteBuffer buffer = ByteBuffer.allocate(RestErrorEncoder.encodedLength(error));
+    RestErrorEncoder.encode(error, buffer);
+    buffer.flip();
+
+    final RestError decoded = RestErrorDecoder.decode(buffer);
+    assertThat(decoded, instanceOf(DefaultRestError.class));
+    assertThat(decoded, equalTo(error));
+    assertThat(buffer.hasRemaining(), equalTo(false));
+
+    assertThat(RestErrorDecoder.decode(new ByteArrayInputStream(buffer.array())), equalTo(error));
+  }
+
+  @Test
+  public void shouldDecodeAnyOrderWithWhitespaceNullsAndUnknownProperties() {
+    final RestError decoded = decode("{\n"
+        + "  \"moreInfo\" : null,\n"
+        + "  \"extra\" : {\"nested\": [1, 2.5e3, \"}\", true, null], \"x\": {}},\n"
+        + "  \"message\" : \"Not \\u0046ound\",\n"
+        + "  \"count\" : -12,\n"
+        + "  \"code\" : null,\n"
+        + "  \"status\" : 404\n"
+        + "}");
+
+    assertThat(decoded.getStatus(), equalTo(404));
+    assertThat(decoded.getCode(), equalTo(0));
+    assertThat(decoded.getMessage(), equalTo("Not Found"));
+    assertThat(decoded.getDeveloperMessage(), nullValue());
+    assertThat(decoded.getMoreInfo(), nullValue());
+  }
+
+  @Test
+  public void shouldStopAtEndOfObject() {
+    ByteBuffer buffer = ByteBuffer.wrap("{\"status\":404,\"code\":1}{\"status\":500,\"code\":2}".getBytes(StandardCharsets.UTF_8));
+
+    assertThat(RestErrorDecoder.decode(buffer).getStatus(), equalTo(404));
+    assertThat(RestErrorDecoder.decode(buffer).getStatus(), equalTo(500));
+  }
+
+  @Test
+  public void shouldDecodeLongStrings() {
+    StringBuilder message = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      message.append((char) ('a' + i % 26));
+    }
+
+    assertThat(decode("{\"status\":400,\"code\":400,\"message\":\"" + message + "\"}").getMessage(), equalTo(message.toString()));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectMissingStatus() {
+    decode("{\"code\":404}");
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectMissingCode() {
+    decode("{\"status\":404,\"message\":\"Not Found\"}");
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectUnknownStatus() {
+    decode("{\"status\":999,\"code\":999}");
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectTruncatedInput() {
+    decode("{\"status\":404,\"message\":\"Not");
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectFractionalCode() {
+    decode("{\"status\":404,\"code\":1.5}");
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectCodeOutOfRange() {
+    decode("{\"status\":404,\"code\":2147483648}");
+  }
+
+  private static RestError decode(String json) {
+    return RestErrorDecoder.decode(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+  }
+
+}
@@ -0,0 +1,122 @@
+package com.zbiljic.resterror.json;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.zbiljic.resterror.RestError;
+import com.zbiljic.resterror.RestErrorFactory;
+import com.zbiljic.resterror.http.HttpStatus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * @author Nemanja Zbiljic
+ */
+public class RestErrorEncoderTest {
+
+  @Test
+  public void shouldEncodeAllProperties() {
+    final RestError error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+        .withCode(50301)
+        .withMessage("Service unavailable")
+        .withDeveloperMessage("Inventory did not respond")
+        .withMoreInfoUrl("http://example.org/errors/50301")
+        .build();
+
+    assertThat(encode(error), equalTo("{\"status\":503,\"code\":50301,\"message\":\"Service unavailable\","
+        + "\"developerMessage\":\"Inventory did not respond\",\"moreInfo\":\"http://example.org/errors/50301\"}"));
+  }
+
+  @Test
+  public void shouldOmitNullProperties() {
+    final RestError error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.NOT_FOUND)
+        .build();
+
+    assertThat(encode(error), equalTo("{\"status\":404,\"code\":0}"));
+  }
+
+  @Test
+  public void shouldEncodeIntegers() {
+    for (int code : new int[]{0, 7, 10, 99, 100, 12345, 1000000000, Integer.MAX_VALUE, -1, -100, Integer.MIN_VALUE}) {
+      final RestError error = RestErrorFactory.builder()
+          .withStatus(HttpStatus.BAD_REQUEST)
+          .withCode(code)
+          .build();
+
+      assertThat(encode(error), equalTo("{\"status\":400,\"code\":" + code + "}"));
+    }
+  }
+
+  @Test
+  public void shouldEscapeStrings() {
+    final RestError error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.BAD_REQUEST)
+        .withMessage("\"quoted\" \\ tab\t new\nline \u0001 /")
+        .withDeveloperMessage("caf\u00e9 \u20ac \ud83d\ude00 \ud800")
+        .build();
+
+    assertThat(encode(error), equalTo("{\"status\":400,\"code\":0,"
+        + "\"message\":\"\\\"quoted\\\" \\\\ tab\\t new\\nline \\u0001 /\","
+        + "\"developerMessage\":\"caf\u00e9 \u20ac \\uD83D\\uDE00 \\uD800\"}"));
+  }
+
+  @Test
+  public void shouldComputeEncodedLength() {
+    final RestError error = RestErrorFactory.builder()
+        .withStatus(HttpStatus.BAD_REQUEST)
+        .withCode(-42)
+        .withMessage("\"quoted\"\n")
+        .withDeveloperMessage("caf\u00e9 \u20ac \ud83d\ude00 \ud800")
+        .withMoreInfoUrl("http://example.org")
+        .build();
+
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+    assertThat(RestErrorEncoder.encode(error, buffer), equalTo(RestErrorEncoder.encodedLength(error)));
+    assertThat(buffer.position(), equalTo(RestErrorEncoder.encodedLength(error)));
+  }
+
+  @Test
+  public void shouldNotChangePositionOnOverflow() {
+    final RestError error = RestErrorFactory.valueOf(HttpStatus.NOT_FOUND);
+    ByteBuffer buffer = ByteBuffer.allocate(RestErrorEncoder.encodedLength(error) - 1);
+    buffer.put((byte) ' ');
+
+    try {
+      RestErrorEncoder.encode(error, buffer);
+      throw new AssertionError("Expected BufferOverflowException");
+    } catch (BufferOverflowException expected) {
+      assertThat(buffer.position(), equalTo(1));
+    }
+  }
+
+  @Test
+  public void shouldEncodeToOutputStream() throws IOException {
+    StringBuilder message = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      message.append("\u20ac");
+    }
+    for (RestError error : new RestError[]{
+        RestErrorFactory.valueOf(HttpStatus.NOT_FOUND),
+        RestErrorFactory.valueOf(HttpStatus.NOT_FOUND, message.toString())}) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      RestErrorEncoder.encode(error, out);
+
+      assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), equalTo(encode(error)));
+    }
+  }
+
+  private static String encode(RestError error) {
+    ByteBuffer buffer = ByteBuffer.allocate(RestErrorEncoder.encodedLength(error));
+    RestErrorEncoder.encode(error, buffer);
+    return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+  }
+
+}